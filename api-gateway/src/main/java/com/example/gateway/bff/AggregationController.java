@@ -0,0 +1,136 @@
+package com.example.gateway.bff;
+
+import com.example.gateway.filter.JwtAuthFilter;
+import com.example.gateway.tenant.TenantResolver;
+import com.example.identity.SignedIdentity;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Backend-for-frontend aggregation: one browser call, parallel downstream calls.
+ *
+ *  • Reached only through a gateway route ({@code /api/bff/<name>} →
+ *    {@code forward:/internal/bff/<name>}), so JwtAuthFilter, rate limiting and
+ *    metrics have already run; direct calls have no validated token and get 401.
+ *  • Legs of the aggregate run concurrently through the load-balanced
+ *    WebClient, each with its own timeout.
+ *  • The caller's Authorization (and signed identity, if present) is forwarded.
+ *  • Failed optional legs are reported under {@code errors} and the rest is
+ *    returned; a failed required leg turns the response into 502.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(prefix = "gateway.bff", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AggregationController {
+
+  private final WebClient webClient;
+  private final BffProperties properties;
+
+  public AggregationController(WebClient.Builder webClient, ReactorLoadBalancerExchangeFilterFunction loadBalancer,
+                               BffProperties properties) {
+    this.webClient = webClient.filter(loadBalancer).build();
+    this.properties = properties;
+  }
+
+  @GetMapping("/internal/bff/{name}")
+  public Mono<ResponseEntity<Map<String, Object>>> aggregate(@PathVariable String name, ServerWebExchange exchange) {
+    Jwt jwt = exchange.getAttribute(JwtAuthFilter.JWT_ATTRIBUTE);
+    if (jwt == null) {
+      return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+    Map<String, BffProperties.Leg> legs = properties.getAggregates().get(name);
+    if (legs == null) {
+      return Mono.just(ResponseEntity.notFound().build());
+    }
+
+    String tenant = TenantResolver.tenantOf(jwt);
+    ServerHttpRequest request = exchange.getRequest();
+    return Flux.fromIterable(legs.entrySet())
+        .flatMap(e -> call(e.getKey(), e.getValue(), tenant, request))
+        .collectList()
+        .map(results -> respond(legs, results));
+  }
+
+  private Mono<LegResult> call(String name, BffProperties.Leg leg, String tenant, ServerHttpRequest request) {
+    Duration timeout = leg.getTimeout() != null ? leg.getTimeout() : properties.getDefaultTimeout();
+    String uri = "http://" + leg.getService() + leg.getPath().replace("{tenant}", tenant);
+    String query = request.getURI().getRawQuery();
+    if (leg.isForwardQuery() && query != null) {
+      uri += (uri.contains("?") ? "&" : "?") + query;
+    }
+    return webClient.get()
+        .uri(uri)
+        .headers(h -> copyAuth(request.getHeaders(), h))
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .timeout(timeout)
+        .map(body -> new LegResult(name, body, null))
+        .defaultIfEmpty(new LegResult(name, null, null))
+        .onErrorResume(ex -> {
+          log.warn("BFF leg {} failed: {}", name, ex.toString());
+          return Mono.just(new LegResult(name, null, describe(ex)));
+        });
+  }
+
+  private static void copyAuth(HttpHeaders from, HttpHeaders to) {
+    for (String header : List.of(HttpHeaders.AUTHORIZATION, SignedIdentity.HEADER, HttpHeaders.ACCEPT_LANGUAGE)) {
+      String value = from.getFirst(header);
+      if (value != null) {
+        to.set(header, value);
+      }
+    }
+  }
+
+  private static ResponseEntity<Map<String, Object>> respond(Map<String, BffProperties.Leg> legs,
+                                                             List<LegResult> results) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    Map<String, String> errors = new LinkedHashMap<>();
+    boolean requiredFailed = false;
+    for (String name : legs.keySet()) {
+      LegResult result = results.stream().filter(r -> r.name().equals(name)).findFirst().orElseThrow();
+      if (result.error() != null) {
+        errors.put(name, result.error());
+        requiredFailed |= legs.get(name).isRequired();
+      } else {
+        body.put(name, result.body());
+      }
+    }
+    if (!errors.isEmpty()) {
+      body.put("errors", errors);
+    }
+    return ResponseEntity.status(requiredFailed ? HttpStatus.BAD_GATEWAY : HttpStatus.OK).body(body);
+  }
+
+  private static String describe(Throwable ex) {
+    if (ex instanceof TimeoutException) {
+      return "timeout";
+    }
+    if (ex instanceof WebClientResponseException r) {
+      return "HTTP " + r.getStatusCode().value();
+    }
+    return "unavailable";
+  }
+
+  private record LegResult(String name, JsonNode body, String error) {
+  }
+}
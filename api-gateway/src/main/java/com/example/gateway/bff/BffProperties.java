@@ -0,0 +1,41 @@
+package com.example.gateway.bff;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.bff.*}: named aggregates, each a set of downstream GET calls
+ * ("legs") that {@link AggregationController} runs in parallel.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.bff")
+public class BffProperties {
+
+  private boolean enabled = true;
+
+  /** Used for legs without their own timeout. */
+  private Duration defaultTimeout = Duration.ofSeconds(2);
+
+  private Map<String, Map<String, Leg>> aggregates = new LinkedHashMap<>();
+
+  @Data
+  public static class Leg {
+
+    /** Eureka service id, resolved by the load-balanced WebClient. */
+    private String service;
+
+    /** Path and query; {@code {tenant}} is replaced by the caller's realm. */
+    private String path;
+
+    /** Append the incoming query string (filters, paging) to {@link #path}. */
+    private boolean forwardQuery;
+
+    private Duration timeout;
+
+    /** A failed required leg fails the whole aggregate with 502. */
+    private boolean required;
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.gateway.cache;
+
+import java.time.Instant;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A stored downstream response.
+ *
+ * @param tenant       tenant the entry belongs to, for invalidation
+ * @param service      downstream service (or route) that produced it, for invalidation
+ * @param headers      response headers worth replaying (content type, ETag, ...)
+ * @param body         the full response body
+ * @param expiresAt    end of freshness
+ * @param upstreamNanos how long the downstream call took; credited as saved on each hit
+ */
+public record CachedResponse(String tenant, String service, HttpHeaders headers, byte[] body, Instant expiresAt,
+    long upstreamNanos) {
+}
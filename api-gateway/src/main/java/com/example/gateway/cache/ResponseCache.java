@@ -0,0 +1,172 @@
+package com.example.gateway.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Size-bounded, TTL-based store behind ResponseCacheFilter, plus the
+ * bookkeeping for collapsing concurrent misses on the same key.
+ *
+ * Meters: {@code gateway.response.cache{route, result=hit|miss|collapsed}}
+ * and {@code gateway.response.cache.saved{route}} — downstream time avoided
+ * by hits, in seconds.
+ */
+public class ResponseCache {
+
+  private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+  private final Map<String, Sinks.One<CachedResponse>> pending = new ConcurrentHashMap<>();
+  private final ResponseCacheProperties properties;
+  private final MeterRegistry registry;
+  private final Clock clock;
+
+  public ResponseCache(ResponseCacheProperties properties, MeterRegistry registry, Clock clock) {
+    this.properties = properties;
+    this.registry = registry;
+    this.clock = clock;
+  }
+
+  /** A fresh entry for {@code key}, or {@code null}. */
+  public CachedResponse get(String key) {
+    CachedResponse entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (!entry.expiresAt().isAfter(clock.instant())) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry;
+  }
+
+  /**
+   * Try to become the request that fetches {@code key} from downstream.
+   *
+   * @return a sink the caller must pass to {@link #complete}, or {@code null}
+   *         if another request is already fetching the key
+   */
+  public Sinks.One<CachedResponse> lead(String key) {
+    Sinks.One<CachedResponse> sink = Sinks.one();
+    return pending.putIfAbsent(key, sink) == null ? sink : null;
+  }
+
+  /**
+   * The in-flight fetch of {@code key}; empty if there is none, if its
+   * response is not cacheable or if it takes longer than the collapse timeout.
+   */
+  public Mono<CachedResponse> follow(String key) {
+    Sinks.One<CachedResponse> sink = pending.get(key);
+    return sink == null ? Mono.empty() : sink.asMono().timeout(properties.getCollapseTimeout(), Mono.empty());
+  }
+
+  /**
+   * Finish a lead: store the response (if cacheable) and release the requests
+   * waiting on it.  Safe to call more than once.
+   */
+  public void complete(String key, Sinks.One<CachedResponse> lead, CachedResponse response) {
+    if (response != null) {
+      if (entries.size() >= properties.getMaxEntries()) {
+        evict();
+      }
+      entries.put(key, response);
+    }
+    if (pending.remove(key, lead)) {
+      if (response != null) {
+        lead.tryEmitValue(response);
+      } else {
+        lead.tryEmitEmpty();
+      }
+    }
+  }
+
+  /**
+   * Freshness lifetime for a downstream response, or {@code null} if its
+   * Cache-Control forbids sharing it.
+   */
+  public Duration lifetimeOf(HttpHeaders headers) {
+    String cacheControl = headers.getCacheControl();
+    if (cacheControl == null) {
+      return properties.getTtl();
+    }
+    Duration ttl = properties.getTtl();
+    for (String directive : cacheControl.toLowerCase().split(",")) {
+      String d = directive.trim();
+      if (d.equals("no-store") || d.equals("no-cache") || d.equals("private")) {
+        return null;
+      }
+      if (d.startsWith("s-maxage=") || d.startsWith("max-age=")) {
+        try {
+          Duration maxAge = Duration.ofSeconds(Long.parseLong(d.substring(d.indexOf('=') + 1)));
+          ttl = maxAge.compareTo(ttl) < 0 ? maxAge : ttl;
+        } catch (NumberFormatException e) {
+          return null;
+        }
+      }
+    }
+    return ttl.isZero() || ttl.isNegative() ? null : ttl;
+  }
+
+  /** Drop every entry of one tenant. */
+  public void invalidateTenant(String tenant) {
+    entries.values().removeIf(e -> e.tenant().equals(tenant));
+  }
+
+  /**
+   * Drop every entry served by one downstream service, for all tenants (after a
+   * write through the gateway: the data behind it may be shared across tenants).
+   */
+  public void invalidateService(String service) {
+    entries.values().removeIf(e -> e.service().equals(service));
+  }
+
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public Instant now() {
+    return clock.instant();
+  }
+
+  public void record(String route, String result) {
+    registry.counter("gateway.response.cache", "route", route, "result", result).increment();
+  }
+
+  public void recordSaved(String route, long nanos) {
+    registry.counter("gateway.response.cache.saved", "route", route).increment(nanos / 1e9);
+  }
+
+  /** Expired entries first, then an arbitrary tenth of the cache. */
+  private void evict() {
+    Instant now = clock.instant();
+    entries.values().removeIf(e -> !e.expiresAt().isAfter(now));
+    int excess = entries.size() - properties.getMaxEntries() * 9 / 10;
+    Iterator<String> it = entries.keySet().iterator();
+    while (excess-- > 0 && it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  /** Headers a client needs to reuse the body; hop-by-hop and per-response ones are dropped. */
+  public static HttpHeaders replayable(HttpHeaders source) {
+    HttpHeaders headers = new HttpHeaders();
+    for (String name : new String[] {HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING,
+        HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY}) {
+      if (source.containsKey(name)) {
+        headers.put(name, source.get(name));
+      }
+    }
+    return headers;
+  }
+}
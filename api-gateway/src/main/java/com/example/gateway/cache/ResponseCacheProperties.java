@@ -0,0 +1,35 @@
+package com.example.gateway.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.response-cache.*} settings.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+  private boolean enabled = false;
+
+  /**
+   * Request path patterns (Spring {@code PathPattern} syntax) whose GET
+   * responses may be cached, e.g. {@code /api/products/**}.  Writes (any other
+   * method) to a matching path invalidate the entries of the service behind it.
+   */
+  private List<String> paths = new ArrayList<>();
+
+  /** Lifetime of an entry when downstream sends no {@code max-age}; also its upper bound. */
+  private Duration ttl = Duration.ofSeconds(30);
+
+  private int maxEntries = 10_000;
+
+  /** Larger bodies are passed through uncached. */
+  private int maxBodyBytes = 256 * 1024;
+
+  /** How long a request waits for an identical in-flight miss before going downstream itself. */
+  private Duration collapseTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,94 @@
+package com.example.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient concurrency limit for one downstream service (after Netflix's
+ * Gradient2), with AIMD-style backoff on failures.
+ *
+ *  • Each sample compares the long-term RTT (slow EWMA, the "no queue" baseline)
+ *    with the latest RTT; {@code gradient = clamp(tolerance * long / short, 0.5, 1)}.
+ *  • {@code newLimit = limit * gradient + sqrt(limit)}: stays put or grows by
+ *    a small queue allowance while latency is flat, shrinks when it rises.
+ *  • Failed calls multiply the limit by {@code backoffRatio}.
+ *  • The limit only grows while at least half of it is actually in use; it
+ *    still shrinks on rising latency when it is mostly idle, so a limit that
+ *    grew far above demand cannot stay there while the service slows down.
+ *
+ * {@link #tryAcquire()} never waits: callers over the limit are turned away.
+ */
+public class AdaptiveLimiter {
+
+  private final ConcurrencyLimitProperties properties;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile double limit;
+  private double longRttNanos;
+  private long samples;
+
+  public AdaptiveLimiter(ConcurrencyLimitProperties properties) {
+    this.properties = properties;
+    this.limit = properties.getInitialLimit();
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= (int) limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Release a permit taken by {@link #tryAcquire()}.
+   *
+   * @param rttNanos round-trip time of the call
+   * @param failed   whether the call failed in a way that signals overload
+   */
+  public void release(long rttNanos, boolean failed) {
+    int inFlightAtRelease = inFlight.getAndDecrement();
+    update(rttNanos, failed, inFlightAtRelease);
+  }
+
+  private synchronized void update(long rttNanos, boolean failed, int inFlightAtRelease) {
+    double current = limit;
+    double next;
+    if (failed) {
+      next = current * properties.getBackoffRatio();
+    } else {
+      if (rttNanos <= 0) {
+        return;
+      }
+      samples++;
+      double window = Math.min(samples, properties.getLongWindow());
+      longRttNanos = samples == 1 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / window;
+      // Recover the baseline after a sustained latency drop (e.g. after a vacuum)
+      if (longRttNanos / rttNanos > 2) {
+        longRttNanos *= 0.95;
+      }
+      double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRttNanos / rttNanos));
+      double estimate;
+      if (inFlightAtRelease >= current / 2) {
+        estimate = current * gradient + Math.sqrt(current);
+      } else if (gradient < 1.0) {
+        // underused: no queue allowance, but let latency pull the limit down
+        estimate = current * gradient;
+      } else {
+        return;
+      }
+      next = current * (1 - properties.getSmoothing()) + estimate * properties.getSmoothing();
+    }
+    limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), next));
+  }
+
+  public int limit() {
+    return (int) limit;
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+}
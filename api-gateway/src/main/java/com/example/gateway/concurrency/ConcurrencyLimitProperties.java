@@ -0,0 +1,32 @@
+package com.example.gateway.concurrency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.concurrency.*}: adaptive in-flight limit per downstream service.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.concurrency")
+public class ConcurrencyLimitProperties {
+
+  private boolean enabled = true;
+
+  private int initialLimit = 20;
+
+  private int minLimit = 5;
+
+  private int maxLimit = 1000;
+
+  /** RTT inflation tolerated before the limit shrinks (1.5 = 50% above the long-term RTT). */
+  private double tolerance = 1.5;
+
+  /** Number of samples the long-term RTT average spans. */
+  private int longWindow = 600;
+
+  /** Weight of each new limit estimate, 0..1. */
+  private double smoothing = 0.2;
+
+  /** Multiplicative decrease applied when a call fails (5xx, timeout, connection error). */
+  private double backoffRatio = 0.9;
+}
@@ -0,0 +1,13 @@
+package com.example.gateway.config;
+
+import com.example.gateway.bff.BffProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Backend-for-frontend aggregates under {@code /api/bff/<name>}; see AggregationController.
+ */
+@Configuration
+@EnableConfigurationProperties(BffProperties.class)
+public class BffConfig {
+}
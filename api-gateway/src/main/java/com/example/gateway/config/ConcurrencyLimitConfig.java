@@ -0,0 +1,23 @@
+package com.example.gateway.config;
+
+import com.example.gateway.concurrency.ConcurrencyLimitProperties;
+import com.example.gateway.filter.AdaptiveConcurrencyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adaptive per-service concurrency limits; see AdaptiveConcurrencyFilter.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "gateway.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+  @Bean
+  AdaptiveConcurrencyFilter adaptiveConcurrencyFilter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+    return new AdaptiveConcurrencyFilter(properties, registry);
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.gateway.config;
+
+import com.example.gateway.filter.GatewayMetricsFilter;
+import com.example.gateway.metrics.GatewayMetricsProperties;
+import com.example.gateway.metrics.SloEndpoint;
+import com.example.gateway.metrics.SloTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-route, per-tenant and per-instance request metrics plus {@code /actuator/slo}.
+ */
+@Configuration
+@EnableConfigurationProperties(GatewayMetricsProperties.class)
+@ConditionalOnProperty(prefix = "gateway.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class GatewayMetricsConfig {
+
+  @Bean
+  SloTracker sloTracker(GatewayMetricsProperties properties) {
+    return new SloTracker(properties.getSlo(), Clock.systemUTC());
+  }
+
+  @Bean
+  GatewayMetricsFilter gatewayMetricsFilter(MeterRegistry registry, SloTracker tracker,
+                                            GatewayMetricsProperties properties) {
+    return new GatewayMetricsFilter(registry, tracker, properties, Clock.systemUTC());
+  }
+
+  @Bean
+  SloEndpoint sloEndpoint(SloTracker tracker) {
+    return new SloEndpoint(tracker);
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.gateway.config;
+
+import com.example.gateway.filter.IdentityPropagationFilter;
+import com.example.identity.SignedIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Signed identity propagation: downstream services skip re-verifying the JWT.
+ * Signing is off unless {@code gateway.identity.enabled=true}; the secret must
+ * match {@code security.identity.secret} of product-service and
+ * tenant-registry-svc.  The filter is registered either way, so client-supplied
+ * identity headers are stripped even while signing is off.
+ */
+@Configuration
+public class IdentityConfig {
+
+  @Bean
+  IdentityPropagationFilter identityPropagationFilter(
+      @Value("${gateway.identity.enabled:false}") boolean enabled,
+      @Value("${gateway.identity.secret:}") String secret) {
+    return new IdentityPropagationFilter(enabled ? new SignedIdentity(secret) : null);
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.gateway.config;
+
+import com.example.gateway.jwt.JwtCacheEndpoint;
+import com.example.gateway.jwt.JwtCacheProperties;
+import com.example.gateway.jwt.ValidatedJwtCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the validated-JWT cache used by JwtAuthFilter and its actuator endpoint.
+ */
+@Configuration
+@EnableConfigurationProperties(JwtCacheProperties.class)
+public class JwtCacheConfig {
+
+  @Bean
+  ValidatedJwtCache validatedJwtCache(JwtCacheProperties properties, MeterRegistry registry) {
+    return new ValidatedJwtCache(properties, registry, Clock.systemUTC());
+  }
+
+  @Bean
+  JwtCacheEndpoint jwtCacheEndpoint(ValidatedJwtCache cache) {
+    return new JwtCacheEndpoint(cache);
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.gateway.config;
+
+import com.example.gateway.lb.InstanceStats;
+import com.example.gateway.lb.LatencyAwareLoadBalancerConfiguration;
+import com.example.gateway.lb.LatencyTrackingLifecycle;
+import com.example.gateway.lb.LoadBalancerProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces round-robin for {@code lb://} routes with the latency-aware
+ * balancer.  The stats and lifecycle live in the root context so every
+ * per-service load balancer context shares them.
+ */
+@Configuration
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+@ConditionalOnProperty(prefix = "gateway.load-balancer", name = "enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+  @Bean
+  InstanceStats instanceStats(LoadBalancerProperties properties) {
+    return new InstanceStats(properties);
+  }
+
+  @Bean
+  LatencyTrackingLifecycle latencyTrackingLifecycle(InstanceStats stats) {
+    return new LatencyTrackingLifecycle(stats);
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.gateway.config;
+
+import com.example.gateway.ratelimit.InMemoryRateLimitStore;
+import com.example.gateway.ratelimit.RateLimitProperties;
+import com.example.gateway.ratelimit.RateLimitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires tenant rate limiting.  A node-local store is used unless another
+ * {@link RateLimitStore} bean is declared.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+  @Bean
+  @ConditionalOnMissingBean
+  RateLimitStore rateLimitStore() {
+    return new InMemoryRateLimitStore();
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.gateway.config;
+
+import com.example.gateway.jwt.JwksCache;
+import com.example.gateway.jwt.JwksProperties;
+import java.time.Clock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Non-blocking JWT validation for JwtAuthFilter.
+ *
+ * The decoder never fetches keys itself: it asks {@link JwksCache}, which
+ * prefetches and refreshes Keycloak's JWK set in the background.
+ */
+@Configuration
+@EnableConfigurationProperties(JwksProperties.class)
+public class ReactiveJwtConfig {
+
+  @Bean
+  JwksCache jwksCache(WebClient.Builder webClient, JwksProperties properties,
+      @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}") String issuerUri) {
+    return new JwksCache(webClient.build(), issuerUri, properties, Clock.systemUTC());
+  }
+
+  @Bean
+  ReactiveJwtDecoder reactiveJwtDecoder(JwksCache jwksCache,
+      @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}") String issuerUri) {
+    NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withJwkSource(jwksCache::keysFor).build();
+    decoder.setJwtValidator(StringUtils.hasText(issuerUri)
+        ? JwtValidators.createDefaultWithIssuer(issuerUri)
+        : JwtValidators.createDefault());
+    return decoder;
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.gateway.config;
+
+import com.example.gateway.cache.ResponseCache;
+import com.example.gateway.cache.ResponseCacheEndpoint;
+import com.example.gateway.cache.ResponseCacheProperties;
+import com.example.gateway.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tenant- and role-aware response cache for configured GET routes.
+ * Off unless {@code gateway.response-cache.enabled=true}.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "gateway.response-cache", name = "enabled", havingValue = "true")
+public class ResponseCacheConfig {
+
+  @Bean
+  ResponseCache responseCache(ResponseCacheProperties properties, MeterRegistry registry) {
+    return new ResponseCache(properties, registry, Clock.systemUTC());
+  }
+
+  @Bean
+  ResponseCacheFilter responseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+    return new ResponseCacheFilter(cache, properties);
+  }
+
+  @Bean
+  ResponseCacheEndpoint responseCacheEndpoint(ResponseCache cache) {
+    return new ResponseCacheEndpoint(cache);
+  }
+}
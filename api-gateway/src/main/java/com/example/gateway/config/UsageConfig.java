@@ -0,0 +1,37 @@
+package com.example.gateway.config;
+
+import com.example.gateway.filter.UsageMeterFilter;
+import com.example.gateway.metrics.UsageMeter;
+import com.example.gateway.metrics.UsageProperties;
+import com.example.gateway.metrics.UsageReporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Per-tenant usage metering, reported to tenant-registry-svc.
+ */
+@Configuration
+@EnableConfigurationProperties(UsageProperties.class)
+@ConditionalOnProperty(prefix = "gateway.usage", name = "enabled", havingValue = "true")
+public class UsageConfig {
+
+  @Bean
+  UsageMeter usageMeter(UsageProperties properties) {
+    return new UsageMeter(properties.getMaxTenants());
+  }
+
+  @Bean
+  UsageMeterFilter usageMeterFilter(UsageMeter meter) {
+    return new UsageMeterFilter(meter);
+  }
+
+  @Bean
+  UsageReporter usageReporter(UsageMeter meter, WebClient.Builder webClient,
+                              ReactorLoadBalancerExchangeFilterFunction loadBalancer, UsageProperties properties) {
+    return new UsageReporter(meter, webClient.filter(loadBalancer).build(), properties);
+  }
+}
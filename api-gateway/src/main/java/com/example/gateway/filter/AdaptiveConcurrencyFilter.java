@@ -0,0 +1,141 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.concurrency.AdaptiveLimiter;
+import com.example.gateway.concurrency.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ConnectTimeoutException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter that caps in-flight requests per downstream service with an
+ * {@link AdaptiveLimiter}.
+ *
+ *  • Service = host of an {@code lb://} route URI (the Eureka service id),
+ *    otherwise the route id.
+ *  • Requests over the current limit are rejected at once with 503 and
+ *    {@code Retry-After: 1}, so no queue builds up in front of a slowed service.
+ *  • RTT is measured up to the downstream response headers, when the
+ *    response commits, so slow clients reading a large body do not look like
+ *    a slow service.
+ *  • Only signs of overload shrink the limit: 502, 503 and 504 responses and
+ *    connect or response timeouts.  Other 5xx are application errors and
+ *    count as ordinary samples.
+ *  • Gauges {@code gateway.concurrency.limit{service}} and
+ *    {@code gateway.concurrency.inflight{service}}, counter
+ *    {@code gateway.concurrency.rejected{service}}.
+ */
+@Slf4j
+public class AdaptiveConcurrencyFilter implements GlobalFilter, Ordered {
+
+  /** Bad gateway, service unavailable, gateway timeout: the statuses of an overloaded service. */
+  private static final Set<Integer> OVERLOAD_STATUSES = Set.of(502, 503, 504);
+
+  private final ConcurrencyLimitProperties properties;
+  private final MeterRegistry registry;
+  private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+  public AdaptiveConcurrencyFilter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+    this.properties = properties;
+    this.registry = registry;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    URI uri = route != null ? route.getUri() : null;
+    if (uri == null || "forward".equals(uri.getScheme())) {
+      return chain.filter(exchange);
+    }
+
+    String service = "lb".equals(uri.getScheme()) && uri.getHost() != null ? uri.getHost() : route.getId();
+    AdaptiveLimiter limiter = limiters.computeIfAbsent(service, this::newLimiter);
+    if (!limiter.tryAcquire()) {
+      registry.counter("gateway.concurrency.rejected", "service", service).increment();
+      log.debug("Concurrency limit {} reached for {}", limiter.limit(), service);
+      exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+      exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+      return exchange.getResponse().setComplete();
+    }
+
+    long start = System.nanoTime();
+    AtomicBoolean released = new AtomicBoolean();
+    // Downstream headers are in when the response commits; streaming the body to the client is not RTT
+    exchange.getResponse().beforeCommit(() -> {
+      if (released.compareAndSet(false, true)) {
+        limiter.release(System.nanoTime() - start, isOverload(exchange.getResponse().getStatusCode()));
+      }
+      return Mono.empty();
+    });
+    return chain.filter(exchange)
+        .doOnError(ex -> {
+          if (released.compareAndSet(false, true)) {
+            // A timeout or unavailable instance is a sample; other errors say nothing about load
+            boolean overload = isOverload(ex);
+            limiter.release(overload ? System.nanoTime() - start : 0, overload);
+          }
+        })
+        .doFinally(signal -> {
+          if (released.compareAndSet(false, true)) {
+            // Client went away, or nothing was committed: free the permit, no sample
+            limiter.release(0, false);
+          }
+        });
+  }
+
+  private static boolean isOverload(HttpStatusCode status) {
+    return status != null && OVERLOAD_STATUSES.contains(status.value());
+  }
+
+  /** 502/503/504 raised by the gateway, or a connect or response timeout anywhere in the causes. */
+  private static boolean isOverload(Throwable error) {
+    for (Throwable t = error; t != null; t = t.getCause()) {
+      if (t instanceof ResponseStatusException r && isOverload(r.getStatusCode())
+          || t instanceof TimeoutException
+          || t instanceof org.springframework.cloud.gateway.support.TimeoutException
+          || t instanceof io.netty.handler.timeout.TimeoutException
+          || t instanceof ConnectTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private AdaptiveLimiter newLimiter(String service) {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(properties);
+    Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveLimiter::limit)
+        .tag("service", service).register(registry);
+    Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveLimiter::inFlight)
+        .tag("service", service).register(registry);
+    Counter.builder("gateway.concurrency.rejected").tag("service", service).register(registry);
+    return limiter;
+  }
+
+  /**
+   * Right after the response-writing filter (-1), so cache hits and requests
+   * rejected by auth or rate limiting never take a permit, and ahead of load
+   * balancing and the proxy call that the permit guards.
+   */
+  @Override
+  public int getOrder() {
+    return 0;
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.metrics.BoundedTagValues;
+import com.example.gateway.metrics.GatewayMetricsProperties;
+import com.example.gateway.metrics.SloTracker;
+import com.example.gateway.tenant.TenantResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records latency histograms and status classes for every routed request.
+ *
+ *  • {@code gateway.requests{route,tenant,status}} and
+ *    {@code gateway.requests.instance{route,instance,status}}: count, sum, max
+ *    and one SLO bucket at {@code gateway.metrics.slo.latency}, enough for
+ *    good/bad ratios per tenant and instance.
+ *  • {@code gateway.requests.latency{route}}: the only percentile histogram,
+ *    so its ~70 buckets are not multiplied by tenants, instances and statuses.
+ *  • Tenant and instance tags are capped by {@link BoundedTagValues}, so the
+ *    meter count stays bounded with thousands of tenants; the meters of an
+ *    evicted tag are removed.
+ *  • Each request also feeds {@link SloTracker} for {@code /actuator/slo}.
+ *
+ * Runs first so the timing covers authentication and rate limiting; tenant,
+ * route and instance are read when the response completes.
+ */
+public class GatewayMetricsFilter implements GlobalFilter, Ordered {
+
+  private final MeterRegistry registry;
+  private final SloTracker slo;
+  private final GatewayMetricsProperties properties;
+  private final BoundedTagValues tenants;
+  private final BoundedTagValues instances;
+
+  public GatewayMetricsFilter(MeterRegistry registry, SloTracker slo, GatewayMetricsProperties properties,
+                              Clock clock) {
+    this.registry = registry;
+    this.slo = slo;
+    this.properties = properties;
+    this.tenants = new BoundedTagValues(properties.getMaxTenants(), properties.getTrackedTenants(),
+        properties.getTagIdleTimeout(), clock, tenant -> {
+          removeMeters("gateway.requests", "tenant", tenant);
+          slo.forgetTenant(tenant);
+        });
+    this.instances = new BoundedTagValues(properties.getMaxInstances(), List.of(),
+        properties.getTagIdleTimeout(), clock, instance -> {
+          removeMeters("gateway.requests.instance", "instance", instance);
+          slo.forgetInstance(instance);
+        });
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    long start = System.nanoTime();
+    return chain.filter(exchange)
+        .doOnSuccess(v -> record(exchange, start, exchange.getResponse().getStatusCode()))
+        .doOnError(e -> record(exchange, start, e instanceof ResponseStatusException r
+            ? r.getStatusCode() : HttpStatus.INTERNAL_SERVER_ERROR));
+  }
+
+  private void record(ServerWebExchange exchange, long start, HttpStatusCode status) {
+    long nanos = System.nanoTime() - start;
+    int code = status != null ? status.value() : 200;
+    String statusClass = (code / 100) + "xx";
+    String route = routeId(exchange);
+    String tenant = tenants.of(TenantResolver.tenantOf(exchange));
+    String instance = instanceOf(exchange);
+
+    timer("gateway.requests", "route", route, "tenant", tenant, "status", statusClass)
+        .record(nanos, TimeUnit.NANOSECONDS);
+    if (instance != null) {
+      timer("gateway.requests.instance", "route", route, "instance", instance, "status", statusClass)
+          .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    Timer.builder("gateway.requests.latency")
+        .tags("route", route)
+        .publishPercentileHistogram()
+        .serviceLevelObjectives(properties.getSlo().getLatency())
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+    slo.record(tenant, instance, nanos, code >= 500);
+  }
+
+  private Timer timer(String name, String... tags) {
+    return Timer.builder(name)
+        .tags(tags)
+        .serviceLevelObjectives(properties.getSlo().getLatency())
+        .register(registry);
+  }
+
+  private void removeMeters(String name, String tag, String value) {
+    registry.find(name).tag(tag, value).meters().forEach(registry::remove);
+  }
+
+  private String instanceOf(ServerWebExchange exchange) {
+    URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+    if (url == null || url.getHost() == null) {
+      return null;
+    }
+    return instances.of(url.getHost() + ":" + url.getPort());
+  }
+
+  private static String routeId(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : "unknown";
+  }
+
+  /** Ahead of JwtAuthFilter (-10) so rejected requests are measured too. */
+  @Override
+  public int getOrder() {
+    return -11;
+  }
+}
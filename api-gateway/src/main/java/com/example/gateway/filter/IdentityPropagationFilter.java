@@ -0,0 +1,64 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.tenant.TenantResolver;
+import com.example.identity.SignedIdentity;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter that forwards the caller's identity as a signed header.
+ *
+ *  • Always strips any client-supplied {@link SignedIdentity#HEADER}.
+ *  • With a signer, for requests whose JWT passed {@link JwtAuthFilter}, adds
+ *    the header with subject, issuer, realm roles and expiry, HMAC-signed with
+ *    the shared {@code gateway.identity.secret}.
+ *
+ * Downstream services that share the secret trust the header instead of
+ * verifying the JWT again; the Authorization header is still forwarded so
+ * they can fall back to full validation.  Always registered by IdentityConfig;
+ * without {@code gateway.identity.enabled=true} it has no signer and only strips.
+ */
+public class IdentityPropagationFilter implements GlobalFilter, Ordered {
+
+  private final SignedIdentity signer;
+
+  /** With a null {@code signer} the filter only strips the header. */
+  public IdentityPropagationFilter(SignedIdentity signer) {
+    this.signer = signer;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    Jwt jwt = exchange.getAttribute(JwtAuthFilter.JWT_ATTRIBUTE);
+    String identity = signer != null && jwt != null && jwt.getExpiresAt() != null
+        ? signer.sign(claimsOf(jwt)) : null;
+
+    ServerWebExchange mutated = exchange.mutate()
+        .request(r -> r.headers(h -> {
+          h.remove(SignedIdentity.HEADER);
+          if (identity != null) {
+            h.set(SignedIdentity.HEADER, identity);
+          }
+        }))
+        .build();
+    return chain.filter(mutated);
+  }
+
+  private static SignedIdentity.Claims claimsOf(Jwt jwt) {
+    return new SignedIdentity.Claims(
+        jwt.getSubject(),
+        jwt.getClaimAsString("iss"),
+        TenantResolver.rolesOf(jwt),
+        jwt.getExpiresAt().getEpochSecond());
+  }
+
+  /** After rate limiting, so rejected requests are never signed for. */
+  @Override
+  public int getOrder() {
+    return -8;
+  }
+}
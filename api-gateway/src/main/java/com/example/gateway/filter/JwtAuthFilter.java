@@ -1,5 +1,7 @@
 package com.example.gateway.filter;
 
+import com.example.gateway.jwt.ValidatedJwtCache;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -7,18 +9,26 @@ import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.observability.micrometer.Micrometer;
 import reactor.core.publisher.Mono;
 
 /**
  * Global filter that:
  *  • Looks for an Authorization: Bearer <token> header.
- *  • Decodes & validates JWT using Spring’s JwtDecoder (which auto-loads
- *    Keycloak’s JWKs from issuer-uri in application.yml).
+ *  • Decodes & validates JWT using Spring’s ReactiveJwtDecoder, backed by
+ *    JwksCache (Keycloak’s JWKs are prefetched, never fetched on the event loop).
+ *  • Skips the RSA verification for tokens already in {@link ValidatedJwtCache}
+ *    and rejects tokens revoked there.
  *  • Rejects bad / missing tokens with 401.
+ *  • Stores the decoded token under {@link #JWT_ATTRIBUTE} so later filters
+ *    (tenant rate limiting etc.) don't decode it again.
+ *  • Full validations (cache misses) are observed as {@code gateway.jwt.validate}
+ *    spans / timers.
  *
  * Downstream resource servers (e.g., product-service) still do their own
  * @PreAuthorize role checks, but this stops noise at the edge.
@@ -28,7 +38,12 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class JwtAuthFilter implements GlobalFilter, Ordered {
 
-  private final JwtDecoder jwtDecoder;
+  /** Exchange attribute holding the validated {@link Jwt}, absent for anonymous calls. */
+  public static final String JWT_ATTRIBUTE = JwtAuthFilter.class.getName() + ".jwt";
+
+  private final ReactiveJwtDecoder jwtDecoder;
+  private final ValidatedJwtCache jwtCache;
+  private final ObservationRegistry observationRegistry;
 
   @Override
   public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -42,19 +57,50 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
 
     String token = header.substring(7);
 
-    try {
-      jwtDecoder.decode(token);       // signature, exp, nbf validations
-      return chain.filter(exchange);  // token is OK → continue routing
-    } catch (JwtException ex) {
-      log.warn("JWT validation failed: {}", ex.getMessage());
-      exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-      return exchange.getResponse().setComplete();
+    String cacheKey = jwtCache.keyOf(token);
+    if (jwtCache.isRevoked(cacheKey)) {
+      log.warn("Rejected revoked JWT");
+      return unauthorized(exchange);
     }
+
+    return validate(token, cacheKey)
+        .map(jwt -> {
+          exchange.getAttributes().put(JWT_ATTRIBUTE, jwt);
+          return true;
+        })
+        .onErrorResume(JwtException.class, ex -> {
+          log.warn("JWT validation failed: {}", ex.getMessage());
+          return Mono.just(false);
+        })
+        // token is OK → continue routing; the chain itself is outside the error handler
+        .flatMap(valid -> valid ? chain.filter(exchange) : unauthorized(exchange));
+  }
+
+  private Mono<Jwt> validate(String token, String cacheKey) {
+    Jwt cached = jwtCache.lookup(cacheKey);
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return jwtDecoder.decode(token)               // signature, exp, nbf validations
+          .name("gateway.jwt.validate")
+          .tap(Micrometer.observation(observationRegistry))
+          .doOnNext(jwt -> jwtCache.store(cacheKey, jwt, System.nanoTime() - start));
+    });
+  }
+
+  private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+    return exchange.getResponse().setComplete();
   }
 
-  /** Run early, but after Netty routing = -1 is OK */
+  /**
+   * Run early: ahead of the gateway's response-writing filter (-1), so filters
+   * that must decorate the response (ResponseCacheFilter) still run after this.
+   */
   @Override
   public int getOrder() {
-    return -1;
+    return -10;
   }
 }
@@ -0,0 +1,196 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.cache.CachedResponse;
+import com.example.gateway.cache.ResponseCache;
+import com.example.gateway.cache.ResponseCacheProperties;
+import com.example.gateway.tenant.TenantResolver;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Global filter that serves configured GET routes from {@link ResponseCache}.
+ *
+ *  • Key = tenant + sorted realm roles + path + normalized query +
+ *    Accept-Encoding, so users of one tenant with the same roles share entries
+ *    and nobody else does, and a compressed body is only replayed to clients
+ *    that asked for that encoding.
+ *  • Only authenticated 200 responses are stored; downstream Cache-Control
+ *    ({@code no-store}, {@code no-cache}, {@code private}, {@code max-age})
+ *    is honoured and ETags are replayed, answering If-None-Match with 304.
+ *  • Concurrent misses on one key are collapsed into a single downstream call.
+ *  • Any write (POST, PUT, PATCH, DELETE) to a cached path drops every entry
+ *    of the downstream service behind it, for all tenants: the written data
+ *    may be shared.  Other methods (HEAD, OPTIONS) pass through untouched.
+ *
+ * Registered by ResponseCacheConfig when {@code gateway.response-cache.enabled=true}.
+ */
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+  private static final Set<HttpMethod> WRITES =
+      Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+  private final ResponseCache cache;
+  private final ResponseCacheProperties properties;
+  private final List<PathPattern> paths;
+
+  public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+    this.cache = cache;
+    this.properties = properties;
+    this.paths = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    ServerHttpRequest request = exchange.getRequest();
+    Jwt jwt = exchange.getAttribute(JwtAuthFilter.JWT_ATTRIBUTE);
+    if (jwt == null || !matches(request)) {
+      return chain.filter(exchange);
+    }
+
+    String service = serviceOf(exchange);
+    if (WRITES.contains(request.getMethod())) {
+      cache.invalidateService(service);
+      return chain.filter(exchange).doOnSuccess(v -> cache.invalidateService(service));
+    }
+    if (request.getMethod() != HttpMethod.GET) {
+      return chain.filter(exchange);
+    }
+
+    String tenant = TenantResolver.tenantOf(jwt);
+    String route = routeId(exchange);
+    String key = keyOf(tenant, jwt, request);
+    CachedResponse hit = cache.get(key);
+    if (hit != null) {
+      cache.record(route, "hit");
+      cache.recordSaved(route, hit.upstreamNanos());
+      return serve(exchange, hit);
+    }
+
+    Sinks.One<CachedResponse> lead = cache.lead(key);
+    if (lead == null) {
+      return cache.follow(key)
+          .flatMap(shared -> {
+            cache.record(route, "collapsed");
+            cache.recordSaved(route, shared.upstreamNanos());
+            return serve(exchange, shared).thenReturn(true);
+          })
+          .switchIfEmpty(Mono.defer(() -> {
+            cache.record(route, "miss");
+            return chain.filter(exchange).thenReturn(true);
+          }))
+          .then();
+    }
+
+    cache.record(route, "miss");
+    return fetch(exchange, chain, key, tenant, service, lead);
+  }
+
+  /** Forward downstream and capture a cacheable response on its way back. */
+  private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, String key, String tenant,
+      String service, Sinks.One<CachedResponse> lead) {
+    long start = System.nanoTime();
+    ServerHttpResponse capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+      @Override
+      public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        Duration lifetime = HttpStatus.OK.equals(getStatusCode()) ? cache.lifetimeOf(getHeaders()) : null;
+        if (lifetime == null || getHeaders().getContentLength() > properties.getMaxBodyBytes()) {
+          cache.complete(key, lead, null);
+          return super.writeWith(body);
+        }
+        return DataBufferUtils.join(body).flatMap(joined -> {
+          byte[] bytes = new byte[joined.readableByteCount()];
+          joined.read(bytes);
+          DataBufferUtils.release(joined);
+          CachedResponse entry = bytes.length > properties.getMaxBodyBytes() ? null
+              : new CachedResponse(tenant, service, ResponseCache.replayable(getHeaders()), bytes,
+                  cache.now().plus(lifetime), System.nanoTime() - start);
+          cache.complete(key, lead, entry);
+          return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        });
+      }
+    };
+    return chain.filter(exchange.mutate().response(capturing).build())
+        // error, cancel or empty body: release followers so they go downstream themselves
+        .doFinally(signal -> cache.complete(key, lead, null));
+  }
+
+  private static Mono<Void> serve(ServerWebExchange exchange, CachedResponse entry) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.getHeaders().addAll(entry.headers());
+    response.getHeaders().set("X-Cache", "HIT");
+    String etag = entry.headers().getETag();
+    if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+      response.setStatusCode(HttpStatus.NOT_MODIFIED);
+      return response.setComplete();
+    }
+    response.setStatusCode(HttpStatus.OK);
+    response.getHeaders().setContentLength(entry.body().length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+  }
+
+  private boolean matches(ServerHttpRequest request) {
+    PathContainer path = request.getPath().pathWithinApplication();
+    return paths.stream().anyMatch(p -> p.matches(path));
+  }
+
+  private static String keyOf(String tenant, Jwt jwt, ServerHttpRequest request) {
+    String roles = TenantResolver.rolesOf(jwt).stream().sorted().collect(Collectors.joining(","));
+    Map<String, List<String>> query = new TreeMap<>(request.getQueryParams());
+    String encodings = String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING))
+        .replace(" ", "").toLowerCase(Locale.ROOT);
+    return tenant + "|" + roles + "|" + request.getPath().value() + "?" + query + "|" + encodings;
+  }
+
+  /**
+   * Service id of an {@code lb://} route, otherwise the route id.  Lower-cased:
+   * discovery-locator routes carry the upper-case Eureka id.
+   */
+  private static String serviceOf(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    if (route == null) {
+      return "unknown";
+    }
+    URI uri = route.getUri();
+    String service = "lb".equals(uri.getScheme()) && uri.getHost() != null ? uri.getHost() : route.getId();
+    return service.toLowerCase(Locale.ROOT);
+  }
+
+  private static String routeId(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : "unknown";
+  }
+
+  /** Just before the gateway writes the downstream response, so our decorator sees the body. */
+  @Override
+  public int getOrder() {
+    return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+  }
+}
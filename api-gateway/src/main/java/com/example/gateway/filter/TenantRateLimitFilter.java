@@ -0,0 +1,73 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.ratelimit.RateLimitProperties;
+import com.example.gateway.ratelimit.RateLimitStore;
+import com.example.gateway.tenant.TenantResolver;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter that admits requests through a per-tenant token bucket.
+ *
+ *  • Tenant = realm of the token validated by {@link JwtAuthFilter}.
+ *  • Calls without a token get a bucket per client IP with {@code anonymous-limit},
+ *    so one noisy client cannot starve everybody's public pages.
+ *  • CORS preflights (OPTIONS) are never limited.
+ *  • Limits come from {@code gateway.rate-limit.*}.
+ *  • Over-limit requests get 429 with a Retry-After header (seconds).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TenantRateLimitFilter implements GlobalFilter, Ordered {
+
+  private final RateLimitProperties properties;
+  private final RateLimitStore store;
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    if (!properties.isEnabled() || HttpMethod.OPTIONS.equals(exchange.getRequest().getMethod())) {
+      return chain.filter(exchange);
+    }
+
+    String tenant = TenantResolver.tenantOf(exchange);
+    boolean anonymous = TenantResolver.ANONYMOUS.equals(tenant);
+    String key = anonymous ? TenantResolver.ANONYMOUS + ":" + clientIp(exchange) : tenant;
+    long waitNanos = store.tryAcquire(key, anonymous ? properties.getAnonymousLimit() : properties.limitFor(tenant));
+    if (waitNanos == 0) {
+      return chain.filter(exchange);
+    }
+
+    long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    log.debug("Rate limit exceeded for {}, retry after {}s", key, retryAfter);
+    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+    return exchange.getResponse().setComplete();
+  }
+
+  /**
+   * The peer address; behind a load balancer, enable
+   * {@code server.forward-headers-strategy} so it is the original client's.
+   */
+  private static String clientIp(ServerWebExchange exchange) {
+    InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+    return remote == null || remote.getAddress() == null ? "unknown" : remote.getAddress().getHostAddress();
+  }
+
+  /** Right after JwtAuthFilter, so the tenant is known. */
+  @Override
+  public int getOrder() {
+    return -9;
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.metrics.UsageMeter;
+import com.example.gateway.tenant.TenantResolver;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Feeds every routed request of an authenticated tenant into {@link UsageMeter}.
+ * Anonymous requests have no tenant to bill and are skipped.
+ */
+public class UsageMeterFilter implements GlobalFilter, Ordered {
+
+  private final UsageMeter meter;
+
+  public UsageMeterFilter(UsageMeter meter) {
+    this.meter = meter;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    long start = System.nanoTime();
+    return chain.filter(exchange)
+        .doOnSuccess(v -> record(exchange, start, isServerError(exchange.getResponse().getStatusCode())))
+        .doOnError(e -> record(exchange, start,
+            !(e instanceof ResponseStatusException r) || isServerError(r.getStatusCode())));
+  }
+
+  private void record(ServerWebExchange exchange, long start, boolean serverError) {
+    String tenant = TenantResolver.tenantOf(exchange);
+    if (!TenantResolver.ANONYMOUS.equals(tenant)) {
+      meter.record(tenant, System.nanoTime() - start, serverError);
+    }
+  }
+
+  private static boolean isServerError(HttpStatusCode status) {
+    return status != null && status.is5xxServerError();
+  }
+
+  /** Next to GatewayMetricsFilter, ahead of JwtAuthFilter (-10). */
+  @Override
+  public int getOrder() {
+    return -11;
+  }
+}
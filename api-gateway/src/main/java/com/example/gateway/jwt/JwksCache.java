@@ -0,0 +1,183 @@
+package com.example.gateway.jwt;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking holder of the issuer's signing keys.
+ *
+ * • Prefetches the JWK set at startup and refreshes it in the background
+ *   every {@code refresh-interval}, so request threads never wait on Keycloak.
+ * • A token with an unknown {@code kid} (key rotation) triggers one immediate
+ *   refresh, shared by all concurrent callers and rate limited by
+ *   {@code min-refresh-interval}.
+ * • Stale-while-revalidate: when a refresh fails the last good set keeps being
+ *   served for up to {@code max-stale}.
+ *
+ * Plugged into Spring's {@code NimbusReactiveJwtDecoder} through
+ * {@link #keysFor(SignedJWT)}.
+ */
+@Slf4j
+public class JwksCache implements InitializingBean, DisposableBean {
+
+  private record Snapshot(JWKSet keys, Instant fetchedAt) {
+  }
+
+  private final WebClient webClient;
+  private final String issuerUri;
+  private final JwksProperties properties;
+  private final Clock clock;
+
+  private volatile Snapshot current;
+  private volatile Instant lastAttempt = Instant.EPOCH;
+  private volatile String jwkSetUri;
+  private final AtomicReference<Mono<JWKSet>> inFlight = new AtomicReference<>();
+  private Disposable refresher;
+
+  public JwksCache(WebClient webClient, String issuerUri, JwksProperties properties, Clock clock) {
+    this.webClient = webClient;
+    this.issuerUri = issuerUri;
+    this.properties = properties;
+    this.clock = clock;
+    this.jwkSetUri = properties.getJwkSetUri();
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    if (!StringUtils.hasText(issuerUri) && !StringUtils.hasText(jwkSetUri)) {
+      log.warn("Neither issuer-uri nor gateway.jwks.jwk-set-uri is set; JWKS prefetch disabled");
+      return;
+    }
+    refresher = Flux.interval(Duration.ZERO, properties.getRefreshInterval())
+        .onBackpressureDrop()
+        .concatMap(tick -> refresh().onErrorResume(ex -> {
+          log.warn("JWKS refresh failed, serving cached keys: {}", ex.getMessage());
+          return Mono.empty();
+        }))
+        .subscribe();
+  }
+
+  @Override
+  public void destroy() {
+    if (refresher != null) {
+      refresher.dispose();
+    }
+  }
+
+  /**
+   * Keys that may have signed {@code jwt}.  Served from memory; only a
+   * {@code kid} miss goes to the network, and then without blocking.
+   */
+  public Flux<JWK> keysFor(SignedJWT jwt) {
+    JWSHeader header = jwt.getHeader();
+    JWKSet keys = usableKeys();
+    if (keys != null && (header.getKeyID() == null || keys.getKeyByKeyId(header.getKeyID()) != null)) {
+      return Flux.fromIterable(select(keys, header));
+    }
+    if (inFlight.get() == null && !refreshAllowed()) {
+      // a refresh may have completed since keys were read
+      JWKSet latest = usableKeys();
+      return latest == null ? Flux.empty() : Flux.fromIterable(select(latest, header));
+    }
+    log.info("Unknown signing key {}, refreshing JWKS", header.getKeyID());
+    return refresh()
+        .onErrorResume(ex -> Mono.justOrEmpty(keys))
+        .flatMapMany(set -> Flux.fromIterable(select(set, header)));
+  }
+
+  /**
+   * Fetch the key set once.  Concurrent callers share the same in-flight request.
+   */
+  Mono<JWKSet> refresh() {
+    Mono<JWKSet> existing = inFlight.get();
+    if (existing != null) {
+      return existing;
+    }
+    Mono<JWKSet> fetch = Mono.defer(() -> {
+          lastAttempt = clock.instant();
+          return fetch();
+        })
+        .doOnNext(set -> {
+          current = new Snapshot(set, clock.instant());
+          log.debug("JWKS refreshed, {} keys", set.getKeys().size());
+        })
+        .doFinally(signal -> inFlight.set(null))
+        .cache();
+    return inFlight.compareAndSet(null, fetch) ? fetch : refresh();
+  }
+
+  private Mono<JWKSet> fetch() {
+    return jwkSetUri()
+        .flatMap(uri -> webClient.get().uri(uri).retrieve().bodyToMono(String.class))
+        .timeout(properties.getFetchTimeout())
+        .flatMap(body -> {
+          try {
+            return Mono.just(JWKSet.parse(body));
+          } catch (ParseException e) {
+            return Mono.error(new IllegalStateException("Malformed JWK set", e));
+          }
+        });
+  }
+
+  private Mono<String> jwkSetUri() {
+    if (StringUtils.hasText(jwkSetUri)) {
+      return Mono.just(jwkSetUri);
+    }
+    String discovery = issuerUri.replaceAll("/$", "") + "/.well-known/openid-configuration";
+    return webClient.get()
+        .uri(discovery)
+        .retrieve()
+        .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+        })
+        .timeout(properties.getFetchTimeout())
+        .map(config -> {
+          Object uri = config.get("jwks_uri");
+          if (uri == null) {
+            throw new IllegalStateException("No jwks_uri in " + discovery);
+          }
+          jwkSetUri = uri.toString();
+          return jwkSetUri;
+        });
+  }
+
+  /** The current set, unless it has been stale for longer than {@code max-stale}. */
+  private JWKSet usableKeys() {
+    Snapshot snapshot = current;
+    if (snapshot == null) {
+      return null;
+    }
+    if (snapshot.fetchedAt().plus(properties.getMaxStale()).isBefore(clock.instant())) {
+      log.error("JWKS older than {}, refusing to use it", properties.getMaxStale());
+      return null;
+    }
+    return snapshot.keys();
+  }
+
+  private boolean refreshAllowed() {
+    return lastAttempt.plus(properties.getMinRefreshInterval()).isBefore(clock.instant());
+  }
+
+  private static List<JWK> select(JWKSet set, JWSHeader header) {
+    return new JWKSelector(JWKMatcher.forJWSHeader(header)).select(set);
+  }
+}
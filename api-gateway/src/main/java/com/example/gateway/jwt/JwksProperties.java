@@ -0,0 +1,31 @@
+package com.example.gateway.jwt;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.jwks.*} settings for {@link JwksCache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.jwks")
+public class JwksProperties {
+
+  /**
+   * JWK set location.  When empty it is discovered once from the issuer's
+   * {@code .well-known/openid-configuration}.
+   */
+  private String jwkSetUri;
+
+  /** Background refresh period; keep it well below Keycloak's key rotation period. */
+  private Duration refreshInterval = Duration.ofMinutes(5);
+
+  /** Minimum gap between refreshes triggered by an unknown {@code kid}. */
+  private Duration minRefreshInterval = Duration.ofSeconds(10);
+
+  /** How long the last good key set is served while refreshes keep failing. */
+  private Duration maxStale = Duration.ofHours(24);
+
+  /** Timeout of a single JWKS / discovery HTTP call. */
+  private Duration fetchTimeout = Duration.ofSeconds(5);
+}
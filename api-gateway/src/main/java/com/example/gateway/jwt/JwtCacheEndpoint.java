@@ -0,0 +1,44 @@
+package com.example.gateway.jwt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * {@code /actuator/jwtcache}: cache statistics (GET), token revocation
+ * (POST {@code {"token": "..."}}) and a full flush (DELETE).
+ */
+@Endpoint(id = "jwtcache")
+@RequiredArgsConstructor
+public class JwtCacheEndpoint {
+
+  private final ValidatedJwtCache cache;
+
+  @ReadOperation
+  public Map<String, Object> stats() {
+    long hits = cache.hitCount();
+    long total = hits + cache.missCount();
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("size", cache.size());
+    stats.put("revoked", cache.revokedCount());
+    stats.put("hits", hits);
+    stats.put("misses", cache.missCount());
+    stats.put("hitRatio", total == 0 ? 0.0 : (double) hits / total);
+    stats.put("savedMillis", cache.savedNanos() / 1e6);
+    return stats;
+  }
+
+  @WriteOperation
+  public void revoke(String token) {
+    cache.revoke(token);
+  }
+
+  @DeleteOperation
+  public void clear() {
+    cache.clear();
+  }
+}
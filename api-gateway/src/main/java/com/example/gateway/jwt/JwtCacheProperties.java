@@ -0,0 +1,33 @@
+package com.example.gateway.jwt;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.jwt-cache.*} settings for {@link ValidatedJwtCache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.jwt-cache")
+public class JwtCacheProperties {
+
+  private boolean enabled = true;
+
+  /** Upper bound on cached tokens; expired entries go first when it is hit. */
+  private int maxEntries = 100_000;
+
+  /**
+   * Safety margin taken off each token's {@code exp}, so a gateway clock that
+   * runs behind the issuer never serves a token the issuer considers expired.
+   */
+  private Duration clockSkew = Duration.ofSeconds(30);
+
+  /**
+   * How long a revoked token whose expiry is unknown (it was not cached) stays
+   * rejected.  Should cover the realm's access token lifespan.
+   */
+  private Duration revocationRetention = Duration.ofHours(1);
+
+  /** Upper bound on remembered revocations; the one closest to lapsing goes first. */
+  private int maxRevocations = 10_000;
+}
@@ -0,0 +1,92 @@
+package com.example.gateway.lb;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Consistent-hash ring over shard names with virtual nodes.  Adding or
+ * removing a shard only moves the keys that hashed to that shard's points.
+ * Immutable; rebuild when the shard set changes.
+ */
+public final class AffinityRing {
+
+  private final Set<String> shards;
+  private final long[] points;
+  private final String[] owners;
+
+  private AffinityRing(Set<String> shards, long[] points, String[] owners) {
+    this.shards = shards;
+    this.points = points;
+    this.owners = owners;
+  }
+
+  public static AffinityRing of(Collection<String> shards, int virtualNodes) {
+    Set<String> distinct = Set.copyOf(new HashSet<>(shards));
+    int n = distinct.size() * virtualNodes;
+    long[] hashes = new long[n];
+    String[] names = new String[n];
+    int i = 0;
+    for (String shard : distinct) {
+      for (int v = 0; v < virtualNodes; v++) {
+        hashes[i] = hash(shard + "#" + v);
+        names[i++] = shard;
+      }
+    }
+    Integer[] order = new Integer[n];
+    for (int k = 0; k < n; k++) {
+      order[k] = k;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+    long[] points = new long[n];
+    String[] owners = new String[n];
+    for (int k = 0; k < n; k++) {
+      points[k] = hashes[order[k]];
+      owners[k] = names[order[k]];
+    }
+    return new AffinityRing(distinct, points, owners);
+  }
+
+  public Set<String> shards() {
+    return shards;
+  }
+
+  /**
+   * Walk clockwise from {@code key}'s position and return the first shard
+   * accepted by {@code accept} (each shard is offered once), or {@code null}.
+   */
+  public String select(String key, Predicate<String> accept) {
+    if (points.length == 0) {
+      return null;
+    }
+    int start = Arrays.binarySearch(points, hash(key));
+    if (start < 0) {
+      start = -start - 1;
+    }
+    Set<String> offered = new HashSet<>();
+    for (int k = 0; k < points.length && offered.size() < shards.size(); k++) {
+      String shard = owners[(start + k) % points.length];
+      if (offered.add(shard) && accept.test(shard)) {
+        return shard;
+      }
+    }
+    return null;
+  }
+
+  /** FNV-1a with a murmur3 finalizer: cheap and well spread over 64 bits. */
+  static long hash(String s) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      h ^= s.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb93e63fe53c6L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.gateway.lb;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Per-instance load signals shared by all gateway load balancers: a
+ * time-decayed EWMA of response latency, requests in flight, age (for slow
+ * start) and outlier-ejection state.  Fed by {@link LatencyTrackingLifecycle}.
+ * Signals of instances that drop out of a service's instance list are
+ * discarded, see {@link #retain}.  All times are read from one monotonic
+ * nanosecond source, {@link #now()}.
+ */
+@Slf4j
+public class InstanceStats {
+
+  /** Signals of one downstream instance. */
+  public static final class Stat {
+
+    private final long firstSeen;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private double ewmaNanos;
+    private long lastUpdate;
+    private int consecutiveFailures;
+    private int ejections;
+    private volatile long ejectedUntil;
+
+    Stat(long now, double initialNanos) {
+      this.firstSeen = now;
+      this.lastUpdate = now;
+      this.ewmaNanos = initialNanos;
+    }
+
+    public int outstanding() {
+      return outstanding.get();
+    }
+
+    public synchronized double ewmaNanos() {
+      return ewmaNanos;
+    }
+
+    public long ageNanos(long now) {
+      return now - firstSeen;
+    }
+
+    public boolean isEjected(long now) {
+      return ejectedUntil - now > 0;
+    }
+  }
+
+  private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+  /** Keys of the instances each service was last balanced over. */
+  private final Map<String, Set<String>> members = new ConcurrentHashMap<>();
+  private final LoadBalancerProperties properties;
+  private final LongSupplier nanoTime;
+
+  public InstanceStats(LoadBalancerProperties properties) {
+    this(properties, System::nanoTime);
+  }
+
+  public InstanceStats(LoadBalancerProperties properties, LongSupplier nanoTime) {
+    this.properties = properties;
+    this.nanoTime = nanoTime;
+  }
+
+  /** Current time in nanoseconds, on the scale of every signal kept here. */
+  public long now() {
+    return nanoTime.getAsLong();
+  }
+
+  public static String keyOf(ServiceInstance instance) {
+    return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+  }
+
+  public Stat of(ServiceInstance instance, long now) {
+    return stats.computeIfAbsent(keyOf(instance),
+        k -> new Stat(now, properties.getInitialLatency().toNanos()));
+  }
+
+  /**
+   * Keep only the signals of {@code instances}, the current instance list of
+   * {@code serviceId}.  Instances that left the registry are forgotten, so
+   * scaled-down or redeployed hosts neither leak memory nor count towards the
+   * ejection limit.  Cheap when the list is unchanged, which is the common case.
+   */
+  public void retain(String serviceId, List<ServiceInstance> instances) {
+    Set<String> live = new HashSet<>(instances.size() * 2);
+    for (ServiceInstance instance : instances) {
+      live.add(keyOf(instance));
+    }
+    Set<String> previous = members.put(serviceId, live);
+    if (live.equals(previous)) {
+      return;
+    }
+    String prefix = serviceId + "@";
+    stats.keySet().removeIf(key -> key.startsWith(prefix) && !live.contains(key));
+  }
+
+  public void started(ServiceInstance instance) {
+    of(instance, now()).outstanding.incrementAndGet();
+  }
+
+  /**
+   * Record a finished call.  Latency is folded into the EWMA with a weight
+   * that depends on the time since the previous sample (peak-EWMA style:
+   * a slower-than-average sample is taken at face value immediately).
+   */
+  public void finished(ServiceInstance instance, long latencyNanos, boolean failed) {
+    long now = now();
+    Stat stat = stats.get(keyOf(instance));
+    if (stat == null) {
+      // the instance left the registry while the call was in flight
+      return;
+    }
+    stat.outstanding.decrementAndGet();
+    synchronized (stat) {
+      if (latencyNanos > stat.ewmaNanos) {
+        stat.ewmaNanos = latencyNanos;
+      } else {
+        double w = Math.exp(-(double) (now - stat.lastUpdate) / properties.getDecay().toNanos());
+        stat.ewmaNanos = stat.ewmaNanos * w + latencyNanos * (1 - w);
+      }
+      stat.lastUpdate = now;
+
+      if (!failed) {
+        stat.consecutiveFailures = 0;
+      } else if (++stat.consecutiveFailures >= properties.getEjection().getConsecutiveFailures()
+          && canEject(instance.getServiceId(), now)) {
+        long factor = Math.min(1L << Math.min(stat.ejections, 10), 10);
+        stat.ejectedUntil = now + properties.getEjection().getBaseTime().toNanos() * factor;
+        stat.ejections++;
+        stat.consecutiveFailures = 0;
+        log.warn("Ejecting {} for {}s after repeated failures", keyOf(instance),
+            properties.getEjection().getBaseTime().toSeconds() * factor);
+      }
+    }
+  }
+
+  /** Whether one more instance of the service may be ejected; counts live instances only. */
+  private boolean canEject(String serviceId, long now) {
+    Set<String> live = members.get(serviceId);
+    if (live == null) {
+      return false;
+    }
+    int total = live.size();
+    int ejected = 0;
+    for (String key : live) {
+      Stat stat = stats.get(key);
+      if (stat != null && stat.isEjected(now)) {
+        ejected++;
+      }
+    }
+    return (ejected + 1) * 100 <= total * properties.getEjection().getMaxPercent();
+  }
+}
@@ -0,0 +1,153 @@
+package com.example.gateway.lb;
+
+import com.example.gateway.filter.JwtAuthFilter;
+import com.example.gateway.tenant.TenantResolver;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+/**
+ * Power-of-two-choices load balancer over latency and load.
+ *
+ * • Two distinct healthy instances are sampled at random; the one with the
+ *   lower cost {@code ewmaLatency * (outstanding + 1)} wins.
+ * • Instances younger than the slow-start window have their cost inflated
+ *   so they ramp up instead of receiving a burst of traffic.
+ * • Ejected outliers are skipped unless every instance is ejected.
+ * • For affinity services, the tenant of the token first picks a shard
+ *   (Eureka metadata) on an {@link AffinityRing}, with bounded load: a shard
+ *   already above loadFactor x its fair share of in-flight requests is passed
+ *   over for the next one on the ring.  P2C then runs inside the shard.
+ *   Instances without shard metadata share one default shard, so a service
+ *   that is not sharded keeps plain P2C over all of its instances.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+  private static final double MIN_SLOW_START_WEIGHT = 0.1;
+  private static final String DEFAULT_SHARD = "";
+
+  private final String serviceId;
+  private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+  private final InstanceStats stats;
+  private final LoadBalancerProperties properties;
+  private volatile AffinityRing ring;
+
+  public LatencyAwareLoadBalancer(String serviceId, ObjectProvider<ServiceInstanceListSupplier> suppliers,
+                                  InstanceStats stats, LoadBalancerProperties properties) {
+    this.serviceId = serviceId;
+    this.suppliers = suppliers;
+    this.stats = stats;
+    this.properties = properties;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Mono<Response<ServiceInstance>> choose(Request request) {
+    ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+    String tenant = affinityTenantOf(request);
+    return supplier.get(request).next().map(instances -> choose(instances, tenant));
+  }
+
+  Response<ServiceInstance> choose(List<ServiceInstance> instances, String tenant) {
+    if (instances.isEmpty()) {
+      return new EmptyResponse();
+    }
+    stats.retain(serviceId, instances);
+    long now = stats.now();
+    List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+    for (ServiceInstance instance : instances) {
+      if (!stats.of(instance, now).isEjected(now)) {
+        healthy.add(instance);
+      }
+    }
+    List<ServiceInstance> candidates = healthy.isEmpty() ? instances : healthy;
+    if (tenant != null && candidates.size() > 1) {
+      candidates = shardFor(tenant, candidates, now);
+    }
+    return new DefaultResponse(pickOfTwo(candidates, now));
+  }
+
+  private ServiceInstance pickOfTwo(List<ServiceInstance> candidates, long now) {
+    if (candidates.size() == 1) {
+      return candidates.get(0);
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int i = random.nextInt(candidates.size());
+    int j = random.nextInt(candidates.size() - 1);
+    if (j >= i) {
+      j++;
+    }
+    ServiceInstance a = candidates.get(i);
+    ServiceInstance b = candidates.get(j);
+    return cost(a, now) <= cost(b, now) ? a : b;
+  }
+
+  /** Instances of the tenant's shard: first one on the ring that is under its load bound. */
+  private List<ServiceInstance> shardFor(String tenant, List<ServiceInstance> candidates, long now) {
+    Map<String, List<ServiceInstance>> byShard = new LinkedHashMap<>();
+    Map<String, Integer> load = new LinkedHashMap<>();
+    int total = 0;
+    for (ServiceInstance instance : candidates) {
+      String shard = shardOf(instance);
+      byShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(instance);
+      int outstanding = stats.of(instance, now).outstanding();
+      load.merge(shard, outstanding, Integer::sum);
+      total += outstanding;
+    }
+    if (byShard.size() == 1) {
+      return candidates;
+    }
+
+    AffinityRing current = ring;
+    if (current == null || !current.shards().equals(byShard.keySet())) {
+      current = AffinityRing.of(byShard.keySet(), properties.getAffinity().getVirtualNodes());
+      ring = current;
+    }
+    // Capacity is proportional to the shard's instance count
+    double perInstance = properties.getAffinity().getLoadFactor() * (total + 1) / candidates.size();
+    String shard = current.select(tenant,
+        s -> load.get(s) + 1 <= Math.ceil(perInstance * byShard.get(s).size()));
+    return shard != null ? byShard.get(shard) : candidates;
+  }
+
+  private String shardOf(ServiceInstance instance) {
+    String shard = instance.getMetadata().get(properties.getAffinity().getShardMetadataKey());
+    return shard != null && !shard.isBlank() ? shard : DEFAULT_SHARD;
+  }
+
+  @SuppressWarnings("rawtypes")
+  private String affinityTenantOf(Request request) {
+    if (!properties.getAffinity().getServices().contains(serviceId)
+        || !(request.getContext() instanceof RequestDataContext ctx)
+        || ctx.getClientRequest() == null || ctx.getClientRequest().getAttributes() == null) {
+      return null;
+    }
+    Object jwt = ctx.getClientRequest().getAttributes().get(JwtAuthFilter.JWT_ATTRIBUTE);
+    return jwt instanceof Jwt token ? TenantResolver.tenantOf(token) : null;
+  }
+
+  private double cost(ServiceInstance instance, long now) {
+    InstanceStats.Stat stat = stats.of(instance, now);
+    double cost = stat.ewmaNanos() * (stat.outstanding() + 1);
+    long window = properties.getSlowStart().toNanos();
+    long age = stat.ageNanos(now);
+    if (window > 0 && age < window) {
+      cost /= Math.max(MIN_SLOW_START_WEIGHT, (double) age / window);
+    }
+    return cost;
+  }
+}
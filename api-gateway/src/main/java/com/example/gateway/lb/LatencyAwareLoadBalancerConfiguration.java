@@ -0,0 +1,26 @@
+package com.example.gateway.lb;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer configuration, registered through
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}.  Deliberately not a
+ * {@code @Configuration} so component scanning does not pull it into the root
+ * context.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+  @Bean
+  public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(
+      Environment environment, LoadBalancerClientFactory factory,
+      InstanceStats stats, LoadBalancerProperties properties) {
+    String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    return new LatencyAwareLoadBalancer(serviceId,
+        factory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), stats, properties);
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.gateway.lb;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+/**
+ * Feeds {@link InstanceStats} from the gateway's load-balanced calls:
+ * in-flight count on start, latency and failure (5xx or exception) on completion.
+ */
+public class LatencyTrackingLifecycle
+    implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+  private final InstanceStats stats;
+
+  public LatencyTrackingLifecycle(InstanceStats stats) {
+    this.stats = stats;
+  }
+
+  @Override
+  public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+    return RequestDataContext.class.isAssignableFrom(requestContextClass)
+        && ResponseData.class.isAssignableFrom(responseClass)
+        && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+  }
+
+  @Override
+  public void onStart(Request<RequestDataContext> request) {
+  }
+
+  @Override
+  public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+    if (request.getContext() != null) {
+      request.getContext().setRequestStartTime(stats.now());
+    }
+    if (lbResponse.hasServer()) {
+      stats.started(lbResponse.getServer());
+    }
+  }
+
+  @Override
+  public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> ctx) {
+    Response<ServiceInstance> lbResponse = ctx.getLoadBalancerResponse();
+    if (ctx.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+      return;
+    }
+    RequestDataContext context = ctx.getLoadBalancerRequest() != null ? ctx.getLoadBalancerRequest().getContext() : null;
+    long latency = context != null && context.getRequestStartTime() > 0
+        ? stats.now() - context.getRequestStartTime() : 0;
+    boolean failed = ctx.status() == CompletionContext.Status.FAILED
+        || ctx.getClientResponse() != null && ctx.getClientResponse().getHttpStatus() != null
+            && ctx.getClientResponse().getHttpStatus().is5xxServerError();
+    stats.finished(lbResponse.getServer(), latency, failed);
+  }
+}
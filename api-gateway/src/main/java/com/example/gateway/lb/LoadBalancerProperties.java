@@ -0,0 +1,61 @@
+package com.example.gateway.lb;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.load-balancer.*} settings for {@link LatencyAwareLoadBalancer}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+
+  private boolean enabled = true;
+
+  /** Time constant of the latency EWMA; older samples fade with exp(-age / decay). */
+  private Duration decay = Duration.ofSeconds(10);
+
+  /** Newly registered instances ramp up their share of traffic over this window. */
+  private Duration slowStart = Duration.ofSeconds(30);
+
+  /** Latency assumed for an instance that has not answered yet. */
+  private Duration initialLatency = Duration.ofMillis(50);
+
+  private Ejection ejection = new Ejection();
+
+  private Affinity affinity = new Affinity();
+
+  @Data
+  public static class Ejection {
+
+    /** Consecutive 5xx responses or connection failures that eject an instance. */
+    private int consecutiveFailures = 5;
+
+    /** First ejection length; doubles for each repeated ejection, up to 10x. */
+    private Duration baseTime = Duration.ofSeconds(30);
+
+    /** Never eject more than this share of a service's instances. */
+    private int maxPercent = 50;
+  }
+
+  @Data
+  public static class Affinity {
+
+    /**
+     * Services whose instances are pinned per tenant; others use plain P2C.  Only
+     * useful once their instances carry shard metadata.
+     */
+    private List<String> services = new ArrayList<>();
+
+    /** Eureka metadata key naming an instance's shard; instances without it share one default shard. */
+    private String shardMetadataKey = "shard";
+
+    private int virtualNodes = 100;
+
+    /** A shard takes at most loadFactor x its fair share of in-flight requests before spilling over. */
+    private double loadFactor = 1.25;
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.gateway.metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Admits at most {@code limit} distinct values for one tag at a time (plus an
+ * always-allowed set); everything else collapses to {@link #OTHER}.  Keeps meter
+ * count bounded with thousands of tenants or churning instances.
+ *
+ * Once the limit is reached, values not seen for {@code idleTimeout} are evicted
+ * to make room, so instances replacing redeployed ones get their own tag again.
+ * {@code onEvict} lets the owner drop the meters of an evicted value.
+ */
+public class BoundedTagValues {
+
+  public static final String OTHER = "other";
+
+  /** Last time each admitted value was seen, in clock millis. */
+  private final Map<String, AtomicLong> lastSeen = new ConcurrentHashMap<>();
+  private final Set<String> pinned;
+  private final int limit;
+  private final long idleMillis;
+  private final Clock clock;
+  private final Consumer<String> onEvict;
+  private volatile long nextSweep;
+
+  public BoundedTagValues(int limit, Collection<String> pinned, Duration idleTimeout, Clock clock,
+                          Consumer<String> onEvict) {
+    this.pinned = Set.copyOf(pinned);
+    this.limit = limit;
+    this.idleMillis = idleTimeout.toMillis();
+    this.clock = clock;
+    this.onEvict = onEvict;
+  }
+
+  public String of(String value) {
+    if (value == null) {
+      return OTHER;
+    }
+    if (pinned.contains(value)) {
+      return value;
+    }
+    long now = clock.millis();
+    AtomicLong seen = lastSeen.get(value);
+    if (seen != null) {
+      seen.lazySet(now);
+      return value;
+    }
+    // Full and swept recently: stay off the lock
+    if (lastSeen.size() >= limit && now < nextSweep) {
+      return OTHER;
+    }
+    return admit(value, now) ? value : OTHER;
+  }
+
+  private synchronized boolean admit(String value, long now) {
+    if (lastSeen.size() >= limit && now >= nextSweep) {
+      // Sweeps are spaced so values beyond the limit don't each scan the set
+      nextSweep = now + Math.max(1, idleMillis / 10);
+      for (Iterator<Map.Entry<String, AtomicLong>> it = lastSeen.entrySet().iterator(); it.hasNext(); ) {
+        Map.Entry<String, AtomicLong> entry = it.next();
+        if (now - entry.getValue().get() >= idleMillis) {
+          it.remove();
+          onEvict.accept(entry.getKey());
+        }
+      }
+    }
+    if (lastSeen.size() >= limit) {
+      return false;
+    }
+    lastSeen.putIfAbsent(value, new AtomicLong(now));
+    return true;
+  }
+}
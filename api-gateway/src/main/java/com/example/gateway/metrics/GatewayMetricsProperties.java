@@ -0,0 +1,44 @@
+package com.example.gateway.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.metrics.*}: per-route / tenant / instance request metrics and SLO.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.metrics")
+public class GatewayMetricsProperties {
+
+  private boolean enabled = true;
+
+  /** Distinct tenant tags per node; later tenants are reported as {@code other}. */
+  private int maxTenants = 100;
+
+  /** Distinct instance tags per node; later instances are reported as {@code other}. */
+  private int maxInstances = 200;
+
+  /** Tenants and instances idle this long give up their tag once the caps are reached. */
+  private Duration tagIdleTimeout = Duration.ofHours(1);
+
+  /** Tenants that always get their own tag, regardless of {@link #maxTenants}. */
+  private List<String> trackedTenants = new ArrayList<>();
+
+  private Slo slo = new Slo();
+
+  @Data
+  public static class Slo {
+
+    /** A request is "good" when it is not a 5xx and finishes within this latency. */
+    private Duration latency = Duration.ofMillis(500);
+
+    /** Target share of good requests, e.g. 0.99. */
+    private double objective = 0.99;
+
+    /** Burn-rate windows reported by {@code /actuator/slo}; the longest bounds memory. */
+    private List<Duration> windows = new ArrayList<>(List.of(Duration.ofMinutes(5), Duration.ofHours(1)));
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.gateway.metrics;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@code /actuator/slo}: burn rate and share of slow requests per tenant and
+ * per downstream instance for each configured window, worst first.
+ * Latency distributions themselves are in the {@code gateway.requests*} histograms.
+ */
+@Endpoint(id = "slo")
+@RequiredArgsConstructor
+public class SloEndpoint {
+
+  private final SloTracker tracker;
+
+  @ReadOperation
+  public Map<String, Object> report() {
+    return tracker.report();
+  }
+}
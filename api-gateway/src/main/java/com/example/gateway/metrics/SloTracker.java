@@ -0,0 +1,152 @@
+package com.example.gateway.metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding-window good/bad counts per tenant and per instance, used to compute
+ * SLO burn rate ({@code errorRate / (1 - objective)}) and each key's share of
+ * the requests that missed the latency target, i.e. who is driving p99.
+ *
+ * Counts live in one-minute buckets in a ring covering the longest window;
+ * keys are already bounded by {@link BoundedTagValues}, and dropped when it
+ * evicts them.
+ */
+public class SloTracker {
+
+  private static final long BUCKET_MILLIS = 60_000;
+
+  private final GatewayMetricsProperties.Slo slo;
+  private final Clock clock;
+  private final int buckets;
+  private final Map<String, Window> tenants = new ConcurrentHashMap<>();
+  private final Map<String, Window> instances = new ConcurrentHashMap<>();
+
+  public SloTracker(GatewayMetricsProperties.Slo slo, Clock clock) {
+    this.slo = slo;
+    this.clock = clock;
+    long longest = slo.getWindows().stream().mapToLong(Duration::toMillis).max().orElse(BUCKET_MILLIS);
+    this.buckets = (int) Math.max(1, (longest + BUCKET_MILLIS - 1) / BUCKET_MILLIS);
+  }
+
+  public void record(String tenant, String instance, long latencyNanos, boolean serverError) {
+    boolean bad = serverError || latencyNanos > slo.getLatency().toNanos();
+    boolean slow = latencyNanos > slo.getLatency().toNanos();
+    long minute = clock.millis() / BUCKET_MILLIS;
+    tenants.computeIfAbsent(tenant, k -> new Window(buckets)).add(minute, bad, slow);
+    if (instance != null) {
+      instances.computeIfAbsent(instance, k -> new Window(buckets)).add(minute, bad, slow);
+    }
+  }
+
+  /** Drop the counts of a tenant whose tag was evicted. */
+  public void forgetTenant(String tenant) {
+    tenants.remove(tenant);
+  }
+
+  /** Drop the counts of an instance whose tag was evicted. */
+  public void forgetInstance(String instance) {
+    instances.remove(instance);
+  }
+
+  /** Report for every configured window, worst burn rate first. */
+  public Map<String, Object> report() {
+    long minute = clock.millis() / BUCKET_MILLIS;
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("objective", slo.getObjective());
+    out.put("latencyMs", slo.getLatency().toMillis());
+    Map<String, Object> windows = new LinkedHashMap<>();
+    for (Duration window : slo.getWindows()) {
+      int span = (int) Math.min(buckets, Math.max(1, window.toMillis() / BUCKET_MILLIS));
+      windows.put(window.toString(), Map.of(
+          "tenants", rank(tenants, minute, span),
+          "instances", rank(instances, minute, span)));
+    }
+    out.put("windows", windows);
+    return out;
+  }
+
+  private List<Map<String, Object>> rank(Map<String, Window> windows, long minute, int span) {
+    long slowTotal = 0;
+    List<Object[]> rows = new ArrayList<>();
+    for (Map.Entry<String, Window> e : windows.entrySet()) {
+      long[] c = e.getValue().sum(minute, span);
+      if (c[0] > 0) {
+        rows.add(new Object[] {e.getKey(), c});
+        slowTotal += c[2];
+      }
+    }
+    double budget = 1 - slo.getObjective();
+    List<Map<String, Object>> result = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      long[] c = (long[]) row[1];
+      double errorRate = (double) c[1] / c[0];
+      Map<String, Object> m = new LinkedHashMap<>();
+      m.put("key", row[0]);
+      m.put("requests", c[0]);
+      m.put("bad", c[1]);
+      m.put("burnRate", budget > 0 ? errorRate / budget : 0);
+      m.put("slowShare", slowTotal > 0 ? (double) c[2] / slowTotal : 0);
+      result.add(m);
+    }
+    result.sort(Comparator.comparingDouble((Map<String, Object> m) -> (double) m.get("burnRate")).reversed());
+    return result;
+  }
+
+  /**
+   * Ring of per-minute [total, bad, slow] counters tagged with their minute.
+   * A bucket's counters are reset before its new minute is published, so a
+   * lock-free reader that sees the minute also sees the reset.
+   */
+  private static final class Window {
+
+    private final AtomicLongArray minutes;
+    private final AtomicLongArray counts;
+
+    Window(int buckets) {
+      this.minutes = new AtomicLongArray(buckets);
+      this.counts = new AtomicLongArray(buckets * 3);
+    }
+
+    void add(long minute, boolean bad, boolean slow) {
+      int i = (int) (minute % minutes.length());
+      if (minutes.get(i) != minute) {
+        synchronized (this) {
+          if (minutes.get(i) != minute) {
+            counts.set(i * 3, 0);
+            counts.set(i * 3 + 1, 0);
+            counts.set(i * 3 + 2, 0);
+            minutes.set(i, minute);
+          }
+        }
+      }
+      counts.incrementAndGet(i * 3);
+      if (bad) {
+        counts.incrementAndGet(i * 3 + 1);
+      }
+      if (slow) {
+        counts.incrementAndGet(i * 3 + 2);
+      }
+    }
+
+    synchronized long[] sum(long minute, int span) {
+      long[] c = new long[3];
+      for (int i = 0; i < minutes.length(); i++) {
+        long bucket = minutes.get(i);
+        if (bucket > minute - span && bucket <= minute) {
+          c[0] += counts.get(i * 3);
+          c[1] += counts.get(i * 3 + 1);
+          c[2] += counts.get(i * 3 + 2);
+        }
+      }
+      return c;
+    }
+  }
+}
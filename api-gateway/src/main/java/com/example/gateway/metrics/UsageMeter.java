@@ -0,0 +1,90 @@
+package com.example.gateway.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request count, 5xx count and latency per tenant since the last
+ * {@link #drain()}, for usage metering in tenant-registry-svc.
+ *
+ * Unlike the meters of GatewayMetricsFilter, every tenant is counted on its
+ * own, since billing can't lump tenants into {@code other}.  Counters are
+ * atomics drained with {@code getAndSet}, so requests recorded during a drain
+ * land in the next one rather than getting lost.  At most {@code max-tenants}
+ * tenants are held; requests of further tenants are only counted as dropped.
+ */
+public class UsageMeter {
+
+  /** Figures of one tenant; also the wire format of the registry's report entries. */
+  public record Usage(String tenant, long requests, long errors, long latencyMsTotal, long latencyMsMax) {
+  }
+
+  private static final long NANOS_PER_MILLI = 1_000_000;
+
+  private final Map<String, Counters> tenants = new ConcurrentHashMap<>();
+  private final AtomicLong dropped = new AtomicLong();
+  private final int maxTenants;
+
+  public UsageMeter(int maxTenants) {
+    this.maxTenants = maxTenants;
+  }
+
+  public void record(String tenant, long latencyNanos, boolean serverError) {
+    Counters counters = tenants.get(tenant);
+    if (counters == null) {
+      if (tenants.size() >= maxTenants) {
+        dropped.incrementAndGet();
+        return;
+      }
+      counters = tenants.computeIfAbsent(tenant, k -> new Counters());
+    }
+    counters.add(1, serverError ? 1 : 0, latencyNanos, latencyNanos);
+  }
+
+  /** Figures of every tenant with requests since the last drain; resets them. */
+  public List<Usage> drain() {
+    List<Usage> usages = new ArrayList<>();
+    tenants.forEach((tenant, counters) -> {
+      long requests = counters.requests.getAndSet(0);
+      if (requests > 0) {
+        long errors = counters.errors.getAndSet(0);
+        long latencyMs = counters.latencyNanos.getAndSet(0) / NANOS_PER_MILLI;
+        long maxMs = counters.maxNanos.getAndSet(0) / NANOS_PER_MILLI;
+        usages.add(new Usage(tenant, requests, errors, latencyMs, maxMs));
+      }
+    });
+    return usages;
+  }
+
+  /** Adds drained figures back, e.g. after they could not be reported. */
+  public void restore(List<Usage> usages) {
+    for (Usage usage : usages) {
+      tenants.computeIfAbsent(usage.tenant(), k -> new Counters()).add(usage.requests(), usage.errors(),
+          usage.latencyMsTotal() * NANOS_PER_MILLI, usage.latencyMsMax() * NANOS_PER_MILLI);
+    }
+  }
+
+  /** Requests not metered since the last call because {@code max-tenants} was reached. */
+  public long drainDropped() {
+    return dropped.getAndSet(0);
+  }
+
+  private static final class Counters {
+
+    final AtomicLong requests = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+    final AtomicLong latencyNanos = new AtomicLong();
+    final AtomicLong maxNanos = new AtomicLong();
+
+    void add(long requestCount, long errorCount, long totalNanos, long highestNanos) {
+      latencyNanos.addAndGet(totalNanos);
+      maxNanos.accumulateAndGet(highestNanos, Math::max);
+      errors.addAndGet(errorCount);
+      // last, so a drain that sees the request also sees most of its figures
+      requests.addAndGet(requestCount);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.gateway.metrics;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code gateway.usage.*}: per-tenant usage reported to tenant-registry-svc.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.usage")
+public class UsageProperties {
+
+  private boolean enabled = false;
+
+  /** Eureka service id of the registry, resolved by the load-balanced WebClient. */
+  private String service = "tenant-registry-service";
+
+  private String path = "/internal/tenants/usage";
+
+  /** Service token the registry requires on {@code /internal/**} ({@code security.service-token} there). */
+  private String token;
+
+  /** How often the figures collected since the last report are sent. */
+  private Duration flushInterval = Duration.ofMinutes(1);
+
+  private Duration timeout = Duration.ofSeconds(5);
+
+  /** Distinct tenants held per node; requests of further tenants are not metered. */
+  private int maxTenants = 100_000;
+}
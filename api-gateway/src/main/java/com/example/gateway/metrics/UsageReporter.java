@@ -0,0 +1,85 @@
+package com.example.gateway.metrics;
+
+import com.example.identity.ServiceToken;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends the {@link UsageMeter} figures to tenant-registry-svc every
+ * {@code flush-interval}, which adds them to its hourly per-tenant rollups.
+ *
+ * • One small POST per interval and node, whatever the request rate.
+ * • Figures of a failed report are put back and go out with the next one.
+ * • Whatever is left is flushed on shutdown.
+ * • Authenticated by the registry's shared {@link ServiceToken}.
+ */
+@Slf4j
+public class UsageReporter implements InitializingBean, DisposableBean {
+
+  private final UsageMeter meter;
+  private final WebClient webClient;
+  private final UsageProperties properties;
+  private Disposable flusher;
+
+  public UsageReporter(UsageMeter meter, WebClient webClient, UsageProperties properties) {
+    this.meter = meter;
+    this.webClient = webClient;
+    this.properties = properties;
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    if (properties.getToken() == null || properties.getToken().isEmpty()) {
+      log.warn("gateway.usage.token is not set, tenant-registry-svc will reject usage reports");
+    }
+    flusher = Flux.interval(properties.getFlushInterval())
+        .onBackpressureDrop()
+        .concatMap(tick -> flush())
+        .subscribe();
+  }
+
+  @Override
+  public void destroy() {
+    if (flusher != null) {
+      flusher.dispose();
+    }
+    flush().block(properties.getTimeout().multipliedBy(2));
+  }
+
+  Mono<Void> flush() {
+    long dropped = meter.drainDropped();
+    if (dropped > 0) {
+      log.warn("{} requests not metered, more than {} tenants", dropped, properties.getMaxTenants());
+    }
+    List<UsageMeter.Usage> usages = meter.drain();
+    if (usages.isEmpty()) {
+      return Mono.empty();
+    }
+    return webClient.post()
+        .uri("http://" + properties.getService() + properties.getPath())
+        .headers(headers -> {
+          if (properties.getToken() != null && !properties.getToken().isEmpty()) {
+            headers.set(ServiceToken.HEADER, properties.getToken());
+          }
+        })
+        .bodyValue(Map.of("tenants", usages))
+        .retrieve()
+        .toBodilessEntity()
+        .timeout(properties.getTimeout())
+        .doOnSuccess(response -> log.debug("Reported usage of {} tenants", usages.size()))
+        .then()
+        .onErrorResume(ex -> {
+          log.warn("Reporting usage of {} tenants failed, retrying with the next report: {}", usages.size(),
+              ex.getMessage());
+          meter.restore(usages);
+          return Mono.empty();
+        });
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.gateway.ratelimit;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * {@code gateway.rate-limit.*} settings.
+ *
+ * <pre>
+ * gateway.rate-limit:
+ *   enabled: true
+ *   default-limit: { requests-per-second: 50, burst: 100 }
+ *   anonymous-limit: { requests-per-second: 10, burst: 20 }
+ *   tenants:
+ *     big-customer: { requests-per-second: 500, burst: 1000 }
+ * </pre>
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+
+  /** Applied to every tenant without an explicit entry. */
+  @Valid
+  @NotNull
+  private Limit defaultLimit = new Limit();
+
+  /** Applied per client IP to calls without a token (public branding, login pages). */
+  @Valid
+  @NotNull
+  private Limit anonymousLimit = new Limit(10, 20);
+
+  /** Per-tenant overrides keyed by realm name. */
+  private Map<String, @Valid @NotNull Limit> tenants = new HashMap<>();
+
+  // Written out: Lombok would copy the type-argument constraints onto the getter, and
+  // each tenant limit would be validated twice.
+  public Map<String, Limit> getTenants() {
+    return tenants;
+  }
+
+  public Limit limitFor(String tenant) {
+    return tenants.getOrDefault(tenant, defaultLimit);
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Limit {
+
+    /** Sustained rate the bucket refills at; fractions allowed (0.5 = one every 2s). */
+    @Positive
+    private double requestsPerSecond = 50;
+
+    /** Requests that may arrive back-to-back once the bucket is full. */
+    @Min(1)
+    private int burst = 100;
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.gateway.ratelimit;
+
+/**
+ * Backing state for tenant token buckets.
+ *
+ * The default {@link InMemoryRateLimitStore} keeps buckets per gateway node;
+ * declare another bean of this type (e.g. backed by Redis) to share them
+ * across nodes.
+ */
+public interface RateLimitStore {
+
+  /**
+   * Take one token from the bucket for {@code key}.
+   *
+   * @return {@code 0} if the request is admitted, otherwise the nanoseconds
+   *         until a token becomes available
+   */
+  long tryAcquire(String key, RateLimitProperties.Limit limit);
+}
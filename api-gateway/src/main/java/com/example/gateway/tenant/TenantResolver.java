@@ -0,0 +1,54 @@
+package com.example.gateway.tenant;
+
+import com.example.gateway.filter.JwtAuthFilter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Derives the tenant key (and realm roles) of a request from its validated token.
+ *
+ * Every tenant has its own Keycloak realm, so the realm name taken from the
+ * issuer ({@code https://kc/realms/<realm>}) identifies the tenant. Calls
+ * without a token share the {@link #ANONYMOUS} key.
+ */
+public final class TenantResolver {
+
+  public static final String ANONYMOUS = "anonymous";
+
+  private static final String REALMS_SEGMENT = "/realms/";
+
+  private TenantResolver() {
+  }
+
+  public static String tenantOf(ServerWebExchange exchange) {
+    Jwt jwt = exchange.getAttribute(JwtAuthFilter.JWT_ATTRIBUTE);
+    return jwt == null ? ANONYMOUS : tenantOf(jwt);
+  }
+
+  public static String tenantOf(Jwt jwt) {
+    String issuer = jwt.getClaimAsString("iss");
+    if (issuer == null || issuer.isBlank()) {
+      return ANONYMOUS;
+    }
+    int idx = issuer.lastIndexOf(REALMS_SEGMENT);
+    if (idx < 0) {
+      return issuer;
+    }
+    String realm = issuer.substring(idx + REALMS_SEGMENT.length());
+    int slash = realm.indexOf('/');
+    return slash < 0 ? realm : realm.substring(0, slash);
+  }
+
+  /** Keycloak puts realm roles under {@code realm_access.roles}. */
+  public static List<String> rolesOf(Jwt jwt) {
+    Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+    Object roles = realmAccess != null ? realmAccess.get("roles") : jwt.getClaim("realm_access.roles");
+    if (roles instanceof Collection<?> c) {
+      return c.stream().map(String::valueOf).toList();
+    }
+    return List.of();
+  }
+}
@@ -0,0 +1,165 @@
+package com.example.gateway.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link AdaptiveLimiter} in front of a simulated downstream service whose
+ * latency grows with queueing once its own capacity is exceeded.
+ */
+class AdaptiveLimiterTest {
+
+  private static final Duration BASE_LATENCY = Duration.ofMillis(10);
+
+  private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+
+  @Test
+  void limitGrowsWithDemandWhileLatencyIsFlat() {
+    StubService service = new StubService(new AdaptiveLimiter(properties), 200, 200);
+
+    Window rampUp = service.run(Duration.ofSeconds(5));
+    Window healthy = service.run(Duration.ofSeconds(10));
+
+    // starts at the initial limit of 20 and turns callers away until it has grown
+    assertThat(rampUp.rejected).isPositive();
+    assertThat(healthy.minLimit).isGreaterThanOrEqualTo(200);
+    assertThat(healthy.rejected).isZero();
+  }
+
+  @Test
+  void limitShrinksWhenServiceSlowsDownAndRecoversAfterwards() {
+    StubService service = new StubService(new AdaptiveLimiter(properties), 200, 200);
+    Window healthy = service.run(Duration.ofSeconds(10));
+
+    // capacity drops from 200 to 10 concurrent requests: unbounded, 200 callers would see 200ms
+    service.capacity = 10;
+    service.run(Duration.ofSeconds(5));
+    Window degraded = service.run(Duration.ofSeconds(10));
+
+    assertThat(degraded.maxLimit).isLessThan(healthy.lastLimit / 2);
+    assertThat(degraded.meanRtt()).isLessThan(BASE_LATENCY.multipliedBy(10));
+    assertThat(degraded.rejected).isPositive();
+
+    service.capacity = 200;
+    service.run(Duration.ofSeconds(5));
+    Window recovered = service.run(Duration.ofSeconds(5));
+
+    assertThat(recovered.minLimit).isGreaterThanOrEqualTo(200);
+    assertThat(recovered.meanRtt()).isLessThan(BASE_LATENCY.multipliedBy(2));
+  }
+
+  @Test
+  void mostlyIdleLimitStillShrinksOnLatency() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(properties);
+    for (int i = 0; i < 100; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+      limiter.release(BASE_LATENCY.toNanos(), false);
+    }
+    int idleLimit = limiter.limit();
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+      limiter.release(BASE_LATENCY.multipliedBy(20).toNanos(), false);
+    }
+
+    assertThat(idleLimit).isEqualTo(properties.getInitialLimit());
+    assertThat(limiter.limit()).isLessThan(idleLimit);
+  }
+
+  @Test
+  void failuresBackOff() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(properties);
+    for (int i = 0; i < 5; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+      limiter.release(BASE_LATENCY.toNanos(), true);
+    }
+
+    assertThat(limiter.limit()).isEqualTo((int) (properties.getInitialLimit() * Math.pow(0.9, 5)));
+  }
+
+  @Test
+  void callersOverTheLimitAreTurnedAway() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(properties);
+    for (int i = 0; i < properties.getInitialLimit(); i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    assertThat(limiter.tryAcquire()).isFalse();
+    limiter.release(BASE_LATENCY.toNanos(), false);
+    assertThat(limiter.tryAcquire()).isTrue();
+  }
+
+  /** Limit and latency seen over one stretch of a simulation. */
+  private static final class Window {
+
+    private int minLimit = Integer.MAX_VALUE;
+    private int maxLimit;
+    private int lastLimit;
+    private long completed;
+    private long rttNanos;
+    private long rejected;
+
+    Duration meanRtt() {
+      return Duration.ofNanos(completed == 0 ? 0 : rttNanos / completed);
+    }
+  }
+
+  /**
+   * Discrete-event simulation in virtual time: {@code callers} clients each send
+   * a request as soon as the previous one completes, or 5ms after a rejection.
+   * The service answers in {@link #BASE_LATENCY} up to {@code capacity}
+   * concurrent requests and queues beyond that, latency growing linearly.
+   */
+  private static final class StubService {
+
+    private record Event(long at, long startedAt, boolean response) {
+    }
+
+    private static final long RETRY_NANOS = Duration.ofMillis(5).toNanos();
+
+    private final AdaptiveLimiter limiter;
+    private final PriorityQueue<Event> events = new PriorityQueue<>(Comparator.comparingLong(Event::at));
+    private int capacity;
+    private long now;
+
+    StubService(AdaptiveLimiter limiter, int callers, int capacity) {
+      this.limiter = limiter;
+      this.capacity = capacity;
+      for (int i = 0; i < callers; i++) {
+        events.add(new Event(i * 100_000L, 0, false));
+      }
+    }
+
+    Window run(Duration duration) {
+      Window window = new Window();
+      long end = now + duration.toNanos();
+      while (events.peek().at() < end) {
+        Event event = events.poll();
+        now = event.at();
+        if (event.response()) {
+          long rtt = now - event.startedAt();
+          limiter.release(rtt, false);
+          window.completed++;
+          window.rttNanos += rtt;
+          events.add(new Event(now, 0, false));
+        } else if (limiter.tryAcquire()) {
+          double queueing = Math.max(1.0, (double) limiter.inFlight() / capacity);
+          events.add(new Event(now + (long) (BASE_LATENCY.toNanos() * queueing), now, true));
+        } else {
+          window.rejected++;
+          events.add(new Event(now + RETRY_NANOS, 0, false));
+        }
+        int limit = limiter.limit();
+        window.minLimit = Math.min(window.minLimit, limit);
+        window.maxLimit = Math.max(window.maxLimit, limit);
+        window.lastLimit = limit;
+      }
+      now = end;
+      return window;
+    }
+  }
+}
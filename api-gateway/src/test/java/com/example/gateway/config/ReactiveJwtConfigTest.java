@@ -0,0 +1,226 @@
+package com.example.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.gateway.jwt.JwksCache;
+import com.example.gateway.jwt.JwksProperties;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * JWT validation through {@link JwksCache} against a stub Keycloak JWKS endpoint.
+ * Runs under BlockHound, in its own surefire execution.
+ */
+@Tag("blockhound")
+class ReactiveJwtConfigTest {
+
+  private static final Duration KEYCLOAK_LATENCY = Duration.ofMillis(100);
+
+  private static RSAKey oldKey;
+  private static RSAKey newKey;
+
+  private final AtomicReference<JWKSet> published = new AtomicReference<>();
+  private final AtomicInteger fetches = new AtomicInteger();
+  private final MutableClock clock = new MutableClock(Instant.now());
+  private final JwksProperties properties = new JwksProperties();
+  private JwksCache cache;
+  private ReactiveJwtDecoder decoder;
+
+  @BeforeAll
+  static void setUp() throws JOSEException {
+    // Codec setup reads classpath resources; done here, it is not caught on a parallel thread
+    ClientResponse.create(HttpStatus.OK).build();
+    WebClient.builder().build();
+    BlockHound.install();
+    oldKey = new RSAKeyGenerator(2048).keyID("old").generate();
+    newKey = new RSAKeyGenerator(2048).keyID("new").generate();
+  }
+
+  @BeforeEach
+  void startCache() {
+    // Keycloak's JWKS endpoint, answering after a network round trip
+    ExchangeFunction keycloak = request -> Mono.delay(KEYCLOAK_LATENCY)
+        .map(tick -> {
+          fetches.incrementAndGet();
+          return ClientResponse.create(HttpStatus.OK)
+              .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+              .body(published.get().toString())
+              .build();
+        });
+    properties.setJwkSetUri("http://keycloak/realms/acme/protocol/openid-connect/certs");
+    publish(oldKey);
+    cache = new JwksCache(WebClient.builder().exchangeFunction(keycloak).build(), "", properties, clock);
+    decoder = new ReactiveJwtConfig().reactiveJwtDecoder(cache, "");
+
+    // first token loads the key set
+    assertThat(decoder.decode(token(oldKey)).block(Duration.ofSeconds(5))).isNotNull();
+    assertThat(fetches).hasValue(1);
+  }
+
+  @AfterEach
+  void stopCache() {
+    cache.destroy();
+  }
+
+  @Test
+  void decodesOnEventLoopThreadsWithoutBlocking() {
+    String token = token(oldKey);
+
+    StepVerifier.create(Mono.defer(() -> decoder.decode(token)).subscribeOn(Schedulers.parallel()))
+        .assertNext(jwt -> assertThat(jwt.getSubject()).isEqualTo("alice"))
+        .verifyComplete();
+    assertThat(fetches).hasValue(1);
+  }
+
+  @Test
+  void refreshesOnRotationWithoutBlocking() {
+    rotate();
+    String token = token(newKey);
+
+    StepVerifier.create(Mono.defer(() -> decoder.decode(token)).subscribeOn(Schedulers.parallel()))
+        .assertNext(jwt -> assertThat(jwt.getSubject()).isEqualTo("alice"))
+        .verifyComplete();
+    assertThat(fetches).hasValue(2);
+  }
+
+  @Test
+  void tokenOfRotatedKeyCostsOneRoundTrip() {
+    rotate();
+    String token = token(newKey);
+
+    // in virtual time the stub's latency is the only delay, so elapsed counts round trips
+    assertThat(virtualDecodeTime(token)).isEqualTo(KEYCLOAK_LATENCY);
+    assertThat(fetches).hasValue(2);
+
+    // the refreshed set serves later tokens from memory
+    assertThat(virtualDecodeTime(token)).isZero();
+    assertThat(fetches).hasValue(2);
+  }
+
+  @Test
+  void concurrentTokensOfRotatedKeyShareOneFetch() {
+    rotate();
+    String token = token(newKey);
+
+    List<Jwt> decoded = Flux.range(0, 50)
+        .flatMap(i -> Mono.defer(() -> decoder.decode(token)).subscribeOn(Schedulers.parallel()))
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertThat(decoded).hasSize(50);
+    assertThat(fetches).hasValue(2);
+  }
+
+  @Test
+  void unknownKeysAreRefreshedAtMostOncePerMinRefreshInterval() throws JOSEException {
+    RSAKey forged = new RSAKeyGenerator(2048).keyID("forged").generate();
+    clock.advance(properties.getMinRefreshInterval().plusSeconds(1));
+
+    for (int i = 0; i < 5; i++) {
+      assertThatThrownBy(() -> decoder.decode(token(forged)).block(Duration.ofSeconds(5)))
+          .isInstanceOf(RuntimeException.class);
+    }
+
+    assertThat(fetches).hasValue(2);
+  }
+
+  /** Virtual time from subscribing to a decode until the token is validated. */
+  private Duration virtualDecodeTime(String token) {
+    AtomicReference<Duration> elapsed = new AtomicReference<>();
+    StepVerifier.withVirtualTime(() -> decoder.decode(token).elapsed())
+        .thenAwait(properties.getFetchTimeout())
+        .assertNext(timed -> elapsed.set(Duration.ofMillis(timed.getT1())))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+    return elapsed.get();
+  }
+
+  /** Keycloak starts signing with a new key; the old one is still published for a while. */
+  private void rotate() {
+    published.set(new JWKSet(List.<JWK>of(oldKey.toPublicJWK(), newKey.toPublicJWK())));
+    clock.advance(properties.getMinRefreshInterval().plusSeconds(1));
+  }
+
+  private void publish(RSAKey key) {
+    published.set(new JWKSet(key.toPublicJWK()));
+  }
+
+  private static String token(RSAKey key) {
+    try {
+      SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+          new JWTClaimsSet.Builder()
+              .subject("alice")
+              .issuer("http://keycloak/realms/acme")
+              .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+              .build());
+      jwt.sign(new RSASSASigner(key));
+      return jwt.serialize();
+    } catch (JOSEException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private volatile Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.gateway.concurrency.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.TimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * When {@link AdaptiveConcurrencyFilter} releases its permit and what shrinks the limit.
+ */
+class AdaptiveConcurrencyFilterTest {
+
+  private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(properties, registry);
+
+  @Test
+  void permitIsReleasedWhenTheResponseCommitsNotAfterTheBody() {
+    AtomicReference<Double> inFlightWhileStreaming = new AtomicReference<>();
+
+    run(exchange -> respond(exchange, HttpStatus.OK)
+        .then(Mono.fromRunnable(() -> inFlightWhileStreaming.set(gauge("gateway.concurrency.inflight")))));
+
+    assertThat(inFlightWhileStreaming.get()).isZero();
+    assertThat(gauge("gateway.concurrency.inflight")).isZero();
+  }
+
+  @Test
+  void applicationErrorsDoNotShrinkTheLimit() {
+    run(exchange -> respond(exchange, HttpStatus.INTERNAL_SERVER_ERROR));
+    run(exchange -> Mono.error(new IllegalStateException("bug")));
+
+    assertThat(gauge("gateway.concurrency.limit")).isGreaterThanOrEqualTo(properties.getInitialLimit());
+  }
+
+  @Test
+  void unavailableAndTimeoutsShrinkTheLimit() {
+    run(exchange -> respond(exchange, HttpStatus.SERVICE_UNAVAILABLE));
+    // what NettyRoutingFilter raises when the response timeout expires
+    run(exchange -> Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Response took longer",
+        new TimeoutException("Response took longer"))));
+
+    double backoff = properties.getBackoffRatio();
+    assertThat(gauge("gateway.concurrency.limit"))
+        .isEqualTo((int) (properties.getInitialLimit() * backoff * backoff));
+  }
+
+  private void run(GatewayFilterChain downstream) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products"));
+    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+        Route.async().id("products").uri("lb://product-service").predicate(e -> true).build());
+    filter.filter(exchange, downstream).onErrorResume(ex -> Mono.empty()).block();
+  }
+
+  private static Mono<Void> respond(ServerWebExchange exchange, HttpStatus status) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(status);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap("body".getBytes(StandardCharsets.UTF_8))));
+  }
+
+  private double gauge(String name) {
+    return registry.get(name).tag("service", "product-service").gauge().value();
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.identity.SignedIdentity;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+/**
+ * Header handling of {@link IdentityPropagationFilter}, with and without a signer.
+ */
+class IdentityPropagationFilterTest {
+
+  private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+  @Test
+  void forgedHeaderIsStrippedWhenSigningIsOff() {
+    HttpHeaders forwarded = forward(new IdentityPropagationFilter(null), "forged");
+
+    assertThat(forwarded.containsKey(SignedIdentity.HEADER)).isFalse();
+  }
+
+  @Test
+  void forgedHeaderIsReplacedBySignedIdentity() {
+    HttpHeaders forwarded = forward(new IdentityPropagationFilter(new SignedIdentity(SECRET)), "forged");
+
+    assertThat(forwarded.get(SignedIdentity.HEADER)).hasSize(1);
+    assertThat(forwarded.getFirst(SignedIdentity.HEADER)).isNotEqualTo("forged");
+  }
+
+  /** Headers of the request the filter passes downstream. */
+  private static HttpHeaders forward(IdentityPropagationFilter filter, String clientIdentity) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(
+        MockServerHttpRequest.get("/api/products").header(SignedIdentity.HEADER, clientIdentity));
+    Jwt jwt = Jwt.withTokenValue("token")
+        .header("alg", "RS256")
+        .subject("alice")
+        .claim("iss", "http://keycloak/realms/acme")
+        .claim("realm_access", Map.of("roles", List.of("user")))
+        .expiresAt(Instant.now().plusSeconds(300))
+        .build();
+    exchange.getAttributes().put(JwtAuthFilter.JWT_ATTRIBUTE, jwt);
+    AtomicReference<HttpHeaders> forwarded = new AtomicReference<>();
+    filter.filter(exchange, e -> {
+      forwarded.set(e.getRequest().getHeaders());
+      return Mono.empty();
+    }).block();
+    return forwarded.get();
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.gateway.cache.ResponseCache;
+import com.example.gateway.cache.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keying and invalidation of {@link ResponseCacheFilter} in front of a stub downstream.
+ */
+class ResponseCacheFilterTest {
+
+  private static final String PRODUCTS = "lb://product-service";
+
+  private final ResponseCacheProperties properties = new ResponseCacheProperties();
+  private final ResponseCache cache;
+  private final ResponseCacheFilter filter;
+  private final AtomicInteger downstreamCalls = new AtomicInteger();
+
+  ResponseCacheFilterTest() {
+    properties.setEnabled(true);
+    properties.setPaths(List.of("/api/products/**", "/product-service/products/**"));
+    cache = new ResponseCache(properties, new SimpleMeterRegistry(), Clock.systemUTC());
+    filter = new ResponseCacheFilter(cache, properties);
+  }
+
+  @Test
+  void secondReadIsServedFromCache() {
+    MockServerWebExchange first = get("acme", "/api/products", null);
+    MockServerWebExchange second = get("acme", "/api/products", null);
+
+    assertThat(body(first)).isEqualTo("products-1");
+    assertThat(body(second)).isEqualTo("products-1");
+    assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+    assertThat(downstreamCalls).hasValue(1);
+  }
+
+  @Test
+  void writeByOneTenantDropsEntriesOfAllTenantsOfTheService() {
+    get("acme", "/api/products", null);
+    get("globex", "/api/products", null);
+
+    run(request("globex", MockServerHttpRequest.method(HttpMethod.PUT, "/api/products/1"), PRODUCTS));
+
+    MockServerWebExchange acme = get("acme", "/api/products", null);
+    assertThat(body(acme)).isEqualTo("products-4");
+    assertThat(acme.getResponse().getHeaders().containsKey("X-Cache")).isFalse();
+  }
+
+  @Test
+  void headAndOptionsDoNotInvalidate() {
+    get("acme", "/api/products", null);
+
+    run(request("acme", MockServerHttpRequest.method(HttpMethod.HEAD, "/api/products"), PRODUCTS));
+    run(request("acme", MockServerHttpRequest.method(HttpMethod.OPTIONS, "/api/products"), PRODUCTS));
+
+    MockServerWebExchange read = get("acme", "/api/products", null);
+    assertThat(body(read)).isEqualTo("products-1");
+    assertThat(read.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+  }
+
+  @Test
+  void writeThroughAnotherRouteOfTheSameServiceInvalidates() {
+    get("acme", "/api/products", null);
+
+    // discovery-locator route, named after the upper-case Eureka id
+    run(request("acme", MockServerHttpRequest.method(HttpMethod.POST, "/product-service/products"),
+        "lb://PRODUCT-SERVICE"));
+
+    assertThat(body(get("acme", "/api/products", null))).isEqualTo("products-3");
+  }
+
+  @Test
+  void acceptEncodingIsPartOfTheKey() {
+    MockServerWebExchange gzip = get("acme", "/api/products", "gzip, deflate");
+    MockServerWebExchange identity = get("acme", "/api/products", null);
+    MockServerWebExchange gzipAgain = get("acme", "/api/products", "GZIP,deflate");
+
+    assertThat(body(gzip)).isEqualTo("products-1");
+    assertThat(body(identity)).isEqualTo("products-2");
+    assertThat(body(gzipAgain)).isEqualTo("products-1");
+    assertThat(downstreamCalls).hasValue(2);
+  }
+
+  private MockServerWebExchange get(String tenant, String path, String acceptEncoding) {
+    MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+    if (acceptEncoding != null) {
+      request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return run(request(tenant, request, PRODUCTS));
+  }
+
+  private static MockServerWebExchange request(String tenant, MockServerHttpRequest.BaseBuilder<?> request,
+      String routeUri) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(request);
+    Jwt jwt = Jwt.withTokenValue("token")
+        .header("alg", "RS256")
+        .claim("iss", "http://keycloak/realms/" + tenant)
+        .claim("realm_access", Map.of("roles", List.of("user")))
+        .build();
+    exchange.getAttributes().put(JwtAuthFilter.JWT_ATTRIBUTE, jwt);
+    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+        Route.async().id("products").uri(routeUri).predicate(e -> true).build());
+    return exchange;
+  }
+
+  private MockServerWebExchange run(MockServerWebExchange exchange) {
+    filter.filter(exchange, downstream()).block();
+    return exchange;
+  }
+
+  /** Stub product-service: every call answers with a new version of the body. */
+  private GatewayFilterChain downstream() {
+    return exchange -> {
+      String body = "products-" + downstreamCalls.incrementAndGet();
+      ServerHttpResponse response = exchange.getResponse();
+      response.setStatusCode(HttpStatus.OK);
+      response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+      return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    };
+  }
+
+  private static String body(MockServerWebExchange exchange) {
+    return exchange.getResponse().getBodyAsString().block();
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.gateway.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Caching and revocation bookkeeping of {@link ValidatedJwtCache}.
+ */
+class ValidatedJwtCacheTest {
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+  private final JwtCacheProperties properties = new JwtCacheProperties();
+  private final ValidatedJwtCache cache = new ValidatedJwtCache(properties, new SimpleMeterRegistry(), clock);
+
+  @Test
+  void servesTokenUntilExpiryMinusSkew() {
+    String key = cache.keyOf("token");
+    cache.store(key, jwt(Duration.ofMinutes(5)), 1_000);
+
+    assertThat(cache.lookup(key)).isNotNull();
+    clock.advance(Duration.ofMinutes(5).minus(properties.getClockSkew()));
+    assertThat(cache.lookup(key)).isNull();
+  }
+
+  @Test
+  void revokedTokenIsRejectedUntilItWouldHaveExpired() {
+    String key = cache.keyOf("token");
+    cache.store(key, jwt(Duration.ofMinutes(5)), 1_000);
+
+    cache.revoke("token");
+
+    assertThat(cache.lookup(key)).isNull();
+    assertThat(cache.isRevoked(key)).isTrue();
+    clock.advance(Duration.ofMinutes(5).plusSeconds(59));
+    assertThat(cache.isRevoked(key)).isTrue();
+    clock.advance(Duration.ofSeconds(2));
+    assertThat(cache.isRevoked(key)).isFalse();
+    assertThat(cache.revokedCount()).isZero();
+  }
+
+  @Test
+  void lapsedRevocationsArePrunedOnRevoke() {
+    for (int i = 0; i < 100; i++) {
+      cache.revoke("old-" + i);
+    }
+    clock.advance(properties.getRevocationRetention().plusSeconds(1));
+
+    cache.revoke("new");
+
+    assertThat(cache.revokedCount()).isEqualTo(1);
+    assertThat(cache.isRevoked(cache.keyOf("new"))).isTrue();
+  }
+
+  @Test
+  void revocationsAreCappedDroppingTheOneClosestToLapsing() {
+    properties.setMaxRevocations(3);
+    for (int i = 0; i < 3; i++) {
+      cache.revoke("token-" + i);
+      clock.advance(Duration.ofMinutes(1));
+    }
+
+    cache.revoke("token-3");
+
+    assertThat(cache.revokedCount()).isEqualTo(3);
+    assertThat(cache.isRevoked(cache.keyOf("token-0"))).isFalse();
+    assertThat(cache.isRevoked(cache.keyOf("token-1"))).isTrue();
+    assertThat(cache.isRevoked(cache.keyOf("token-3"))).isTrue();
+  }
+
+  @Test
+  void revokingTheSameTokenTwiceKeepsOneEntry() {
+    properties.setMaxRevocations(1);
+
+    cache.revoke("token");
+    cache.revoke("token");
+
+    assertThat(cache.revokedCount()).isEqualTo(1);
+    assertThat(cache.isRevoked(cache.keyOf("token"))).isTrue();
+  }
+
+  private Jwt jwt(Duration lifetime) {
+    Instant now = clock.instant();
+    return Jwt.withTokenValue("token")
+        .header("alg", "RS256")
+        .subject("alice")
+        .issuedAt(now)
+        .expiresAt(now.plus(lifetime))
+        .build();
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private volatile Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,318 @@
+package com.example.gateway.lb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.gateway.filter.JwtAuthFilter;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.LinkedMultiValueMap;
+
+/**
+ * Instance selection of {@link LatencyAwareLoadBalancer} over a stub registry:
+ * P2C under simulated load against a round-robin baseline, tenant distribution
+ * and stats bookkeeping.  Stats run on a virtual clock, so the simulation is
+ * independent of how fast the test runs.
+ */
+class LatencyAwareLoadBalancerTest {
+
+  private static final String SERVICE = "product-service";
+  /** Requests an instance serves concurrently; more wait in its queue. */
+  private static final int WORKERS = 4;
+
+  private final LoadBalancerProperties properties = new LoadBalancerProperties();
+  private long nowNanos;
+  private final InstanceStats stats = new InstanceStats(properties, () -> nowNanos);
+
+  LatencyAwareLoadBalancerTest() {
+    properties.setSlowStart(Duration.ZERO);
+    properties.getAffinity().setServices(List.of(SERVICE));
+  }
+
+  @Test
+  void affinityIsOffByDefault() {
+    assertThat(new LoadBalancerProperties().getAffinity().getServices()).isEmpty();
+  }
+
+  @Test
+  void tenantStaysOnItsShard() {
+    LatencyAwareLoadBalancer balancer = balancer(SERVICE, shardedInstances("a", "b", "c"));
+
+    Set<String> shards = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      shards.add(shardOf(choose(balancer, "acme")));
+    }
+
+    assertThat(shards).hasSize(1);
+  }
+
+  @Test
+  void tenantsAreSpreadEvenlyOverShards() {
+    LatencyAwareLoadBalancer balancer = balancer(SERVICE, shardedInstances("a", "b", "c"));
+
+    Map<String, Integer> tenantsPerShard = new HashMap<>();
+    for (int t = 0; t < 3000; t++) {
+      tenantsPerShard.merge(shardOf(choose(balancer, "tenant-" + t)), 1, Integer::sum);
+    }
+
+    assertThat(tenantsPerShard).containsOnlyKeys("a", "b", "c");
+    assertThat(tenantsPerShard.values()).allSatisfy(count -> assertThat(count).isBetween(800, 1200));
+  }
+
+  @Test
+  void addingShardOnlyMovesTenantsToTheNewShard() {
+    LatencyAwareLoadBalancer before = balancer(SERVICE, shardedInstances("a", "b", "c"));
+    LatencyAwareLoadBalancer after = balancer(SERVICE, shardedInstances("a", "b", "c", "d"));
+
+    int moved = 0;
+    for (int t = 0; t < 2000; t++) {
+      String tenant = "tenant-" + t;
+      String was = shardOf(choose(before, tenant));
+      String is = shardOf(choose(after, tenant));
+      if (!was.equals(is)) {
+        assertThat(is).isEqualTo("d");
+        moved++;
+      }
+    }
+
+    // about a quarter of the tenants, and only those
+    assertThat(moved).isBetween(300, 700);
+  }
+
+  @Test
+  void overloadedShardSpillsOverToTheNextOne() {
+    List<ServiceInstance> instances = shardedInstances("a", "b", "c");
+    LatencyAwareLoadBalancer balancer = balancer(SERVICE, instances);
+    String home = shardOf(choose(balancer, "acme"));
+
+    for (ServiceInstance instance : instances) {
+      if (home.equals(shardOf(instance))) {
+        for (int i = 0; i < 10; i++) {
+          stats.started(instance);
+        }
+      }
+    }
+
+    assertThat(shardOf(choose(balancer, "acme"))).isNotEqualTo(home);
+  }
+
+  @Test
+  void instancesWithoutShardMetadataKeepPlainP2c() {
+    LatencyAwareLoadBalancer balancer = balancer(SERVICE, plainInstances(6));
+
+    assertThat(hostsChosenFor(balancer, "acme")).hasSize(6);
+  }
+
+  @Test
+  void servicesWithoutAffinityIgnoreTheTenant() {
+    LatencyAwareLoadBalancer balancer = balancer("order-service", shardedInstances("a", "b", "c"));
+
+    assertThat(hostsChosenFor(balancer, "acme")).hasSize(6);
+  }
+
+  @Test
+  void p2cSpreadsLoadOverEqualInstances() {
+    List<ServiceInstance> instances = plainInstances(4);
+    Simulation p2c = simulate(instances, Map.of(), p2c(instances));
+    Simulation roundRobin = simulate(instances, Map.of(), roundRobin(instances));
+
+    assertThat(p2c.served().values()).allSatisfy(count -> assertThat(count).isBetween(1000, 1500));
+    assertThat(p2c.p99()).isLessThanOrEqualTo(roundRobin.p99());
+  }
+
+  @Test
+  void p2cAvoidsSlowInstance() {
+    List<ServiceInstance> instances = plainInstances(5);
+    Map<String, Long> slow = Map.of("10.0.0.0", 200L);
+    Simulation p2c = simulate(instances, slow, p2c(instances));
+    Simulation roundRobin = simulate(instances, slow, roundRobin(instances));
+
+    // fair share would be 1000 of 5000
+    assertThat(p2c.served().getOrDefault("10.0.0.0", 0)).isLessThan(250);
+    assertThat(p2c.served()).hasSize(5);
+    // round robin keeps feeding the slow instance a fifth of the traffic, more than it can serve
+    assertThat(roundRobin.served().get("10.0.0.0")).isEqualTo(1000);
+    assertThat(p2c.p99() * 5).isLessThan(roundRobin.p99());
+  }
+
+  @Test
+  void statsOfRemovedInstancesAreDropped() {
+    List<ServiceInstance> instances = plainInstances(3);
+    ServiceInstance removed = instances.get(2);
+    LatencyAwareLoadBalancer balancer = balancer(SERVICE, instances);
+    balancer.choose(instances, null);
+    stats.started(removed);
+    stats.started(removed);
+
+    balancer.choose(instances.subList(0, 2), null);
+    // a call that was in flight when the instance left
+    stats.finished(removed, 1_000_000, true);
+
+    assertThat(stats.of(removed, stats.now()).outstanding()).isZero();
+  }
+
+  @Test
+  void ejectionLimitCountsLiveInstancesOnly() {
+    List<ServiceInstance> instances = plainInstances(10);
+    LatencyAwareLoadBalancer balancer = balancer(SERVICE, instances);
+    balancer.choose(instances, null);
+    // scaled down to two; with max-percent 50 only one of them may be ejected
+    List<ServiceInstance> remaining = instances.subList(0, 2);
+    balancer.choose(remaining, null);
+
+    for (ServiceInstance instance : remaining) {
+      for (int i = 0; i < properties.getEjection().getConsecutiveFailures(); i++) {
+        stats.started(instance);
+        stats.finished(instance, 1_000_000, true);
+      }
+    }
+
+    long now = stats.now();
+    assertThat(remaining).filteredOn(instance -> stats.of(instance, now).isEjected(now)).hasSize(1);
+  }
+
+  /**
+   * Queueing simulation on the virtual clock: a request arrives every 5ms and
+   * is served by the chosen instance in 20ms unless overridden, by one of its
+   * {@link #WORKERS} or after waiting for one.  The balancer sees the in-flight
+   * counts and latencies, queueing included, of a steadily loaded service.
+   *
+   * @return requests served per host and the latency of every request
+   */
+  private Simulation simulate(List<ServiceInstance> instances, Map<String, Long> serviceMillis,
+                              Function<List<ServiceInstance>, ServiceInstance> chooser) {
+    record InFlight(long doneAt, ServiceInstance instance, long latency) {
+    }
+    PriorityQueue<InFlight> inFlight = new PriorityQueue<>(Comparator.comparingLong(InFlight::doneAt));
+    Map<String, PriorityQueue<Long>> workersFreeAt = new HashMap<>();
+    Map<String, Integer> served = new HashMap<>();
+    List<Long> latencies = new ArrayList<>();
+    for (long now = 0; now < 5000 * 5; now += 5) {
+      while (!inFlight.isEmpty() && inFlight.peek().doneAt() <= now) {
+        InFlight done = inFlight.poll();
+        nowNanos = Duration.ofMillis(done.doneAt()).toNanos();
+        stats.finished(done.instance(), Duration.ofMillis(done.latency()).toNanos(), false);
+      }
+      nowNanos = Duration.ofMillis(now).toNanos();
+      ServiceInstance chosen = chooser.apply(instances);
+      stats.started(chosen);
+      PriorityQueue<Long> workers = workersFreeAt.computeIfAbsent(chosen.getHost(), host -> {
+        PriorityQueue<Long> free = new PriorityQueue<>();
+        for (int i = 0; i < WORKERS; i++) {
+          free.add(0L);
+        }
+        return free;
+      });
+      long doneAt = Math.max(now, workers.poll()) + serviceMillis.getOrDefault(chosen.getHost(), 20L);
+      workers.add(doneAt);
+      inFlight.add(new InFlight(doneAt, chosen, doneAt - now));
+      latencies.add(doneAt - now);
+      served.merge(chosen.getHost(), 1, Integer::sum);
+    }
+    return new Simulation(served, latencies);
+  }
+
+  private record Simulation(Map<String, Integer> served, List<Long> latencies) {
+
+    long p99() {
+      List<Long> sorted = latencies.stream().sorted().toList();
+      return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+  }
+
+  private Function<List<ServiceInstance>, ServiceInstance> p2c(List<ServiceInstance> instances) {
+    LatencyAwareLoadBalancer balancer = balancer(SERVICE, instances);
+    return candidates -> balancer.choose(candidates, null).getServer();
+  }
+
+  /** Spring Cloud's default balancer, as the baseline. */
+  private static Function<List<ServiceInstance>, ServiceInstance> roundRobin(List<ServiceInstance> instances) {
+    RoundRobinLoadBalancer balancer = new RoundRobinLoadBalancer(registry(SERVICE, instances), SERVICE);
+    return candidates -> balancer.choose(new DefaultRequest<>()).block().getServer();
+  }
+
+  private Set<String> hostsChosenFor(LatencyAwareLoadBalancer balancer, String tenant) {
+    Set<String> hosts = new HashSet<>();
+    for (int i = 0; i < 600; i++) {
+      hosts.add(choose(balancer, tenant).getServer().getHost());
+    }
+    return hosts;
+  }
+
+  private LatencyAwareLoadBalancer balancer(String serviceId, List<ServiceInstance> instances) {
+    return new LatencyAwareLoadBalancer(serviceId, registry(serviceId, instances), stats, properties);
+  }
+
+  private static ObjectProvider<ServiceInstanceListSupplier> registry(String serviceId,
+                                                                      List<ServiceInstance> instances) {
+    ServiceInstanceListSupplier registry =
+        ServiceInstanceListSuppliers.from(serviceId, instances.toArray(ServiceInstance[]::new));
+    StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("registry", registry));
+    return beans.getBeanProvider(ServiceInstanceListSupplier.class);
+  }
+
+  private static Response<ServiceInstance> choose(LatencyAwareLoadBalancer balancer, String tenant) {
+    Jwt jwt = Jwt.withTokenValue("token")
+        .header("alg", "RS256")
+        .claim("iss", "http://keycloak/realms/" + tenant)
+        .build();
+    Map<String, Object> attributes = Map.of(JwtAuthFilter.JWT_ATTRIBUTE, jwt);
+    RequestData data = new RequestData(HttpMethod.GET, URI.create("http://" + SERVICE + "/products"),
+        new HttpHeaders(), new LinkedMultiValueMap<>(), attributes);
+    return balancer.choose(new DefaultRequest<>(new RequestDataContext(data))).block();
+  }
+
+  private static List<ServiceInstance> plainInstances(int count) {
+    List<ServiceInstance> instances = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      instances.add(instance("10.0.0." + i, null));
+    }
+    return instances;
+  }
+
+  private static List<ServiceInstance> shardedInstances(String... shards) {
+    List<ServiceInstance> instances = new ArrayList<>();
+    int host = 0;
+    for (String shard : shards) {
+      instances.add(instance("10.0.0." + host++, shard));
+      instances.add(instance("10.0.0." + host++, shard));
+    }
+    return instances;
+  }
+
+  private static ServiceInstance instance(String host, String shard) {
+    Map<String, String> metadata = shard == null ? Map.of() : Map.of("shard", shard);
+    return new DefaultServiceInstance(host + ":8081", SERVICE, host, 8081, false, metadata);
+  }
+
+  private static String shardOf(Response<ServiceInstance> response) {
+    return shardOf(response.getServer());
+  }
+
+  private static String shardOf(ServiceInstance instance) {
+    return instance.getMetadata().get("shard");
+  }
+}
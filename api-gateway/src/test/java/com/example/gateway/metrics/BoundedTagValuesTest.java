@@ -0,0 +1,88 @@
+package com.example.gateway.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Admission and eviction of {@link BoundedTagValues}.
+ */
+class BoundedTagValuesTest {
+
+  private static final Duration IDLE = Duration.ofHours(1);
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+  private final List<String> evicted = new ArrayList<>();
+  private final BoundedTagValues values = new BoundedTagValues(2, List.of("pinned"), IDLE, clock, evicted::add);
+
+  @Test
+  void valuesBeyondTheLimitAreOther() {
+    assertThat(values.of("a")).isEqualTo("a");
+    assertThat(values.of("b")).isEqualTo("b");
+    assertThat(values.of("c")).isEqualTo(BoundedTagValues.OTHER);
+    assertThat(values.of("pinned")).isEqualTo("pinned");
+    assertThat(values.of(null)).isEqualTo(BoundedTagValues.OTHER);
+  }
+
+  @Test
+  void idleValuesMakeRoomForNewOnes() {
+    values.of("old-1");
+    values.of("old-2");
+    clock.advance(IDLE.dividedBy(2));
+    values.of("old-2");
+    clock.advance(IDLE.dividedBy(2));
+
+    // old-1 was replaced by a new instance; old-2 is still in use
+    assertThat(values.of("new")).isEqualTo("new");
+    assertThat(evicted).containsExactly("old-1");
+    assertThat(values.of("old-2")).isEqualTo("old-2");
+    assertThat(values.of("old-1")).isEqualTo(BoundedTagValues.OTHER);
+  }
+
+  @Test
+  void activeValuesAreNeverEvicted() {
+    for (int i = 0; i < 10; i++) {
+      values.of("a");
+      values.of("b");
+      assertThat(values.of("c-" + i)).isEqualTo(BoundedTagValues.OTHER);
+      clock.advance(IDLE.dividedBy(4));
+    }
+
+    assertThat(evicted).isEmpty();
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private volatile Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    synchronized void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
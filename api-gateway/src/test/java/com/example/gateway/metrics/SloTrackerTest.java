@@ -0,0 +1,111 @@
+package com.example.gateway.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sliding-window counts of {@link SloTracker}.
+ */
+class SloTrackerTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+  private final GatewayMetricsProperties.Slo slo = new GatewayMetricsProperties.Slo();
+
+  @Test
+  void ranksTenantsByBurnRate() {
+    SloTracker tracker = new SloTracker(slo, clock);
+    for (int i = 0; i < 100; i++) {
+      tracker.record("acme", "a", FAST, false);
+      tracker.record("globex", "b", i < 10 ? SLOW : FAST, false);
+    }
+
+    List<Map<String, Object>> tenants = tenants(tracker.report(), "PT5M");
+
+    assertThat(tenants).extracting(row -> row.get("key")).containsExactly("globex", "acme");
+    assertThat((double) tenants.get(0).get("burnRate")).isCloseTo(10.0, within(1e-6));
+    assertThat(tenants.get(0).get("slowShare")).isEqualTo(1.0);
+  }
+
+  @Test
+  void reusedBucketStartsFromZero() {
+    SloTracker tracker = new SloTracker(slo, clock);
+    tracker.record("acme", null, SLOW, true);
+
+    // the ring spans the longest window (1h); the same bucket comes round again
+    clock.advance(Duration.ofHours(1));
+    tracker.record("acme", null, FAST, false);
+
+    List<Map<String, Object>> tenants = tenants(tracker.report(), "PT1H");
+    assertThat(tenants.get(0).get("requests")).isEqualTo(1L);
+    assertThat(tenants.get(0).get("bad")).isEqualTo(0L);
+  }
+
+  @Test
+  void concurrentRecordsAcrossMinutesAreAllCounted() throws InterruptedException {
+    SloTracker tracker = new SloTracker(slo, clock);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int minute = 0; minute < 5; minute++) {
+      for (int t = 0; t < 8; t++) {
+        pool.execute(() -> {
+          for (int i = 0; i < 1000; i++) {
+            tracker.record("acme", null, FAST, false);
+          }
+        });
+      }
+      pool.execute(() -> clock.advance(Duration.ofMinutes(1)));
+    }
+    pool.shutdown();
+    assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(tenants(tracker.report(), "PT1H").get(0).get("requests")).isEqualTo(40_000L);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> tenants(Map<String, Object> report, String window) {
+    Map<String, Object> windows = (Map<String, Object>) report.get("windows");
+    return (List<Map<String, Object>>) ((Map<String, Object>) windows.get(window)).get("tenants");
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private volatile Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    synchronized void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.example.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRateLimitStoreTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final long INTERVAL = SECOND / 10;
+
+  /** 10 rps: one token every 100ms, 3 back-to-back. */
+  private final RateLimitProperties.Limit limit = new RateLimitProperties.Limit(10, 3);
+  private final AtomicLong clock = new AtomicLong(42 * SECOND);
+  private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(clock::get);
+  private ExecutorService executor;
+
+  @AfterEach
+  void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void admitsBurstThenReportsWaitForNextToken() {
+    assertThat(store.tryAcquire("acme", limit)).isZero();
+    assertThat(store.tryAcquire("acme", limit)).isZero();
+    assertThat(store.tryAcquire("acme", limit)).isZero();
+
+    assertThat(store.tryAcquire("acme", limit)).isEqualTo(INTERVAL);
+  }
+
+  @Test
+  void rejectedRequestsDoNotConsumeTokens() {
+    drain("acme");
+
+    assertThat(store.tryAcquire("acme", limit)).isEqualTo(INTERVAL);
+    assertThat(store.tryAcquire("acme", limit)).isEqualTo(INTERVAL);
+
+    clock.addAndGet(INTERVAL);
+    assertThat(store.tryAcquire("acme", limit)).isZero();
+  }
+
+  @Test
+  void refillsAtTheSustainedRate() {
+    drain("acme");
+
+    clock.addAndGet(INTERVAL / 2);
+    assertThat(store.tryAcquire("acme", limit)).isEqualTo(INTERVAL / 2);
+
+    clock.addAndGet(INTERVAL / 2);
+    assertThat(store.tryAcquire("acme", limit)).isZero();
+    assertThat(store.tryAcquire("acme", limit)).isEqualTo(INTERVAL);
+  }
+
+  @Test
+  void idleBucketRefillsToBurstButNotBeyond() {
+    drain("acme");
+
+    clock.addAndGet(60 * SECOND);
+
+    assertThat(admitted("acme", 10)).isEqualTo(3);
+  }
+
+  @Test
+  void keysHaveIndependentBuckets() {
+    drain("acme");
+
+    assertThat(store.tryAcquire("globex", limit)).isZero();
+    assertThat(store.tryAcquire("acme", limit)).isPositive();
+  }
+
+  @Test
+  void supportsRatesBelowOnePerSecond() {
+    RateLimitProperties.Limit slow = new RateLimitProperties.Limit(0.5, 1);
+
+    assertThat(store.tryAcquire("acme", slow)).isZero();
+    assertThat(store.tryAcquire("acme", slow)).isEqualTo(2 * SECOND);
+
+    clock.addAndGet(2 * SECOND);
+    assertThat(store.tryAcquire("acme", slow)).isZero();
+  }
+
+  @Test
+  void concurrentCallersNeverExceedTheBurst() throws Exception {
+    RateLimitProperties.Limit wide = new RateLimitProperties.Limit(1, 100);
+    executor = Executors.newFixedThreadPool(8);
+    List<Callable<Integer>> callers = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      callers.add(() -> {
+        int admitted = 0;
+        for (int n = 0; n < 500; n++) {
+          if (store.tryAcquire("acme", wide) == 0) {
+            admitted++;
+          }
+        }
+        return admitted;
+      });
+    }
+
+    int total = 0;
+    for (Future<Integer> result : executor.invokeAll(callers)) {
+      total += result.get();
+    }
+
+    // the clock stands still, so exactly the burst gets through
+    assertThat(total).isEqualTo(100);
+  }
+
+  private void drain(String key) {
+    assertThat(admitted(key, 3)).isEqualTo(3);
+  }
+
+  private int admitted(String key, int attempts) {
+    int admitted = 0;
+    for (int i = 0; i < attempts; i++) {
+      if (store.tryAcquire(key, limit) == 0) {
+        admitted++;
+      }
+    }
+    return admitted;
+  }
+}
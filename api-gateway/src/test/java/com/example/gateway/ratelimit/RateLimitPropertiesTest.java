@@ -0,0 +1,55 @@
+package com.example.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class RateLimitPropertiesTest {
+
+  private static ValidatorFactory factory;
+  private static Validator validator;
+
+  @BeforeAll
+  static void createValidator() {
+    factory = Validation.buildDefaultValidatorFactory();
+    validator = factory.getValidator();
+  }
+
+  @AfterAll
+  static void closeValidator() {
+    factory.close();
+  }
+
+  @Test
+  void defaultsAreValid() {
+    assertThat(validator.validate(new RateLimitProperties())).isEmpty();
+  }
+
+  @Test
+  void rejectsZeroRate() {
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.getDefaultLimit().setRequestsPerSecond(0);
+
+    assertThat(validator.validate(properties))
+        .extracting(violation -> violation.getPropertyPath().toString())
+        .containsExactly("defaultLimit.requestsPerSecond");
+  }
+
+  @Test
+  void rejectsInvalidAnonymousAndTenantLimits() {
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.getAnonymousLimit().setBurst(0);
+    properties.getTenants().put("acme", new RateLimitProperties.Limit(-1, 10));
+
+    assertThat(validator.validate(properties))
+        .extracting(ConstraintViolation::getMessageTemplate)
+        .containsExactlyInAnyOrder("{jakarta.validation.constraints.Min.message}",
+            "{jakarta.validation.constraints.Positive.message}");
+  }
+}
@@ -28,6 +28,10 @@ export interface PageResponse<T> {
   totalPages: number;
   size: number;
   number: number;
+  hasNext?: boolean;
+  // Set when the backend estimated the total and stopped at its cap ("10,000+")
+  totalCapped?: boolean;
+  countMode?: 'EXACT' | 'ESTIMATE' | 'NONE';
 }
 
 // API base URL
@@ -79,6 +83,47 @@ const fetchApi = async <T>(
   }
 };
 
+// Home page data in one gateway call; failed optional parts are listed in `errors`
+export interface HomeAggregate {
+  products?: PageResponse<Product>;
+  categories?: string[];
+  errors?: Record<string, string>;
+}
+
+export const bffApi = {
+  getHome: async (filters: ProductFilter = {}): Promise<HomeAggregate> => {
+    const queryParams = new URLSearchParams();
+    if (filters.q) queryParams.append('q', filters.q);
+    if (filters.category) queryParams.append('category', filters.category);
+    if (filters.page !== undefined) queryParams.append('page', filters.page.toString());
+    if (filters.size) queryParams.append('size', filters.size.toString());
+    if (filters.sort) queryParams.append('sort', filters.sort);
+    return fetchApi<HomeAggregate>(`${API_URL}/api/bff/home?${queryParams.toString()}`);
+  },
+};
+
+// White-label branding; public and cacheable, so no token or tenant query parameter.
+// The alias redirects to an immutable content-hashed URL the browser keeps.
+export interface Branding {
+  identifier: string;
+  name: string;
+  primaryColor?: string;
+  logoUrl?: string;
+}
+
+export const brandingApi = {
+  getBranding: async (tenant: string): Promise<Branding | null> => {
+    const response = await fetch(`${API_URL}/api/branding/${encodeURIComponent(tenant)}`);
+    if (response.status === 404) {
+      return null;
+    }
+    if (!response.ok) {
+      throw new Error(`API error: ${response.status} ${response.statusText}`);
+    }
+    return await response.json();
+  },
+};
+
 // Product API functions
 export const productApi = {
   // Get paginated products with filtering
@@ -103,6 +148,11 @@ export const productApi = {
     return fetchApi<Product>(`${API_URL}/api/products/${id}`);
   },
   
+  // Get several products in one call, in the requested order
+  getProductsByIds: async (ids: number[]): Promise<{ products: Product[]; missing: number[] }> => {
+    return fetchApi(`${API_URL}/api/products?ids=${ids.join(',')}`);
+  },
+  
   // Create a new product
   createProduct: async (product: Omit<Product, 'id' | 'createdAt'>): Promise<Product> => {
     return fetchApi<Product>(`${API_URL}/api/products`, {
@@ -1,43 +1,80 @@
 
 package com.example.productservice.config;
 
+import com.example.identity.SignedIdentity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    /** Trust the gateway's signed identity header instead of re-verifying the JWT. */
+    @Value("${security.identity.enabled:false}")
+    private boolean identityEnabled;
+
+    @Value("${security.identity.secret:}")
+    private String identitySecret;
+
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        // Extract roles from the "realm_access.roles" claim
-        grantedAuthoritiesConverter.setAuthoritiesClaimName("realm_access.roles");
-        // Add the "ROLE_" prefix to each role
-        grantedAuthoritiesConverter.setAuthorityPrefix("ROLE_");
-
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+        // Keycloak nests realm roles as {"realm_access": {"roles": [...]}}; add the "ROLE_" prefix
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwt -> {
+            Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+            if (realmAccess == null || !(realmAccess.get("roles") instanceof Collection<?> roles)) {
+                return List.of();
+            }
+            return roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+        });
 
         return jwtAuthenticationConverter;
     }
 
+    /**
+     * Skip bearer-token validation for requests already authenticated by {@link SignedIdentityFilter}.
+     */
+    @Bean
+    public BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver delegate = new DefaultBearerTokenResolver();
+        return request -> request.getAttribute(SignedIdentityFilter.VERIFIED_ATTRIBUTE) != null
+            ? null
+            : delegate.resolve(request);
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        if (identityEnabled) {
+            http.addFilterBefore(new SignedIdentityFilter(new SignedIdentity(identitySecret), jwtAuthenticationConverter()),
+                BearerTokenAuthenticationFilter.class);
+        }
         http.csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(reg -> reg
                 .requestMatchers("/v3/api-docs/**","/swagger-ui/**","/swagger-ui.html").permitAll()
                 .anyRequest().authenticated())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-            .oauth2ResourceServer(o -> o.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
+            .oauth2ResourceServer(o -> o
+                .bearerTokenResolver(bearerTokenResolver())
+                .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
         return http.build();
     }
 }
@@ -0,0 +1,59 @@
+package com.example.productservice.config;
+
+import com.example.identity.SignedIdentity;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Authenticates requests from the api-gateway by its HMAC-signed identity header.
+ * <p>
+ * The claims are turned into a {@link Jwt} and run through the same {@link JwtAuthenticationConverter}
+ * as real tokens, so authorities are identical. Requests without a valid header (e.g. direct calls
+ * that bypass the gateway) are left to the regular bearer-token JWT validation.
+ */
+public class SignedIdentityFilter extends OncePerRequestFilter {
+
+    /** Request attribute set once the identity header was accepted. */
+    public static final String VERIFIED_ATTRIBUTE = SignedIdentityFilter.class.getName() + ".verified";
+
+    private final SignedIdentity identity;
+    private final JwtAuthenticationConverter converter;
+
+    public SignedIdentityFilter(SignedIdentity identity, JwtAuthenticationConverter converter) {
+        this.identity = identity;
+        this.converter = converter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String value = request.getHeader(SignedIdentity.HEADER);
+        if (value != null) {
+            identity.verify(value, Instant.now()).ifPresent(claims -> {
+                Jwt jwt = Jwt.withTokenValue(value)
+                    .header("alg", "HS256")
+                    .subject(claims.subject())
+                    .claim("iss", claims.issuer())
+                    .claim("realm_access", Map.of("roles", claims.roles()))
+                    .expiresAt(Instant.ofEpochSecond(claims.expiresAt()))
+                    .build();
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(converter.convert(jwt));
+                SecurityContextHolder.setContext(context);
+                request.setAttribute(VERIFIED_ATTRIBUTE, Boolean.TRUE);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+}
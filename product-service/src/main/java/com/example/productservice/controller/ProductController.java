@@ -1,7 +1,10 @@
 package com.example.productservice.controller;
 
 import com.example.productservice.service.ProductService;
+import com.example.productservice.dto.CountMode;
 import com.example.productservice.dto.ProductDTO;
+import com.example.productservice.dto.ProductLookup;
+import com.example.productservice.dto.ProductPage;
 import com.example.productservice.dto.ProductCreateRequest;
 import com.example.productservice.dto.ProductUpdateRequest;
 import jakarta.validation.Valid;
@@ -10,8 +13,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.data.domain.*;
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.springframework.data.jpa.domain.AbstractPersistable_.id;
 
@@ -25,16 +30,47 @@ public record ProductController(ProductService svc) {
 
     /**
      * List products with optional filtering and pagination.
+     * The {@code count} parameter selects how the total is computed: exact, estimate or none;
+     * any other value is rejected with a 400 problem detail naming it.
      */
     @PreAuthorize("hasRole('PRODUCT_ADMIN')")
     @GetMapping
-    public Page<ProductDTO> list(
+    public ResponseEntity<ProductPage> list(
             @RequestParam(required=false) String q,
             @RequestParam(required=false) String category,
             @RequestParam(required=false) BigDecimal minPrice,
             @RequestParam(required=false) BigDecimal maxPrice,
+            @RequestParam(defaultValue="exact") String count,
             @PageableDefault(size=10, sort="createdAt", direction = Sort.Direction.DESC) Pageable pg) {
-        return svc.search(q, category, minPrice, maxPrice, pg);
+        CountMode mode;
+        try {
+            mode = CountMode.from(count);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return ResponseEntity.ok(svc.search(q, category, minPrice, maxPrice, pg, mode));
+    }
+    
+    /**
+     * Get several products by ID in one call, e.g. {@code GET /products?ids=3,1,7}.
+     * Replaces one {@code GET /products/{id}} per cart or order line.
+     * More ids than {@code products.lookup.max-ids} are rejected with a 400 problem detail.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductLookup> getByIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(svc.findAllByIds(ids));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * List the product categories in use, for filter drop-downs and the BFF home aggregate.
+     */
+    @GetMapping("/categories")
+    public List<String> categories() {
+        return svc.categories();
     }
     
     /**
@@ -0,0 +1,29 @@
+package com.example.productservice.dto;
+
+/**
+ * How the total element count of a product search page is computed.
+ * <ul>
+ *   <li>{@code EXACT} - full {@code count(*)} over the predicate, run concurrently with the page query</li>
+ *   <li>{@code ESTIMATE} - planner statistics, or a count capped at a configured limit (e.g. "10,000+")</li>
+ *   <li>{@code NONE} - no count at all; only {@code hasNext} is reported</li>
+ * </ul>
+ */
+public enum CountMode {
+    EXACT,
+    ESTIMATE,
+    NONE;
+
+    /**
+     * Parse a request parameter value, ignoring case.
+     *
+     * @throws IllegalArgumentException if the value names no mode
+     */
+    public static CountMode from(String value) {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown count mode: " + value);
+    }
+}
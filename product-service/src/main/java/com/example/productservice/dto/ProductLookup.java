@@ -0,0 +1,14 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get by id list.
+ * <p>
+ * {@code products} follows the order of the requested ids (duplicates collapsed);
+ * ids with no matching product are listed in {@code missing}.
+ */
+public record ProductLookup(
+    List<ProductDTO> products,
+    List<Long> missing
+) {}
@@ -0,0 +1,21 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+/**
+ * One page of a product search.
+ * <p>
+ * Field names follow Spring's {@code Page} JSON so existing clients keep working.
+ * {@code totalElements} and {@code totalPages} are {@code null} when the count was skipped,
+ * and {@code totalCapped} marks an estimate that hit the cap (render as "10,000+").
+ */
+public record ProductPage(
+    List<ProductDTO> content,
+    int number,
+    int size,
+    Long totalElements,
+    Integer totalPages,
+    boolean hasNext,
+    boolean totalCapped,
+    CountMode countMode
+) {}
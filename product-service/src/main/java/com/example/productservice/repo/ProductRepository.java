@@ -6,4 +6,11 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import com.querydsl.core.types.Predicate;
 
-public interface ProductRepository extends JpaRepository<Product, Long>, QuerydslPredicateExecutor<Product> {}
+import java.util.List;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, QuerydslPredicateExecutor<Product>, ProductRepositoryCustom {
+
+    /** Distinct non-null categories, alphabetically, for filter drop-downs. */
+    @Query("select distinct p.category from Product p where p.category is not null order by p.category")
+    List<String> findDistinctCategories();
+}
@@ -0,0 +1,42 @@
+package com.example.productservice.repo;
+
+import com.example.productservice.domain.Product;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Query fragments that Spring Data's {@code QuerydslPredicateExecutor} does not offer.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Fetch the rows of one page without issuing a count query.
+     * <p>
+     * Up to {@code pageSize + 1} rows are returned so callers can tell whether a next page exists.
+     */
+    List<Product> findPageRows(Predicate predicate, Pageable pageable);
+
+    /**
+     * Count all matching rows; the database cancels the statement after {@code timeout}.
+     *
+     * @throws org.springframework.dao.QueryTimeoutException if the count takes longer
+     */
+    long countExact(Predicate predicate, Duration timeout);
+
+    /**
+     * Count matching rows, but stop scanning after {@code cap + 1} of them.
+     * <p>
+     * Runs as a single {@code count(*)} over a limited subquery, so only the number travels back.
+     */
+    long countUpTo(Predicate predicate, long cap);
+
+    /**
+     * Planner row estimate for the whole products table ({@code pg_class.reltuples}).
+     *
+     * @return the estimate, or a negative value if the table was never analyzed
+     */
+    long estimatedRowCount();
+}
@@ -0,0 +1,77 @@
+package com.example.productservice.repo;
+
+import com.example.productservice.domain.Product;
+import com.example.productservice.querydsl.QProduct;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Transactional(readOnly = true)
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Product> findPageRows(Predicate predicate, Pageable pageable) {
+        QProduct p = QProduct.product;
+        JPAQuery<Product> query = new JPAQueryFactory(em).selectFrom(p).where(predicate);
+        new Querydsl(em, new PathBuilder<>(Product.class, p.getMetadata())).applySorting(pageable.getSort(), query);
+        if (pageable.isPaged()) {
+            query.offset(pageable.getOffset()).limit(pageable.getPageSize() + 1L);
+        }
+        return query.fetch();
+    }
+
+    @Override
+    public long countExact(Predicate predicate, Duration timeout) {
+        QProduct p = QProduct.product;
+        Long count = new JPAQueryFactory(em).select(p.count()).from(p).where(predicate)
+            .setHint(TIMEOUT_HINT, timeout.toMillis())
+            .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public long countUpTo(Predicate predicate, long cap) {
+        // JPQL has no LIMIT in subqueries, so the predicate is rendered into an HQL derived table:
+        // the database stops after cap + 1 rows and returns one number instead of the ids
+        QProduct p = QProduct.product;
+        JPQLSerializer where = new JPQLSerializer(JPQLTemplates.DEFAULT, em);
+        where.handle(predicate);
+        String alias = p.getMetadata().getName();
+        String entity = em.getMetamodel().entity(Product.class).getName();
+        TypedQuery<Long> query = em.createQuery(
+            "select count(*) from (select " + alias + ".id as id from " + entity + " " + alias
+                + " where " + where + " limit " + (cap + 1) + ") capped",
+            Long.class);
+        JPAUtil.setConstants(query, where.getConstants(), Map.of());
+        return query.getSingleResult();
+    }
+
+    @Override
+    public long estimatedRowCount() {
+        Object reltuples = em.createNativeQuery(
+                "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass('products')")
+            .getResultStream()
+            .findFirst()
+            .orElse(-1L);
+        return ((Number) reltuples).longValue();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.productservice.service;
+
+import com.example.productservice.repo.ProductRepository;
+import com.querydsl.core.types.Predicate;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes total counts for product search pages.
+ * <p>
+ * Exact counts run on a small dedicated pool so they overlap with the page query; when the
+ * pool is saturated the caller runs the count itself, which degrades to the old sequential
+ * behaviour instead of queueing without bound. A count that is no longer wanted can only be
+ * dropped while it is still queued, so every exact count carries a statement timeout
+ * ({@code products.count.timeout}) that bounds the work an abandoned one can cause.
+ */
+@Slf4j
+@Component
+public class ProductCounter {
+
+    /** Result of an estimated count; {@code capped} means "at least {@code total}". */
+    public record Estimate(long total, boolean capped) {}
+
+    private final ProductRepository repo;
+    private final long estimateCap;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+
+    public ProductCounter(ProductRepository repo,
+                          @Value("${products.count.estimate-cap:10000}") long estimateCap,
+                          @Value("${products.count.threads:4}") int threads,
+                          @Value("${products.count.timeout:10s}") Duration timeout) {
+        this.repo = repo;
+        this.estimateCap = estimateCap;
+        this.timeout = timeout;
+        var seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * 4),
+            r -> {
+                Thread t = new Thread(r, "product-count-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Start an exact {@code count(*)} in the background.
+     * <p>
+     * Cancelling the returned future before a pool thread picks it up skips the query.
+     */
+    public CompletableFuture<Long> countAsync(Predicate predicate) {
+        return CompletableFuture.supplyAsync(() -> repo.countExact(predicate, timeout), executor);
+    }
+
+    /**
+     * Wait for a count started by {@link #countAsync}, rethrowing its failure unwrapped.
+     */
+    public long await(CompletableFuture<Long> count) {
+        try {
+            return count.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Estimate the number of matching rows.
+     * <p>
+     * Unfiltered searches use the planner's row estimate for the table; filtered searches
+     * (or a table that was never analyzed) count matching rows up to the configured cap.
+     *
+     * @param unfiltered whether the predicate matches every row
+     */
+    public Estimate estimate(Predicate predicate, boolean unfiltered) {
+        if (unfiltered) {
+            long reltuples = repo.estimatedRowCount();
+            if (reltuples >= 0) {
+                return new Estimate(reltuples, false);
+            }
+            log.debug("No planner statistics for products yet, falling back to capped count");
+        }
+        long counted = repo.countUpTo(predicate, estimateCap);
+        return counted > estimateCap ? new Estimate(estimateCap, true) : new Estimate(counted, false);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.ProductDTO;
+import com.example.productservice.dto.ProductPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Single-flight coalescing for identical concurrent product reads.
+ * <p>
+ * Keys are scoped by the caller's tenant (token issuer) and sorted role set, so callers
+ * only ever share results with callers that would have been allowed to see the same data.
+ */
+@Component
+public class ProductReadCoalescer {
+
+    /** Search parameters normalized so that equivalent requests produce equal keys. */
+    public record SearchKey(String q, String category, BigDecimal min, BigDecimal max,
+                            long offset, int size, String sort, CountMode mode) {
+
+        public static SearchKey of(String q, String category, BigDecimal min, BigDecimal max,
+                                   Pageable pg, CountMode mode) {
+            // name and category are matched case-insensitively, prices numerically
+            return new SearchKey(
+                q == null ? null : q.toLowerCase(Locale.ROOT),
+                category == null ? null : category.toLowerCase(Locale.ROOT),
+                min == null ? null : min.stripTrailingZeros(),
+                max == null ? null : max.stripTrailingZeros(),
+                pg.isPaged() ? pg.getOffset() : -1,
+                pg.isPaged() ? pg.getPageSize() : -1,
+                pg.getSort().toString(),
+                mode);
+        }
+    }
+
+    private record Scoped(String scope, Object key) {}
+
+    private final boolean enabled;
+    private final SingleFlight<Scoped, Optional<ProductDTO>> byId;
+    private final SingleFlight<Scoped, ProductPage> search;
+
+    public ProductReadCoalescer(MeterRegistry registry,
+                                @Value("${products.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.byId = new SingleFlight<>("findById", registry);
+        this.search = new SingleFlight<>("search", registry);
+    }
+
+    public Optional<ProductDTO> findById(Long id, Supplier<Optional<ProductDTO>> loader) {
+        return enabled ? byId.execute(new Scoped(scope(), id), loader) : loader.get();
+    }
+
+    public ProductPage search(SearchKey key, Supplier<ProductPage> loader) {
+        return enabled ? search.execute(new Scoped(scope(), key), loader) : loader.get();
+    }
+
+    private static String scope() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            return "";
+        }
+        String tenant = auth instanceof JwtAuthenticationToken jwt && jwt.getToken().getIssuer() != null
+            ? jwt.getToken().getIssuer().toString()
+            : "";
+        String roles = auth.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .sorted()
+            .collect(Collectors.joining(","));
+        return tenant + "|" + roles;
+    }
+}
@@ -2,42 +2,145 @@ package com.example.productservice.service;
 
 import com.example.productservice.repo.ProductRepository;
 import com.example.productservice.domain.Product;
+import com.example.productservice.dto.CountMode;
 import com.example.productservice.dto.ProductDTO;
+import com.example.productservice.dto.ProductLookup;
+import com.example.productservice.dto.ProductPage;
 import com.example.productservice.dto.ProductCreateRequest;
 import com.example.productservice.dto.ProductUpdateRequest;
 import com.example.productservice.filter.ProductPredicates;
 import com.example.productservice.mapper.ProductMapper;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.*;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Observed(name = "product.service")
 public class ProductService {
 
     private final ProductRepository repo;
     private final ProductMapper mapper;
+    private final ProductCounter counter;
+    private final ProductReadCoalescer coalescer;
+
+    @Value("${products.lookup.max-ids:100}")
+    private int maxLookupIds;
 
     /**
      * Search for products with optional filtering.
+     * <p>
+     * Identical concurrent searches are coalesced into one database call. Not transactional on
+     * purpose: waiting callers must not hold a connection, and every repository call below runs
+     * in its own read-only transaction.
+     */
+    public ProductPage search(String q, String category, BigDecimal min, BigDecimal max, Pageable pg, CountMode mode) {
+        var key = ProductReadCoalescer.SearchKey.of(q, category, min, max, pg, mode);
+        return coalescer.search(key, () -> doSearch(q, category, min, max, pg, mode));
+    }
+
+    /**
+     * Run a search against the database.
+     * <p>
+     * The page itself is fetched without a count query; the total is then produced according
+     * to {@code mode}. In {@link CountMode#EXACT} the count is started before the page query so
+     * the two round-trips overlap. A short page pins the total down without counting at all.
      * Using var for local variables where type is obvious from the context.
      */
-    @Transactional(readOnly = true)
-    public Page<ProductDTO> search(String q, String category, BigDecimal min, BigDecimal max, Pageable pg) {
+    private ProductPage doSearch(String q, String category, BigDecimal min, BigDecimal max, Pageable pg, CountMode mode) {
         var predicate = ProductPredicates.byFilter(q, category, min, max);
-        var products = repo.findAll(predicate, pg);
-        return products.map(mapper::toDto);
+        var exactCount = mode == CountMode.EXACT ? counter.countAsync(predicate) : null;
+
+        var rows = repo.findPageRows(predicate, pg);
+        boolean hasNext = pg.isPaged() && rows.size() > pg.getPageSize();
+        var content = (hasNext ? rows.subList(0, pg.getPageSize()) : rows).stream()
+            .map(mapper::toDto)
+            .toList();
+        long offset = pg.isPaged() ? pg.getOffset() : 0;
+
+        if (mode == CountMode.NONE) {
+            return toPage(content, pg, null, hasNext, false, mode);
+        }
+        if (!hasNext && (offset == 0 || !content.isEmpty())) {
+            if (exactCount != null) {
+                // skips the count if it has not started; a running one is bounded by its timeout
+                exactCount.cancel(false);
+            }
+            return toPage(content, pg, offset + content.size(), false, false, mode);
+        }
+        if (mode == CountMode.EXACT) {
+            return toPage(content, pg, counter.await(exactCount), hasNext, false, mode);
+        }
+
+        boolean unfiltered = q == null && category == null && min == null && max == null;
+        var estimate = counter.estimate(predicate, unfiltered);
+        // Stale statistics must not claim fewer rows than we have already seen
+        long total = Math.max(estimate.total(), offset + content.size() + (hasNext ? 1 : 0));
+        return toPage(content, pg, total, hasNext, estimate.capped(), mode);
+    }
+
+    private static ProductPage toPage(List<ProductDTO> content, Pageable pg, Long total, boolean hasNext,
+                                      boolean capped, CountMode mode) {
+        int size = pg.isPaged() ? pg.getPageSize() : content.size();
+        Integer totalPages = total == null ? null : size == 0 ? 1 : (int) ((total + size - 1) / size);
+        return new ProductPage(content, pg.isPaged() ? pg.getPageNumber() : 0, size, total, totalPages,
+            hasNext, capped, mode);
     }
     
     /**
      * Get a product by ID.
+     * Identical concurrent lookups share one query; see {@link #search} for why this is not transactional.
      */
-    @Transactional(readOnly = true)
     public Optional<ProductDTO> findById(Long id) {
-        return repo.findById(id).map(mapper::toDto);
+        return coalescer.findById(id, () -> repo.findById(id).map(mapper::toDto));
+    }
+    
+    /**
+     * List the categories in use, alphabetically.
+     */
+    @Transactional(readOnly = true)
+    public List<String> categories() {
+        return repo.findDistinctCategories();
+    }
+    
+    /**
+     * Get several products by ID with a single {@code IN} query.
+     * The result keeps the requested order and reports ids that were not found.
+     *
+     * @throws IllegalArgumentException if more distinct ids are requested than allowed
+     */
+    @Transactional(readOnly = true)
+    public ProductLookup findAllByIds(List<Long> ids) {
+        var requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxLookupIds) {
+            throw new IllegalArgumentException("At most " + maxLookupIds + " ids may be requested at once");
+        }
+        Map<Long, ProductDTO> found = repo.findAllById(requested).stream()
+            .map(mapper::toDto)
+            .collect(Collectors.toMap(ProductDTO::id, Function.identity()));
+
+        var products = new ArrayList<ProductDTO>(found.size());
+        var missing = new ArrayList<Long>();
+        for (Long id : requested) {
+            var dto = found.get(id);
+            if (dto != null) {
+                products.add(dto);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductLookup(products, missing);
     }
     
     /**
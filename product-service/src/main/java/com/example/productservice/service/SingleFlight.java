@@ -0,0 +1,70 @@
+package com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with equal keys into one execution.
+ * <p>
+ * The first caller for a key (the leader) runs the loader on its own thread; callers that
+ * arrive while it is still running (followers) wait for and share the leader's result or
+ * exception. Nothing is cached: once the leader finishes, the next call for the key runs again.
+ * <p>
+ * Meters: {@code products.coalescing.calls{op, role=leader|follower}} - the coalescing ratio
+ * is {@code follower / (leader + follower)}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(String op, MeterRegistry registry) {
+        this.leaders = registry.counter("products.coalescing.calls", "op", op, "role", "leader");
+        this.followers = registry.counter("products.coalescing.calls", "op", op, "role", "follower");
+        registry.gauge("products.coalescing.inflight", Tags.of("op", op),
+            inFlight, ConcurrentHashMap::size);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        var mine = new CompletableFuture<V>();
+        var leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            followers.increment();
+            return await(leader);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            // Surface the leader's own exception so callers see the same failure type
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
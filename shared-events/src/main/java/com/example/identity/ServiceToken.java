@@ -0,0 +1,35 @@
+package com.example.identity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Shared secret that services present on the tenant registry's {@code /internal/**} endpoints.
+ * <p>
+ * Those endpoints are called service-to-service (tenant near-caches, the api-gateway's usage
+ * reports) and are not routed by the gateway, so they carry no user JWT. Callers send the token
+ * in the {@link #HEADER} header; the registry compares it in constant time.
+ */
+public final class ServiceToken {
+
+    /** Request header carrying the service token. */
+    public static final String HEADER = "X-Service-Token";
+
+    private final byte[] token;
+
+    public ServiceToken(String token) {
+        if (token == null || token.length() < 32) {
+            throw new IllegalArgumentException("Service token must be at least 32 characters");
+        }
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check a presented header value.
+     *
+     * @return true if the value equals the token
+     */
+    public boolean matches(String value) {
+        return value != null && MessageDigest.isEqual(token, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
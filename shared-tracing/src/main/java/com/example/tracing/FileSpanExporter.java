@@ -0,0 +1,97 @@
+package com.example.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends finished spans to a file, one JSON object per line, for local analysis
+ * (e.g. {@code jq 'select(.traceId=="...")'} or loading into a notebook).
+ * <p>
+ * Fields: service, traceId, spanId, parentSpanId, name, kind, startEpochNanos,
+ * durationMicros, status and attributes.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BufferedWriter writer;
+
+    public FileSpanExporter(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open span file " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                writer.write(MAPPER.writeValueAsString(toMap(span)));
+                writer.newLine();
+            }
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private static Map<String, Object> toMap(SpanData span) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("service", span.getResource().getAttributes().asMap().entrySet().stream()
+            .filter(e -> e.getKey().getKey().equals("service.name"))
+            .map(e -> String.valueOf(e.getValue()))
+            .findFirst().orElse(null));
+        m.put("traceId", span.getTraceId());
+        m.put("spanId", span.getSpanId());
+        m.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+        m.put("name", span.getName());
+        m.put("kind", span.getKind().name());
+        m.put("startEpochNanos", span.getStartEpochNanos());
+        m.put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000);
+        m.put("status", span.getStatus().getStatusCode().name());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((k, v) -> attributes.put(k.getKey(), v));
+        m.put("attributes", attributes);
+        return m;
+    }
+
+    @Override
+    public synchronized CompletableResultCode flush() {
+        try {
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            writer.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+}
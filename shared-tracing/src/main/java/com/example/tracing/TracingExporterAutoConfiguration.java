@@ -0,0 +1,34 @@
+package com.example.tracing;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.nio.file.Path;
+
+/**
+ * Registers the span exporter chosen by {@code tracing.exporter}.
+ * <p>
+ * Spring Boot hands every {@link SpanExporter} bean to the OpenTelemetry SDK, so other
+ * exporters (OTLP, Zipkin) can be plugged in by adding their dependency or bean.
+ */
+@AutoConfiguration(beforeName = "org.springframework.boot.actuate.autoconfigure.tracing.OpenTelemetryTracingAutoConfiguration")
+@ConditionalOnClass(SpanExporter.class)
+@EnableConfigurationProperties(TracingExporterProperties.class)
+public class TracingExporterAutoConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tracing", name = "exporter", havingValue = "memory")
+    public InMemorySpanExporter inMemorySpanExporter(TracingExporterProperties properties) {
+        return new InMemorySpanExporter(properties.getMemoryMaxSpans());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tracing", name = "exporter", havingValue = "file")
+    public FileSpanExporter fileSpanExporter(TracingExporterProperties properties) {
+        return new FileSpanExporter(Path.of(properties.getFile()));
+    }
+}
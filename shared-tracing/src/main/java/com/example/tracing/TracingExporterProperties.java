@@ -0,0 +1,47 @@
+package com.example.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code tracing.*}: which exporter receives finished spans.
+ * <p>
+ * The sampling rate is Spring Boot's {@code management.tracing.sampling.probability}.
+ */
+@ConfigurationProperties(prefix = "tracing")
+public class TracingExporterProperties {
+
+    /** Exporter for finished spans. */
+    public enum Exporter { NONE, MEMORY, FILE }
+
+    private Exporter exporter = Exporter.NONE;
+
+    /** JSON-lines file written by the {@code file} exporter. */
+    private String file = "traces/spans.jsonl";
+
+    /** Spans kept by the {@code memory} exporter; older ones are dropped. */
+    private int memoryMaxSpans = 10_000;
+
+    public Exporter getExporter() {
+        return exporter;
+    }
+
+    public void setExporter(Exporter exporter) {
+        this.exporter = exporter;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public int getMemoryMaxSpans() {
+        return memoryMaxSpans;
+    }
+
+    public void setMemoryMaxSpans(int memoryMaxSpans) {
+        this.memoryMaxSpans = memoryMaxSpans;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.tenantclient;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers a started {@link TenantNearCache} when {@code tenant.client.enabled=true}.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "tenant.client", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(TenantClientProperties.class)
+public class TenantClientAutoConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public TenantNearCache tenantNearCache(TenantClientProperties properties) {
+        return new TenantNearCache(properties.getBaseUrl(), properties.getToken(), properties.getPollInterval(),
+            properties.getTimeout(), properties.getSchemaTimeout());
+    }
+}
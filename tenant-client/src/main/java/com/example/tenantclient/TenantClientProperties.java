@@ -0,0 +1,78 @@
+package com.example.tenantclient;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * {@code tenant.client.*}: where the tenant registry is and how often to poll it.
+ */
+@ConfigurationProperties(prefix = "tenant.client")
+public class TenantClientProperties {
+
+    /** Whether to keep a near-cache of the tenant directory. */
+    private boolean enabled = false;
+
+    /** Base URL of the tenant registry, e.g. {@code http://tenant-registry-svc:8081}. */
+    private String baseUrl = "http://localhost:8081";
+
+    /** Service token sent to the registry's {@code /internal/**} endpoints. */
+    private String token;
+
+    /** Delay between delta polls; bounds how stale a resolved tenant can be. */
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    /** Timeout of a single poll. */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /** How long {@code ensureSchema} waits for the registry to migrate a schema. */
+    private Duration schemaTimeout = Duration.ofMinutes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Duration getSchemaTimeout() {
+        return schemaTimeout;
+    }
+
+    public void setSchemaTimeout(Duration schemaTimeout) {
+        this.schemaTimeout = schemaTimeout;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.tenantclient;
+
+import java.util.List;
+
+/**
+ * Changes to the tenant registry's directory since a client's last poll.
+ * <p>
+ * Versions only mean something within one {@code epoch}. All registry instances share
+ * the epoch. It changes when the registry's database is recreated or a release adds
+ * tenant changesets. When the client's epoch differs or it has never polled, the registry
+ * answers with {@code full = true} and every tenant; the client then drops everything not
+ * listed.
+ *
+ * @param epoch    identity of the registry's directory the versions belong to
+ * @param version  directory version to send as {@code since} on the next poll
+ * @param full     whether {@code tenants} is the complete directory
+ * @param tenants  tenants created or changed since the requested version
+ * @param removed  identifiers of tenants deleted since the requested version
+ */
+public record TenantDelta(
+    String epoch,
+    long version,
+    boolean full,
+    List<TenantRecord> tenants,
+    List<String> removed
+) {}
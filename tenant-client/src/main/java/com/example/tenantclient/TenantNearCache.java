@@ -0,0 +1,216 @@
+package com.example.tenantclient;
+
+import com.example.identity.ServiceToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local copy of the tenant registry's directory, so tenants resolve with a map lookup
+ * instead of a network call.
+ * <p>
+ * A daemon thread polls {@code GET /internal/tenants?since=&epoch=}, authenticated by the
+ * {@link ServiceToken} header, and applies the returned {@link TenantDelta}; between
+ * polls, {@link #resolve(String)} never blocks or leaves the process. If the registry is
+ * unreachable or a poll fails, the last known directory keeps being served and the next
+ * poll catches up.
+ * <p>
+ * {@link #ensureSchema(String)} lets a service trigger the registry's on-first-use
+ * migration of a tenant schema before touching it.
+ */
+public class TenantNearCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantNearCache.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Map<String, TenantRecord> tenants = new ConcurrentHashMap<>();
+
+    /** Tenants whose schema the registry confirmed current, for the registry's epoch. */
+    private final Set<String> currentSchemas = ConcurrentHashMap.newKeySet();
+
+    private final HttpClient http;
+
+    private final String baseUrl;
+
+    private final String token;
+
+    private final Duration pollInterval;
+
+    private final Duration timeout;
+
+    private final Duration schemaTimeout;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile String epoch;
+
+    private volatile long version = -1;
+
+    public TenantNearCache(String baseUrl, String token, Duration pollInterval, Duration timeout,
+            Duration schemaTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+        this.pollInterval = pollInterval;
+        this.timeout = timeout;
+        this.schemaTimeout = schemaTimeout;
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    /**
+     * Looks a tenant up in the local directory.
+     *
+     * @param identifier the tenant identifier
+     * @return the tenant, if known
+     */
+    public Optional<TenantRecord> resolve(String identifier) {
+        return Optional.ofNullable(tenants.get(identifier));
+    }
+
+    /**
+     * Makes sure the tenant's schema is migrated to the registry's changelog before use.
+     * Only the first call per tenant (per tenant changelog version) leaves the process;
+     * it blocks while the registry migrates a schema that is behind.
+     *
+     * @param identifier the tenant identifier
+     * @return true if the schema is current, false if it is unknown, still migrating or
+     *         the registry is unreachable
+     */
+    public boolean ensureSchema(String identifier) {
+        if (currentSchemas.contains(identifier)) {
+            return true;
+        }
+        HttpRequest request = internalRequest("/internal/tenants/"
+                + URLEncoder.encode(identifier, StandardCharsets.UTF_8) + "/schema")
+            .timeout(schemaTimeout)
+            .PUT(HttpRequest.BodyPublishers.noBody())
+            .build();
+        try {
+            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status == 204) {
+                currentSchemas.add(identifier);
+                return true;
+            }
+            log.warn("Schema check of tenant {} returned {}", identifier, status);
+            return false;
+        } catch (IOException e) {
+            log.warn("Schema check of tenant {} failed: {}", identifier, e.toString());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Whether at least one poll has succeeded. */
+    public boolean isReady() {
+        return version >= 0;
+    }
+
+    /** Directory version the cache is at, or -1 before the first successful poll. */
+    public long version() {
+        return version;
+    }
+
+    /** Loads the directory, then keeps polling for changes in the background. */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-near-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresh();
+        scheduler.scheduleWithFixedDelay(this::refresh, pollInterval.toMillis(), pollInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Polls the registry once and applies the changes. Never throws, so a bad response
+     * cannot cancel the scheduled polling.
+     *
+     * @return true if the poll succeeded
+     */
+    public synchronized boolean refresh() {
+        String query = "?since=" + version
+            + (epoch != null ? "&epoch=" + URLEncoder.encode(epoch, StandardCharsets.UTF_8) : "");
+        HttpRequest request = internalRequest("/internal/tenants" + query)
+            .timeout(timeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                log.warn("Tenant directory poll returned {}", response.statusCode());
+                return false;
+            }
+            apply(MAPPER.readValue(response.body(), TenantDelta.class));
+            return true;
+        } catch (IOException e) {
+            log.warn("Tenant directory poll failed: {}", e.toString());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Tenant directory poll failed", e);
+            return false;
+        }
+    }
+
+    private HttpRequest.Builder internalRequest(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (token != null && !token.isEmpty()) {
+            builder.header(ServiceToken.HEADER, token);
+        }
+        return builder;
+    }
+
+    private void apply(TenantDelta delta) {
+        if (!delta.epoch().equals(epoch)) {
+            // The registry ships a newer tenant changelog
+            currentSchemas.clear();
+        }
+        if (delta.full()) {
+            Set<String> listed = new HashSet<>();
+            delta.tenants().forEach(tenant -> listed.add(tenant.identifier()));
+            // Replace entry by entry so concurrent lookups never see an empty directory
+            tenants.keySet().retainAll(listed);
+        }
+        delta.tenants().forEach(tenant -> tenants.put(tenant.identifier(), tenant));
+        delta.removed().forEach(tenants::remove);
+        delta.removed().forEach(currentSchemas::remove);
+        epoch = delta.epoch();
+        version = delta.version();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
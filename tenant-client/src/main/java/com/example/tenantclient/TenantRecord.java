@@ -0,0 +1,24 @@
+package com.example.tenantclient;
+
+/**
+ * What a service needs to know about a tenant, as served by the tenant registry's
+ * resolution API: where its users live, where its data lives, whether it may be used,
+ * and its white-label branding.
+ *
+ * @param identifier   unique tenant identifier
+ * @param realm        Keycloak realm of the tenant's users
+ * @param schema       database schema of the tenant's data
+ * @param active       whether the tenant is active
+ * @param name         display name
+ * @param primaryColor primary UI color, if set
+ * @param logoUrl      logo URL, if set
+ */
+public record TenantRecord(
+    String identifier,
+    String realm,
+    String schema,
+    boolean active,
+    String name,
+    String primaryColor,
+    String logoUrl
+) {}
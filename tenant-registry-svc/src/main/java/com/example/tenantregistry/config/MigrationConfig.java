@@ -0,0 +1,53 @@
+package com.example.tenantregistry.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for fleet-wide tenant schema migrations.
+ * <p>
+ * Each worker migrates one schema at a time on its own connection, so
+ * {@code tenant.migration.concurrency} is both the parallelism and the connection budget
+ * of a run; keep it below the Hikari pool size.
+ */
+@Configuration
+public class MigrationConfig {
+
+	@Value("${tenant.migration.concurrency:4}")
+	private int concurrency;
+
+	/**
+	 * Creates the executor running the migration workers.
+	 * @return the migration executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor migrationExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(concurrency);
+		executor.setMaxPoolSize(concurrency);
+		executor.setQueueCapacity(concurrency);
+		executor.setThreadNamePrefix("schema-migration-");
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(30);
+		return executor;
+	}
+
+	/**
+	 * Creates the single thread the lazy-migration sweeper runs on, so its pauses never
+	 * hold up the shared scheduler thread of the other {@code @Scheduled} tasks. Without a
+	 * queue, a tick arriving while a sweep still runs is rejected and skipped.
+	 * @return the sweeper executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor lazyMigrationExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(0);
+		executor.setThreadNamePrefix("schema-sweeper-");
+		return executor;
+	}
+
+}
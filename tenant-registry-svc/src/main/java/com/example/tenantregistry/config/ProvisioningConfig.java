@@ -0,0 +1,56 @@
+package com.example.tenantregistry.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for asynchronous tenant provisioning.
+ * <p>
+ * Keycloak steps and database (schema migration) steps run on separate bounded pools, so
+ * each backend gets its own concurrency limit and a burst of tenant requests, such as a
+ * bulk onboarding, cannot exhaust Keycloak, the connection pool or request threads.
+ */
+@Configuration
+public class ProvisioningConfig {
+
+	@Value("${tenant.provisioning.keycloak-concurrency:8}")
+	private int keycloakConcurrency;
+
+	@Value("${tenant.provisioning.postgres-concurrency:4}")
+	private int postgresConcurrency;
+
+	@Value("${tenant.provisioning.queue-capacity:10000}")
+	private int queueCapacity;
+
+	/**
+	 * Creates the executor running Keycloak realm steps.
+	 * @return the Keycloak provisioning executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor keycloakProvisioningExecutor() {
+		return executor(keycloakConcurrency, "provisioning-keycloak-");
+	}
+
+	/**
+	 * Creates the executor running database schema steps.
+	 * @return the Postgres provisioning executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor postgresProvisioningExecutor() {
+		return executor(postgresConcurrency, "provisioning-postgres-");
+	}
+
+	private ThreadPoolTaskExecutor executor(int threads, String threadNamePrefix) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix(threadNamePrefix);
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(30);
+		return executor;
+	}
+
+}
@@ -1,15 +1,27 @@
 package com.example.tenantregistry.config;
 
+import com.example.identity.ServiceToken;
+import com.example.identity.SignedIdentity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Security configuration for the tenant registry service.
  */
@@ -18,6 +30,23 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+	/**
+	 * Whether to trust the api-gateway's signed identity header instead of re-verifying
+	 * the JWT.
+	 */
+	@Value("${security.identity.enabled:false}")
+	private boolean identityEnabled;
+
+	@Value("${security.identity.secret:}")
+	private String identitySecret;
+
+	/**
+	 * Shared token other services present on {@code /internal/**}; when unset, the
+	 * internal endpoints reject every request.
+	 */
+	@Value("${security.service-token:}")
+	private String serviceToken;
+
 	/**
 	 * Configures the security filter chain.
 	 * @param http the HttpSecurity to configure
@@ -26,6 +55,15 @@ public class SecurityConfig {
 	 */
 	@Bean
 	public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+		if (identityEnabled) {
+			http.addFilterBefore(
+					new SignedIdentityFilter(new SignedIdentity(identitySecret), jwtAuthenticationConverter()),
+					BearerTokenAuthenticationFilter.class);
+		}
+		if (!serviceToken.isEmpty()) {
+			http.addFilterBefore(new ServiceTokenFilter(new ServiceToken(serviceToken)),
+					BearerTokenAuthenticationFilter.class);
+		}
 		http.csrf(csrf -> csrf.disable())
 			.authorizeHttpRequests(authorize -> authorize
 				// Allow access to Swagger UI and API docs
@@ -34,30 +72,59 @@ public class SecurityConfig {
 				// Allow access to actuator endpoints
 				.requestMatchers("/actuator/**")
 				.permitAll()
+				// Tenant resolution for other services; not routed by the api-gateway
+				.requestMatchers(HttpMethod.GET, "/internal/tenants/**")
+				.hasRole(ServiceTokenFilter.ROLE)
+				// On-first-use schema migration, triggered by TenantNearCache.ensureSchema
+				.requestMatchers(HttpMethod.PUT, "/internal/tenants/*/schema")
+				.hasRole(ServiceTokenFilter.ROLE)
+				// Usage reports of the api-gateway
+				.requestMatchers(HttpMethod.POST, "/internal/tenants/usage")
+				.hasRole(ServiceTokenFilter.ROLE)
+				.requestMatchers("/internal/**")
+				.denyAll()
+				// Public white-label branding, needed before login
+				.requestMatchers(HttpMethod.GET, "/api/branding/**")
+				.permitAll()
 				// Require authentication for all other requests
 				.anyRequest()
 				.authenticated())
 			.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-			.oauth2ResourceServer(
-					oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
+			.oauth2ResourceServer(oauth2 -> oauth2.bearerTokenResolver(bearerTokenResolver())
+				.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
 
 		return http.build();
 	}
 
+	/**
+	 * Skips bearer-token validation for requests already authenticated by
+	 * {@link SignedIdentityFilter}.
+	 * @return the bearer token resolver
+	 */
+	@Bean
+	public BearerTokenResolver bearerTokenResolver() {
+		DefaultBearerTokenResolver delegate = new DefaultBearerTokenResolver();
+		return request -> request.getAttribute(SignedIdentityFilter.VERIFIED_ATTRIBUTE) != null ? null
+				: delegate.resolve(request);
+	}
+
 	/**
 	 * Configures the JWT authentication converter to extract roles from the JWT.
 	 * @return the configured JwtAuthenticationConverter
 	 */
 	@Bean
 	public JwtAuthenticationConverter jwtAuthenticationConverter() {
-		JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-		// Extract roles from the "realm_access.roles" claim
-		grantedAuthoritiesConverter.setAuthoritiesClaimName("realm_access.roles");
-		// Add the "ROLE_" prefix to each role
-		grantedAuthoritiesConverter.setAuthorityPrefix("ROLE_");
-
 		JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-		jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+		// Keycloak nests realm roles as {"realm_access": {"roles": [...]}}; add the "ROLE_" prefix
+		jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwt -> {
+			Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+			if (realmAccess == null || !(realmAccess.get("roles") instanceof Collection<?> roles)) {
+				return List.of();
+			}
+			return roles.stream()
+				.map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+				.toList();
+		});
 
 		return jwtAuthenticationConverter;
 	}
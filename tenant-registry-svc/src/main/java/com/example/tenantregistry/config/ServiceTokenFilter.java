@@ -0,0 +1,51 @@
+package com.example.tenantregistry.config;
+
+import com.example.identity.ServiceToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates service-to-service calls to {@code /internal/**} by their
+ * {@link ServiceToken} header.
+ * <p>
+ * A matching token grants {@code ROLE_SERVICE}, which the internal endpoints require;
+ * the token is ignored on all other paths so it can never stand in for a user.
+ */
+public class ServiceTokenFilter extends OncePerRequestFilter {
+
+	/** Authority granted to callers presenting the service token. */
+	public static final String ROLE = "SERVICE";
+
+	private final ServiceToken token;
+
+	public ServiceTokenFilter(ServiceToken token) {
+		this.token = token;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith(request.getContextPath() + "/internal/");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (token.matches(request.getHeader(ServiceToken.HEADER))) {
+			SecurityContext context = SecurityContextHolder.createEmptyContext();
+			context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated("service", null,
+					AuthorityUtils.createAuthorityList("ROLE_" + ROLE)));
+			SecurityContextHolder.setContext(context);
+		}
+		chain.doFilter(request, response);
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.example.tenantregistry.controller;
+
+import com.example.tenantregistry.service.BrandingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Public, cacheable white-label branding for the frontend.
+ * <p>
+ * {@code /api/branding/{identifier}} redirects to the current bundle's content-hashed
+ * URL and may itself be cached for {@code tenant.branding.alias-max-age}. The hashed URL
+ * never changes its content, so browsers and CDNs may keep it forever; after a branding
+ * change the alias simply points to a new URL. No token is needed.
+ */
+@RestController
+@RequestMapping("/api/branding")
+@Tag(name = "Branding", description = "Public APIs for tenant white-label branding")
+@RequiredArgsConstructor
+public class BrandingController {
+
+	private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+	private final BrandingService brandingService;
+
+	@Value("${tenant.branding.alias-max-age:PT1M}")
+	private Duration aliasMaxAge;
+
+	/**
+	 * Redirects to the current branding bundle of a tenant.
+	 * @param identifier the tenant identifier
+	 * @return a redirect to the content-hashed bundle, or not found
+	 */
+	@GetMapping("/{identifier}")
+	@Operation(summary = "Locate tenant branding",
+			description = "Redirects to the content-hashed URL of the tenant's current branding")
+	public ResponseEntity<Void> locate(@PathVariable String identifier) {
+		return brandingService.bundleOf(identifier)
+			.map(bundle -> this.<Void>redirect(identifier, bundle))
+			.orElse(ResponseEntity.notFound().build());
+	}
+
+	/**
+	 * Gets a branding bundle by its content hash.
+	 * @param identifier the tenant identifier
+	 * @param hash the content hash
+	 * @return the bundle, cacheable forever; a redirect to the current bundle if the hash
+	 * is outdated; or not found
+	 */
+	@GetMapping("/{identifier}/{hash}")
+	@Operation(summary = "Get tenant branding",
+			description = "Returns name, primary color and logo URL of a tenant; immutable")
+	public ResponseEntity<byte[]> bundle(@PathVariable String identifier, @PathVariable String hash) {
+		return brandingService.bundleOf(identifier).map(bundle -> {
+			if (!bundle.hash().equals(hash)) {
+				return this.<byte[]>redirect(identifier, bundle);
+			}
+			return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag("\"" + bundle.hash() + "\"")
+				.cacheControl(IMMUTABLE)
+				.body(bundle.body());
+		}).orElse(ResponseEntity.notFound().build());
+	}
+
+	private <T> ResponseEntity<T> redirect(String identifier, BrandingService.Bundle bundle) {
+		return ResponseEntity.status(HttpStatus.FOUND)
+			.location(URI.create("/api/branding/" + identifier + "/" + bundle.hash()))
+			.cacheControl(CacheControl.maxAge(aliasMaxAge).cachePublic())
+			.build();
+	}
+
+}
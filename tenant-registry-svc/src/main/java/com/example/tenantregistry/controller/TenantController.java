@@ -1,8 +1,18 @@
 package com.example.tenantregistry.controller;
 
+import com.example.tenantregistry.dto.BulkCreateTenantRequest;
+import com.example.tenantregistry.dto.BulkImportUsersDTO;
+import com.example.tenantregistry.dto.BulkImportUsersRequest;
+import com.example.tenantregistry.dto.BulkProvisioningDTO;
 import com.example.tenantregistry.dto.CreateTenantRequest;
+import com.example.tenantregistry.dto.MigrationRunDTO;
+import com.example.tenantregistry.dto.ProvisioningJobDTO;
 import com.example.tenantregistry.dto.TenantDTO;
+import com.example.tenantregistry.dto.TenantDeletionDTO;
+import com.example.tenantregistry.dto.TenantUsageDTO;
+import com.example.tenantregistry.service.SchemaMigrationRunner;
 import com.example.tenantregistry.service.TenantService;
+import com.example.tenantregistry.service.UsageMeteringService;
 import com.querydsl.core.types.Predicate;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,6 +28,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+
 import com.example.tenantregistry.domain.Tenant;
 
 /**
@@ -31,18 +45,125 @@ public class TenantController {
 
 	private final TenantService tenantService;
 
+	private final SchemaMigrationRunner migrationRunner;
+
+	private final UsageMeteringService meteringService;
+
 	/**
-	 * Creates a new tenant.
+	 * Requests a new tenant. Provisioning runs in the background; poll the returned job
+	 * for its outcome.
 	 * @param request the tenant creation request
-	 * @return the created tenant
+	 * @return the pending provisioning job
 	 */
 	@PostMapping
-	@ResponseStatus(HttpStatus.CREATED)
 	@PreAuthorize("hasRole('ADMIN')")
 	@Operation(summary = "Create a new tenant",
-			description = "Creates a new tenant with Keycloak realm and database schema")
-	public TenantDTO createTenant(@Valid @RequestBody CreateTenantRequest request) {
-		return tenantService.createTenant(request);
+			description = "Starts provisioning of a Keycloak realm and database schema; returns 202 with the job")
+	public ResponseEntity<ProvisioningJobDTO> createTenant(@Valid @RequestBody CreateTenantRequest request) {
+		ProvisioningJobDTO job = tenantService.createTenant(request);
+		return ResponseEntity.accepted().location(URI.create("/api/tenants/jobs/" + job.id())).body(job);
+	}
+
+	/**
+	 * Requests many tenants at once. Provisioning runs in the background with bounded
+	 * Keycloak and Postgres concurrency; poll the returned batch for per-tenant outcomes.
+	 * @param request the bulk creation request
+	 * @return the batch with one outcome per requested tenant
+	 */
+	@PostMapping("/bulk")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Onboard many tenants",
+			description = "Queues provisioning for each tenant; returns 202 with per-tenant outcomes")
+	public ResponseEntity<BulkProvisioningDTO> createTenants(@Valid @RequestBody BulkCreateTenantRequest request) {
+		BulkProvisioningDTO batch = tenantService.createTenants(request);
+		return ResponseEntity.accepted().location(URI.create("/api/tenants/bulk/" + batch.batchId())).body(batch);
+	}
+
+	/**
+	 * Gets the progress of a bulk onboarding batch.
+	 * @param batchId the batch ID
+	 * @return the batch, if found
+	 */
+	@GetMapping("/bulk/{batchId}")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Get a bulk onboarding batch",
+			description = "Returns the per-tenant outcomes of a batch with current job states and counts per status")
+	public ResponseEntity<BulkProvisioningDTO> getBatch(@PathVariable String batchId) {
+		return tenantService.getBatch(batchId).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+	}
+
+	/**
+	 * Gets a provisioning job by ID.
+	 * @param jobId the job ID
+	 * @return the job, if found
+	 */
+	@GetMapping("/jobs/{jobId}")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Get a provisioning job",
+			description = "Returns the state of a tenant provisioning job and its steps")
+	public ResponseEntity<ProvisioningJobDTO> getProvisioningJob(@PathVariable Long jobId) {
+		return tenantService.getProvisioningJob(jobId)
+			.map(ResponseEntity::ok)
+			.orElse(ResponseEntity.notFound().build());
+	}
+
+	/**
+	 * Gets a tenant deletion by ID.
+	 * @param deletionId the deletion ID
+	 * @return the deletion, if found
+	 */
+	@GetMapping("/deletions/{deletionId}")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Get a tenant deletion",
+			description = "Returns the progress of reclaiming a deleted tenant's schema and realm")
+	public ResponseEntity<TenantDeletionDTO> getDeletion(@PathVariable Long deletionId) {
+		return tenantService.getDeletion(deletionId)
+			.map(ResponseEntity::ok)
+			.orElse(ResponseEntity.notFound().build());
+	}
+
+	/**
+	 * Starts migrating all tenant schemas to the changelog head. The run continues in
+	 * the background; poll the returned run for progress.
+	 * @return the new run, or conflict if a run is still in progress
+	 */
+	@PostMapping("/migrations")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Migrate all tenant schemas",
+			description = "Starts a parallel migration of every tenant schema; returns 202 with the run")
+	public ResponseEntity<MigrationRunDTO> startMigration() {
+		try {
+			MigrationRunDTO run = migrationRunner.startRun();
+			return ResponseEntity.accepted().location(URI.create("/api/tenants/migrations/" + run.runId())).body(run);
+		}
+		catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+	}
+
+	/**
+	 * Gets the progress of the most recent schema migration run.
+	 * @return the run, if any run exists
+	 */
+	@GetMapping("/migrations/latest")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Get the latest migration run",
+			description = "Returns counts per status and the failed schemas of the most recent run")
+	public ResponseEntity<MigrationRunDTO> getLatestMigration() {
+		return migrationRunner.getLatestRun().map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+	}
+
+	/**
+	 * Gets the progress of a schema migration run.
+	 * @param runId the run ID
+	 * @return the run, if found
+	 */
+	@GetMapping("/migrations/{runId}")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Get a migration run",
+			description = "Returns counts per status and the failed schemas of a migration run")
+	public ResponseEntity<MigrationRunDTO> getMigration(@PathVariable String runId) {
+		return migrationRunner.getRun(runId).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
 	}
 
 	/**
@@ -105,18 +226,69 @@ public class TenantController {
 	}
 
 	/**
-	 * Deletes a tenant.
+	 * Imports many users into a tenant's realm in chunked partial imports.
+	 * @param id the tenant ID
+	 * @param request the users to import
+	 * @return the outcome per user, not found if the tenant does not exist
+	 */
+	@PostMapping("/{id}/users/bulk")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Import users into a tenant",
+			description = "Creates users with passwords and realm roles; existing users are skipped")
+	public ResponseEntity<BulkImportUsersDTO> importUsers(@PathVariable Long id,
+			@Valid @RequestBody BulkImportUsersRequest request) {
+		try {
+			return ResponseEntity.ok(tenantService.importUsers(id, request));
+		}
+		catch (IllegalArgumentException e) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Gets the metered usage of a tenant.
+	 * @param id the tenant ID
+	 * @param from start of the range; defaults to one day, or 30 days per day, before
+	 * {@code to}
+	 * @param to end of the range; defaults to now
+	 * @param granularity {@code HOUR} or {@code DAY}
+	 * @return the usage per bucket, not found if the tenant does not exist
+	 */
+	@GetMapping("/{id}/usage")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Get tenant usage",
+			description = "Returns requests, latency and schema storage of a tenant per hour or day")
+	public ResponseEntity<TenantUsageDTO> getUsage(@PathVariable Long id,
+			@RequestParam(required = false) Instant from, @RequestParam(required = false) Instant to,
+			@RequestParam(defaultValue = "HOUR") UsageMeteringService.Granularity granularity) {
+		Instant end = to != null ? to : Instant.now();
+		Duration defaultRange = granularity == UsageMeteringService.Granularity.DAY ? Duration.ofDays(30)
+				: Duration.ofDays(1);
+		Instant start = from != null ? from : end.minus(defaultRange);
+		try {
+			return ResponseEntity.ok(meteringService.getUsage(id, start, end, granularity));
+		}
+		catch (IllegalArgumentException e) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+	 * Deletes a tenant. Its Keycloak realm and database schema are reclaimed in the
+	 * background; poll the returned deletion for progress.
 	 * @param id the tenant ID
-	 * @return no content if successful, not found if the tenant does not exist
+	 * @return the pending deletion, not found if the tenant does not exist
 	 */
 	@DeleteMapping("/{id}")
 	@PreAuthorize("hasRole('ADMIN')")
 	@Operation(summary = "Delete a tenant",
-			description = "Deletes a tenant, including its Keycloak realm and database schema")
-	public ResponseEntity<Void> deleteTenant(@PathVariable Long id) {
+			description = "Deletes a tenant, then reclaims its Keycloak realm and database schema in the background")
+	public ResponseEntity<TenantDeletionDTO> deleteTenant(@PathVariable Long id) {
 		try {
-			tenantService.deleteTenant(id);
-			return ResponseEntity.noContent().build();
+			TenantDeletionDTO deletion = tenantService.deleteTenant(id);
+			return ResponseEntity.accepted()
+				.location(URI.create("/api/tenants/deletions/" + deletion.id()))
+				.body(deletion);
 		}
 		catch (IllegalArgumentException e) {
 			return ResponseEntity.notFound().build();
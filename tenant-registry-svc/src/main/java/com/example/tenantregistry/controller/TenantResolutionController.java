@@ -0,0 +1,107 @@
+package com.example.tenantregistry.controller;
+
+import com.example.tenantclient.TenantDelta;
+import com.example.tenantclient.TenantRecord;
+import com.example.tenantregistry.service.LazySchemaMigrator;
+import com.example.tenantregistry.service.TenantDirectory;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Lightweight tenant resolution for other services, served from {@link TenantDirectory}.
+ * <p>
+ * These endpoints are meant for other services: they are not routed by the api-gateway
+ * and require the shared service token ({@code security.service-token}) in the
+ * {@link com.example.identity.ServiceToken#HEADER} header. Services normally use the
+ * {@code tenant-client} near cache, which sends it and polls
+ * {@link #changes(long, String)}, rather than calling per request.
+ */
+@RestController
+@RequestMapping("/internal/tenants")
+@Tag(name = "Tenant Resolution", description = "Internal APIs for resolving tenant metadata")
+@RequiredArgsConstructor
+public class TenantResolutionController {
+
+	private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(5));
+
+	private final TenantDirectory tenantDirectory;
+
+	private final LazySchemaMigrator schemaMigrator;
+
+	/**
+	 * Resolves a tenant. The ETag is the directory version of its last change.
+	 * @param identifier the tenant identifier
+	 * @param ifNoneMatch the ETag the caller holds, if any
+	 * @return the tenant, not modified, or not found
+	 */
+	@GetMapping("/{identifier}")
+	@Operation(summary = "Resolve a tenant", description = "Returns realm, schema, status and branding of a tenant")
+	public ResponseEntity<TenantRecord> resolve(@PathVariable String identifier,
+			@RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+		return tenantDirectory.resolve(identifier).map(entry -> {
+			String etag = "\"" + entry.version() + "\"";
+			if (etag.equals(ifNoneMatch)) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.eTag(etag)
+					.cacheControl(CACHE_CONTROL)
+					.<TenantRecord>build();
+			}
+			return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_CONTROL).body(entry.tenant());
+		}).orElse(ResponseEntity.notFound().build());
+	}
+
+	/**
+	 * Makes sure a tenant's schema is migrated to the changelog version before it is
+	 * used, migrating it now if it is behind. Concurrent calls for the same schema wait
+	 * for a single migration.
+	 * @param identifier the tenant identifier
+	 * @return no content once the schema is current, service unavailable while it is
+	 * still migrating, or an error if the migration failed
+	 */
+	@PutMapping("/{identifier}/schema")
+	@Operation(summary = "Ensure a tenant schema is current",
+			description = "Migrates the tenant's schema on first use after a changelog change")
+	public ResponseEntity<Void> ensureSchema(@PathVariable String identifier) {
+		Optional<TenantDirectory.Entry> entry = tenantDirectory.resolve(identifier);
+		if (entry.isEmpty()) {
+			return ResponseEntity.notFound().build();
+		}
+		return switch (schemaMigrator.ensureCurrent(entry.get().tenant().schema())) {
+			case CURRENT -> ResponseEntity.noContent().build();
+			case PENDING -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+			case FAILED -> ResponseEntity.internalServerError().build();
+		};
+	}
+
+	/**
+	 * Lists the tenants changed since a directory version.
+	 * @param since the version the caller holds, or -1 for the full directory
+	 * @param epoch the epoch of that version, as returned by the previous call
+	 * @return the changes, or every tenant if the epoch no longer matches; 503 until the
+	 * directory is loaded
+	 */
+	@GetMapping
+	@Operation(summary = "List tenant changes",
+			description = "Returns tenants created, changed or deleted since a directory version")
+	public ResponseEntity<TenantDelta> changes(@RequestParam(defaultValue = "-1") long since,
+			@RequestParam(required = false) String epoch) {
+		return tenantDirectory.changesSince(since, epoch)
+			.map(ResponseEntity::ok)
+			.orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+	}
+
+}
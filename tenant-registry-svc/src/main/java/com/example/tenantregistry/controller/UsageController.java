@@ -0,0 +1,42 @@
+package com.example.tenantregistry.controller;
+
+import com.example.tenantregistry.dto.UsageReport;
+import com.example.tenantregistry.service.UsageMeteringService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives per-tenant request figures from the api-gateway.
+ * <p>
+ * Like the other {@code /internal/tenants} endpoints, this requires the shared service
+ * token ({@code security.service-token}), which the api-gateway's usage reporter sends.
+ */
+@RestController
+@RequestMapping("/internal/tenants/usage")
+@Tag(name = "Tenant Usage", description = "Internal APIs for metering tenant usage")
+@RequiredArgsConstructor
+public class UsageController {
+
+	private final UsageMeteringService meteringService;
+
+	/**
+	 * Adds a gateway's request figures to the current hour's rollups.
+	 * @param report the figures per tenant since the gateway's last report
+	 * @return no content
+	 */
+	@PostMapping
+	@Operation(summary = "Report tenant usage",
+			description = "Adds request counts and latencies per tenant to the hourly rollups")
+	public ResponseEntity<Void> report(@Valid @RequestBody UsageReport report) {
+		meteringService.record(report);
+		return ResponseEntity.noContent().build();
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Outcome recorded for one tenant of a bulk onboarding batch.
+ * <p>
+ * Kept so the batch status endpoint reports the same items as the submission, including
+ * tenants for which no job of the batch was queued.
+ */
+@Entity
+@Table(name = "provisioning_batch_items")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisioningBatchItem {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false, length = 36)
+	private String batchId;
+
+	/**
+	 * Index of the tenant in the request.
+	 */
+	@Column(nullable = false)
+	private int itemIndex;
+
+	@Column(nullable = false)
+	private String identifier;
+
+	/**
+	 * Outcome at submission, see {@code BulkProvisioningDTO.Item}.
+	 */
+	@Column(nullable = false, length = 20)
+	private String outcome;
+
+	/**
+	 * Job accepted for the tenant, or the one already provisioning it.
+	 */
+	@Column
+	private Long jobId;
+
+	@Column(nullable = false, updatable = false)
+	private Instant createdAt;
+
+	@PrePersist
+	void onCreate() {
+		createdAt = Instant.now();
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Persisted state of an asynchronous tenant provisioning job.
+ * <p>
+ * A job moves {@code PENDING -> RUNNING -> SUCCEEDED | FAILED}. Its two steps, the
+ * Keycloak realm and the database schema, run in parallel and each track their own
+ * {@link StepStatus}; when one fails for good the other is compensated (undone) and the
+ * job fails. The tenant row is only written once both steps are done.
+ */
+@Entity
+@Table(name = "provisioning_jobs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisioningJob {
+
+	/**
+	 * Lifecycle of the whole job.
+	 */
+	public enum Status {
+
+		PENDING, RUNNING, SUCCEEDED, FAILED
+
+	}
+
+	/**
+	 * Lifecycle of a single step.
+	 */
+	public enum StepStatus {
+
+		PENDING, RUNNING, DONE, FAILED, COMPENSATED
+
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	/**
+	 * Identifier of the tenant being provisioned.
+	 */
+	@Column(nullable = false)
+	private String identifier;
+
+	/**
+	 * Bulk onboarding batch this job belongs to, if any.
+	 */
+	@Column
+	private String batchId;
+
+	@Column(nullable = false)
+	private String name;
+
+	@Column(nullable = false)
+	private String contactEmail;
+
+	@Column
+	private String primaryColor;
+
+	@Column
+	private String logoUrl;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private Status status;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private StepStatus realmStep;
+
+	@Column(nullable = false)
+	private int realmAttempts;
+
+	/**
+	 * Whether the realm already existed before this job touched it; such a realm is
+	 * never deleted by compensation.
+	 */
+	@Column
+	private Boolean realmPreexisting;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private StepStatus schemaStep;
+
+	@Column(nullable = false)
+	private int schemaAttempts;
+
+	/**
+	 * Whether the schema already existed before this job touched it; such a schema is
+	 * never dropped by compensation.
+	 */
+	@Column
+	private Boolean schemaPreexisting;
+
+	/**
+	 * Last error, if the job failed.
+	 */
+	@Column(length = 1000)
+	private String error;
+
+	/**
+	 * ID of the created tenant, once the job succeeded.
+	 */
+	@Column
+	private Long tenantId;
+
+	@Column(nullable = false, updatable = false)
+	private Instant createdAt;
+
+	@Column(nullable = false)
+	private Instant updatedAt;
+
+	@PrePersist
+	void onCreate() {
+		Instant now = Instant.now();
+		createdAt = now;
+		updatedAt = now;
+	}
+
+	@PreUpdate
+	void onUpdate() {
+		updatedAt = Instant.now();
+	}
+
+}
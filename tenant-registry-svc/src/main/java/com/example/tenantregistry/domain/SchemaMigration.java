@@ -0,0 +1,78 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Persisted progress of one tenant schema in a fleet-wide migration run.
+ * <p>
+ * A run creates one row per tenant schema, moving {@code PENDING -> RUNNING -> SUCCEEDED
+ * | FAILED}. Rows left pending or running by a shutdown are picked up again on startup.
+ */
+@Entity
+@Table(name = "schema_migrations")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemaMigration {
+
+	/**
+	 * Lifecycle of a schema's migration.
+	 */
+	public enum Status {
+
+		PENDING, RUNNING, SUCCEEDED, FAILED
+
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	/**
+	 * Migration run this row belongs to.
+	 */
+	@Column(nullable = false)
+	private String runId;
+
+	@Column(nullable = false)
+	private String schemaName;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private Status status;
+
+	/**
+	 * Failure reason, if the migration failed.
+	 */
+	@Column(length = 1000)
+	private String error;
+
+	/**
+	 * How long the migration took, once finished.
+	 */
+	@Column
+	private Long durationMs;
+
+	@Column(nullable = false, updatable = false)
+	private Instant createdAt;
+
+	@Column(nullable = false)
+	private Instant updatedAt;
+
+	@PrePersist
+	void onCreate() {
+		Instant now = Instant.now();
+		createdAt = now;
+		updatedAt = now;
+	}
+
+	@PreUpdate
+	void onUpdate() {
+		updatedAt = Instant.now();
+	}
+
+}
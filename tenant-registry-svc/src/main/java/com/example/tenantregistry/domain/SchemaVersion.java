@@ -0,0 +1,31 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Changelog version a tenant schema was last migrated to.
+ * <p>
+ * The version identifies the set of changesets in the changelog, so a schema whose
+ * version differs from the current changelog's is behind and needs migrating.
+ */
+@Entity
+@Table(name = "schema_versions")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemaVersion {
+
+	@Id
+	private String schemaName;
+
+	@Column(nullable = false)
+	private String changelogVersion;
+
+	@Column(nullable = false)
+	private Instant migratedAt;
+
+}
@@ -0,0 +1,27 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Directory version of the last change to a tenant, kept after the tenant is deleted.
+ * <p>
+ * Versions come from {@link TenantDirectoryState}, so every registry instance stamps a
+ * tenant with the same version.
+ */
+@Entity
+@Table(name = "tenant_changes")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantChange {
+
+	@Id
+	private String identifier;
+
+	@Column(nullable = false, unique = true)
+	private long version;
+
+}
@@ -0,0 +1,98 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Persisted state of a tenant deletion.
+ * <p>
+ * The tenant row is removed as soon as the deletion is requested; its realm and schema
+ * are reclaimed in the background. A deletion moves
+ * {@code PENDING -> DROPPING_TABLES -> REMOVING_REALM -> SUCCEEDED}, or to {@code FAILED}
+ * once it has failed {@code max-attempts} times in a row.
+ */
+@Entity
+@Table(name = "tenant_deletions")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantDeletion {
+
+	/**
+	 * Lifecycle of a deletion.
+	 */
+	public enum Status {
+
+		PENDING, DROPPING_TABLES, REMOVING_REALM, SUCCEEDED, FAILED
+
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	/**
+	 * ID the deleted tenant had.
+	 */
+	@Column(nullable = false)
+	private Long tenantId;
+
+	@Column(nullable = false)
+	private String identifier;
+
+	@Column(nullable = false)
+	private String keycloakRealm;
+
+	@Column(nullable = false)
+	private String dbSchema;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private Status status;
+
+	/**
+	 * Tables of the schema dropped so far.
+	 */
+	@Column(nullable = false)
+	private int tablesDropped;
+
+	/**
+	 * Consecutive failed attempts; reset by every step that succeeds.
+	 */
+	@Column(nullable = false)
+	private int attempts;
+
+	/**
+	 * Earliest time of the next attempt after a failure.
+	 */
+	@Column
+	private Instant nextAttemptAt;
+
+	/**
+	 * Last error, if an attempt failed.
+	 */
+	@Column(length = 1000)
+	private String error;
+
+	@Column(nullable = false, updatable = false)
+	private Instant createdAt;
+
+	@Column(nullable = false)
+	private Instant updatedAt;
+
+	@PrePersist
+	void onCreate() {
+		Instant now = Instant.now();
+		createdAt = now;
+		updatedAt = now;
+	}
+
+	@PreUpdate
+	void onUpdate() {
+		updatedAt = Instant.now();
+	}
+
+}
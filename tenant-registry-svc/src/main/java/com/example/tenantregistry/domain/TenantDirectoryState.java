@@ -0,0 +1,33 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The single row holding the tenant directory's epoch and latest version.
+ * <p>
+ * The epoch is generated once, when the table is created, and identifies the database the
+ * versions belong to.
+ */
+@Entity
+@Table(name = "tenant_directory")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantDirectoryState {
+
+	/** ID of the only row. */
+	public static final int ID = 1;
+
+	@Id
+	private Integer id;
+
+	@Column(nullable = false)
+	private String epoch;
+
+	@Column(nullable = false)
+	private long version;
+
+}
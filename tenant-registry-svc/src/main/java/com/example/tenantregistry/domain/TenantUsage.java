@@ -0,0 +1,79 @@
+package com.example.tenantregistry.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Usage of one tenant during one hour.
+ * <p>
+ * Request figures are summed from the api-gateway's reports; storage figures are the
+ * last sample of the tenant's schema taken in the hour, if any.
+ */
+@Entity
+@Table(name = "tenant_usage")
+@IdClass(TenantUsage.Key.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantUsage {
+
+	/**
+	 * Primary key: tenant and hour.
+	 */
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static class Key implements Serializable {
+
+		private String identifier;
+
+		private Instant bucketStart;
+
+	}
+
+	@Id
+	private String identifier;
+
+	/**
+	 * Start of the hour this row covers.
+	 */
+	@Id
+	private Instant bucketStart;
+
+	@Column(nullable = false)
+	private long requests;
+
+	/**
+	 * Requests answered with a 5xx status.
+	 */
+	@Column(nullable = false)
+	private long errors;
+
+	/**
+	 * Sum of request latencies, for the average.
+	 */
+	@Column(nullable = false)
+	private long latencyMsTotal;
+
+	@Column(nullable = false)
+	private long latencyMsMax;
+
+	/**
+	 * Size of the schema's tables including indexes and TOAST.
+	 */
+	@Column
+	private Long storageBytes;
+
+	/**
+	 * Row count of the schema's tables as estimated by the planner statistics.
+	 */
+	@Column
+	private Long rowEstimate;
+
+}
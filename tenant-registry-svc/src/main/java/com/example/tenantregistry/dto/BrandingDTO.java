@@ -0,0 +1,11 @@
+package com.example.tenantregistry.dto;
+
+/**
+ * Public white-label branding of a tenant, as served to the frontend.
+ * @param identifier the tenant identifier
+ * @param name the display name
+ * @param primaryColor the primary color, if set
+ * @param logoUrl the logo URL, if set
+ */
+public record BrandingDTO(String identifier, String name, String primaryColor, String logoUrl) {
+}
@@ -0,0 +1,22 @@
+package com.example.tenantregistry.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for onboarding many tenants at once.
+ * <p>
+ * Resubmitting the same list after a client crash is safe: tenants that already exist
+ * or are being provisioned are reported instead of being created twice.
+ */
+public record BulkCreateTenantRequest(
+
+		/**
+		 * Tenants to create, each validated like a single creation request.
+		 */
+		@NotEmpty(message = "At least one tenant is required") @Size(max = 1000,
+				message = "At most 1000 tenants per request") List<@Valid CreateTenantRequest> tenants) {
+}
@@ -0,0 +1,25 @@
+package com.example.tenantregistry.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user outcome of a bulk user import.
+ * @param realm the realm the users were imported into
+ * @param counts number of users per outcome
+ * @param items one entry per submitted user, in request order
+ */
+public record BulkImportUsersDTO(String realm, Map<String, Long> counts, List<Item> items) {
+
+	/**
+	 * Outcome for a single user.
+	 * @param username the username
+	 * @param outcome {@code ADDED}, {@code SKIPPED} (the user already exists),
+	 * {@code DUPLICATE} (repeated in the request) or {@code FAILED}
+	 * @param userId the Keycloak user ID, if the user was added
+	 * @param error why the user's chunk was rejected, if it failed
+	 */
+	public record Item(String username, String outcome, String userId, String error) {
+	}
+
+}
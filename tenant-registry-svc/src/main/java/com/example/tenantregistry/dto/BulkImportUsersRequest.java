@@ -0,0 +1,21 @@
+package com.example.tenantregistry.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for importing many users into a tenant's realm at once.
+ * <p>
+ * Users that already exist are skipped, so resubmitting the same list is safe.
+ */
+public record BulkImportUsersRequest(
+
+		/**
+		 * Users to import.
+		 */
+		@NotEmpty(message = "At least one user is required") @Size(max = 10000,
+				message = "At most 10000 users per request") List<@Valid ImportUserRequest> users) {
+}
@@ -0,0 +1,31 @@
+package com.example.tenantregistry.dto;
+
+import com.example.tenantregistry.domain.ProvisioningJob.Status;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-tenant outcome of a bulk onboarding batch.
+ * <p>
+ * Returned with {@code 202 Accepted} when the batch is submitted and by the batch status
+ * endpoint, where {@code counts} shows progress by job status.
+ * @param batchId the batch ID
+ * @param counts number of jobs per status
+ * @param items one entry per submitted tenant, in request order
+ */
+public record BulkProvisioningDTO(String batchId, Map<Status, Long> counts, List<Item> items) {
+
+	/**
+	 * Outcome for a single tenant.
+	 * @param identifier the tenant identifier
+	 * @param outcome {@code ACCEPTED}, {@code ALREADY_EXISTS}, {@code IN_PROGRESS} (a job
+	 * outside this batch is provisioning it), {@code DELETING} (a deleted tenant's
+	 * resources are still being reclaimed), {@code DUPLICATE} (repeated in the request) or
+	 * {@code RESERVED} (the identifier maps to the template schema)
+	 * @param job the provisioning job, if one was accepted or is in progress
+	 */
+	public record Item(String identifier, String outcome, ProvisioningJobDTO job) {
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.example.tenantregistry.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+/**
+ * Request DTO for one user of a bulk user import.
+ */
+public record ImportUserRequest(
+
+		/**
+		 * Username, unique within the tenant's realm.
+		 */
+		@NotBlank(message = "Username is required") String username,
+
+		/**
+		 * Email address (optional).
+		 */
+		@Email(message = "Email must be a valid email address") String email,
+
+		/**
+		 * First name (optional).
+		 */
+		String firstName,
+
+		/**
+		 * Last name (optional).
+		 */
+		String lastName,
+
+		/**
+		 * Initial password (optional); Keycloak hashes it on import.
+		 */
+		String password,
+
+		/**
+		 * Whether the user must change the password at first login.
+		 */
+		boolean temporaryPassword,
+
+		/**
+		 * Realm roles to grant (optional), e.g. the tenant admin role.
+		 */
+		List<String> roles) {
+}
@@ -0,0 +1,28 @@
+package com.example.tenantregistry.dto;
+
+import com.example.tenantregistry.domain.SchemaMigration.Status;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of a fleet-wide tenant schema migration run.
+ * <p>
+ * Returned with {@code 202 Accepted} when a run is started and by the run status
+ * endpoint. Only failed schemas are listed, since a run covers every tenant.
+ * @param runId the run ID
+ * @param counts number of schemas per status
+ * @param finished whether no schema is pending or running anymore
+ * @param failures the schemas whose migration failed
+ */
+public record MigrationRunDTO(String runId, Map<Status, Long> counts, boolean finished, List<Failure> failures) {
+
+	/**
+	 * A schema whose migration failed.
+	 * @param schemaName the schema name
+	 * @param error the failure reason
+	 */
+	public record Failure(String schemaName, String error) {
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.example.tenantregistry.dto;
+
+import com.example.tenantregistry.domain.ProvisioningJob.Status;
+import com.example.tenantregistry.domain.ProvisioningJob.StepStatus;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for {@link com.example.tenantregistry.domain.ProvisioningJob}.
+ * <p>
+ * Returned with {@code 202 Accepted} when a tenant is requested and by the job status
+ * endpoint; {@code tenantId} is set once the job has succeeded.
+ */
+public record ProvisioningJobDTO(Long id, String identifier, Status status, StepStatus realmStep,
+		int realmAttempts, StepStatus schemaStep, int schemaAttempts, String error, Long tenantId,
+		Instant createdAt, Instant updatedAt) {
+}
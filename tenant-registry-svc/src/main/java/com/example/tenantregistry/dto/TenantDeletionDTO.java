@@ -0,0 +1,15 @@
+package com.example.tenantregistry.dto;
+
+import com.example.tenantregistry.domain.TenantDeletion.Status;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for {@link com.example.tenantregistry.domain.TenantDeletion}.
+ * <p>
+ * Returned with {@code 202 Accepted} when a tenant is deleted and by the deletion status
+ * endpoint.
+ */
+public record TenantDeletionDTO(Long id, Long tenantId, String identifier, Status status, int tablesDropped,
+		int attempts, Instant nextAttemptAt, String error, Instant createdAt, Instant updatedAt) {
+}
@@ -0,0 +1,31 @@
+package com.example.tenantregistry.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Usage of a tenant over a time range, per hour or per day.
+ * <p>
+ * Buckets without any recorded usage are omitted.
+ * @param identifier the tenant identifier
+ * @param granularity {@code HOUR} or {@code DAY}
+ * @param buckets the usage per bucket, oldest first
+ */
+public record TenantUsageDTO(String identifier, String granularity, List<Bucket> buckets) {
+
+	/**
+	 * Usage during one bucket.
+	 * @param start start of the bucket
+	 * @param requests number of requests
+	 * @param errors number of requests answered with a 5xx status
+	 * @param avgLatencyMs average request latency, or null without requests
+	 * @param maxLatencyMs highest request latency
+	 * @param storageBytes size of the tenant's schema at the last sample, if one was
+	 * taken in the bucket
+	 * @param rowEstimate estimated rows in the tenant's schema at the last sample
+	 */
+	public record Bucket(Instant start, long requests, long errors, Double avgLatencyMs, long maxLatencyMs,
+			Long storageBytes, Long rowEstimate) {
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.tenantregistry.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
+
+/**
+ * Request DTO for the request figures an api-gateway instance collected since its last
+ * report.
+ */
+public record UsageReport(
+
+		/**
+		 * One entry per tenant that made requests.
+		 */
+		@NotNull(message = "Tenants are required") List<@Valid Entry> tenants) {
+
+	/**
+	 * Request figures of one tenant.
+	 */
+	public record Entry(
+
+			/**
+			 * Tenant identifier, i.e. the realm of the request tokens.
+			 */
+			@NotBlank(message = "Tenant is required") String tenant,
+
+			/**
+			 * Number of requests.
+			 */
+			@PositiveOrZero long requests,
+
+			/**
+			 * Number of requests answered with a 5xx status.
+			 */
+			@PositiveOrZero long errors,
+
+			/**
+			 * Sum of request latencies in milliseconds.
+			 */
+			@PositiveOrZero long latencyMsTotal,
+
+			/**
+			 * Highest request latency in milliseconds.
+			 */
+			@PositiveOrZero long latencyMsMax) {
+	}
+
+}
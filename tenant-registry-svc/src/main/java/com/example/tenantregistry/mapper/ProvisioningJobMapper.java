@@ -0,0 +1,20 @@
+package com.example.tenantregistry.mapper;
+
+import com.example.tenantregistry.domain.ProvisioningJob;
+import com.example.tenantregistry.dto.ProvisioningJobDTO;
+import org.mapstruct.Mapper;
+
+/**
+ * MapStruct mapper for converting {@link ProvisioningJob} to {@link ProvisioningJobDTO}.
+ */
+@Mapper(config = BaseMapperConfig.class)
+public interface ProvisioningJobMapper {
+
+	/**
+	 * Convert a ProvisioningJob entity to a ProvisioningJobDTO.
+	 * @param job the entity to convert
+	 * @return the DTO
+	 */
+	ProvisioningJobDTO toDto(ProvisioningJob job);
+
+}
@@ -0,0 +1,20 @@
+package com.example.tenantregistry.mapper;
+
+import com.example.tenantregistry.domain.TenantDeletion;
+import com.example.tenantregistry.dto.TenantDeletionDTO;
+import org.mapstruct.Mapper;
+
+/**
+ * MapStruct mapper for converting {@link TenantDeletion} to {@link TenantDeletionDTO}.
+ */
+@Mapper(config = BaseMapperConfig.class)
+public interface TenantDeletionMapper {
+
+	/**
+	 * Convert a TenantDeletion entity to a TenantDeletionDTO.
+	 * @param deletion the entity to convert
+	 * @return the DTO
+	 */
+	TenantDeletionDTO toDto(TenantDeletion deletion);
+
+}
@@ -0,0 +1,22 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.ProvisioningBatchItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for accessing {@link ProvisioningBatchItem} entities.
+ */
+@Repository
+public interface ProvisioningBatchItemRepository extends JpaRepository<ProvisioningBatchItem, Long> {
+
+	/**
+	 * Find the items of a bulk onboarding batch.
+	 * @param batchId the batch ID
+	 * @return the items, in request order
+	 */
+	List<ProvisioningBatchItem> findByBatchIdOrderByItemIndexAsc(String batchId);
+
+}
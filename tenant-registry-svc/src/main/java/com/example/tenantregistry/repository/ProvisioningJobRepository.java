@@ -0,0 +1,137 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.ProvisioningJob;
+import com.example.tenantregistry.domain.ProvisioningJob.Status;
+import com.example.tenantregistry.domain.ProvisioningJob.StepStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for accessing {@link ProvisioningJob} entities.
+ * <p>
+ * Step updates touch only their own columns, so the realm and schema steps of one job
+ * can be recorded concurrently without overwriting each other.
+ */
+@Repository
+public interface ProvisioningJobRepository extends JpaRepository<ProvisioningJob, Long> {
+
+	/**
+	 * Find jobs in any of the given states.
+	 * @param statuses the states to match
+	 * @return the matching jobs
+	 */
+	List<ProvisioningJob> findByStatusIn(Collection<Status> statuses);
+
+	/**
+	 * Find the jobs of a bulk onboarding batch.
+	 * @param batchId the batch ID
+	 * @return the jobs, in submission order
+	 */
+	List<ProvisioningJob> findByBatchIdOrderByIdAsc(String batchId);
+
+	/**
+	 * Find the job for the identifier that is in any of the given states.
+	 * @param identifier the tenant identifier
+	 * @param statuses the states to match
+	 * @return the job, if any
+	 */
+	Optional<ProvisioningJob> findFirstByIdentifierAndStatusIn(String identifier, Collection<Status> statuses);
+
+	/**
+	 * Check if a job for the identifier is in any of the given states.
+	 * @param identifier the tenant identifier
+	 * @param statuses the states to match
+	 * @return true if such a job exists
+	 */
+	boolean existsByIdentifierAndStatusIn(String identifier, Collection<Status> statuses);
+
+	/**
+	 * Record the state of the realm step.
+	 * @param id the job ID
+	 * @param step the new step state
+	 * @param attempts attempts made so far
+	 * @param now the update time
+	 */
+	@Transactional
+	@Modifying
+	@Query("update ProvisioningJob j set j.realmStep = :step, j.realmAttempts = :attempts, j.updatedAt = :now "
+			+ "where j.id = :id")
+	void updateRealmStep(@Param("id") Long id, @Param("step") StepStatus step, @Param("attempts") int attempts,
+			@Param("now") Instant now);
+
+	/**
+	 * Record the state of the schema step.
+	 * @param id the job ID
+	 * @param step the new step state
+	 * @param attempts attempts made so far
+	 * @param now the update time
+	 */
+	@Transactional
+	@Modifying
+	@Query("update ProvisioningJob j set j.schemaStep = :step, j.schemaAttempts = :attempts, j.updatedAt = :now "
+			+ "where j.id = :id")
+	void updateSchemaStep(@Param("id") Long id, @Param("step") StepStatus step, @Param("attempts") int attempts,
+			@Param("now") Instant now);
+
+	/**
+	 * Remember whether the realm existed before the job's first attempt.
+	 * @param id the job ID
+	 * @param preexisting whether the realm already existed
+	 */
+	@Transactional
+	@Modifying
+	@Query("update ProvisioningJob j set j.realmPreexisting = :preexisting where j.id = :id")
+	void markRealmPreexisting(@Param("id") Long id, @Param("preexisting") boolean preexisting);
+
+	/**
+	 * Remember whether the schema existed before the job's first attempt.
+	 * @param id the job ID
+	 * @param preexisting whether the schema already existed
+	 */
+	@Transactional
+	@Modifying
+	@Query("update ProvisioningJob j set j.schemaPreexisting = :preexisting where j.id = :id")
+	void markSchemaPreexisting(@Param("id") Long id, @Param("preexisting") boolean preexisting);
+
+	/**
+	 * Record the overall job state.
+	 * @param id the job ID
+	 * @param status the new state
+	 * @param error the failure reason, or null
+	 * @param now the update time
+	 */
+	@Transactional
+	@Modifying
+	@Query("update ProvisioningJob j set j.status = :status, j.error = :error, j.updatedAt = :now where j.id = :id")
+	void updateStatus(@Param("id") Long id, @Param("status") Status status, @Param("error") String error,
+			@Param("now") Instant now);
+
+	/**
+	 * Take a job for this instance: moves it to {@code RUNNING} if it is still as last read
+	 * and either pending or abandoned by another instance. {@code updatedAt} serves as the
+	 * version, so of two instances claiming the same job only one succeeds.
+	 * @param id the job ID
+	 * @param seen the job's {@code updatedAt} when it was read
+	 * @param pending the pending state
+	 * @param running the running state
+	 * @param staleBefore running jobs not updated since are considered abandoned
+	 * @param now the update time
+	 * @return 1 if the job was claimed, else 0
+	 */
+	@Transactional
+	@Modifying
+	@Query("update ProvisioningJob j set j.status = :running, j.updatedAt = :now where j.id = :id "
+			+ "and j.updatedAt = :seen and (j.status = :pending or (j.status = :running and j.updatedAt < :staleBefore))")
+	int claim(@Param("id") Long id, @Param("seen") Instant seen, @Param("pending") Status pending,
+			@Param("running") Status running, @Param("staleBefore") Instant staleBefore, @Param("now") Instant now);
+
+}
@@ -0,0 +1,86 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.SchemaMigration;
+import com.example.tenantregistry.domain.SchemaMigration.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for accessing {@link SchemaMigration} entities.
+ */
+@Repository
+public interface SchemaMigrationRepository extends JpaRepository<SchemaMigration, Long> {
+
+	/**
+	 * Number of schemas of a run in one state.
+	 */
+	interface StatusCount {
+
+		Status getStatus();
+
+		long getCount();
+
+	}
+
+	/**
+	 * Find schema migrations in any of the given states.
+	 * @param statuses the states to match
+	 * @return the matching schema migrations
+	 */
+	List<SchemaMigration> findByStatusIn(Collection<Status> statuses);
+
+	/**
+	 * Check if any schema migration is in one of the given states.
+	 * @param statuses the states to match
+	 * @return true if such a schema migration exists
+	 */
+	boolean existsByStatusIn(Collection<Status> statuses);
+
+	/**
+	 * Find the schema migrations of a run in one state.
+	 * @param runId the run ID
+	 * @param status the state to match
+	 * @return the matching schema migrations
+	 */
+	List<SchemaMigration> findByRunIdAndStatusOrderByIdAsc(String runId, Status status);
+
+	/**
+	 * Find the most recently created schema migration, which belongs to the latest run.
+	 * @return the schema migration, if any run exists
+	 */
+	Optional<SchemaMigration> findFirstByOrderByIdDesc();
+
+	/**
+	 * Count the schemas of a run per state.
+	 * @param runId the run ID
+	 * @return one count per state present in the run
+	 */
+	@Query("select m.status as status, count(m) as count from SchemaMigration m where m.runId = :runId "
+			+ "group by m.status")
+	List<StatusCount> countByStatus(@Param("runId") String runId);
+
+	/**
+	 * Record the state of a schema's migration.
+	 * @param id the schema migration ID
+	 * @param status the new state
+	 * @param error the failure reason, or null
+	 * @param durationMs how long the migration took, or null while it runs
+	 * @param now the update time
+	 */
+	@Transactional
+	@Modifying
+	@Query("update SchemaMigration m set m.status = :status, m.error = :error, m.durationMs = :durationMs, "
+			+ "m.updatedAt = :now where m.id = :id")
+	void updateStatus(@Param("id") Long id, @Param("status") Status status, @Param("error") String error,
+			@Param("durationMs") Long durationMs, @Param("now") Instant now);
+
+}
@@ -0,0 +1,13 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.SchemaVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for accessing {@link SchemaVersion} entities.
+ */
+@Repository
+public interface SchemaVersionRepository extends JpaRepository<SchemaVersion, String> {
+
+}
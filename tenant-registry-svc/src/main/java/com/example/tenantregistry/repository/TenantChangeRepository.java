@@ -0,0 +1,22 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.TenantChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for accessing {@link TenantChange} entities.
+ */
+@Repository
+public interface TenantChangeRepository extends JpaRepository<TenantChange, String> {
+
+	/**
+	 * Find the changes after a directory version.
+	 * @param version the directory version already seen
+	 * @return the newer changes, oldest first
+	 */
+	List<TenantChange> findByVersionGreaterThanOrderByVersion(long version);
+
+}
@@ -0,0 +1,41 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.TenantDeletion;
+import com.example.tenantregistry.domain.TenantDeletion.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for accessing {@link TenantDeletion} entities.
+ */
+@Repository
+public interface TenantDeletionRepository extends JpaRepository<TenantDeletion, Long> {
+
+	/**
+	 * Find deletions in any of the given states that are not waiting out a backoff.
+	 * @param statuses the states to match
+	 * @param now the current time
+	 * @param pageable how many deletions to return
+	 * @return the deletions, oldest first
+	 */
+	@Query("select d from TenantDeletion d where d.status in :statuses "
+			+ "and (d.nextAttemptAt is null or d.nextAttemptAt <= :now) order by d.id")
+	List<TenantDeletion> findDue(@Param("statuses") Collection<Status> statuses, @Param("now") Instant now,
+			Pageable pageable);
+
+	/**
+	 * Check if a deletion for the identifier is in any of the given states.
+	 * @param identifier the tenant identifier
+	 * @param statuses the states to match
+	 * @return true if such a deletion exists
+	 */
+	boolean existsByIdentifierAndStatusIn(String identifier, Collection<Status> statuses);
+
+}
@@ -0,0 +1,27 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.TenantDirectoryState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for accessing the {@link TenantDirectoryState} row.
+ */
+@Repository
+public interface TenantDirectoryStateRepository extends JpaRepository<TenantDirectoryState, Integer> {
+
+	/**
+	 * Find the directory state and lock it until the surrounding transaction ends, so
+	 * transactions taking versions commit in version order.
+	 * @return the directory state, if the table is initialized
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select s from TenantDirectoryState s where s.id = " + TenantDirectoryState.ID)
+	Optional<TenantDirectoryState> findForUpdate();
+
+}
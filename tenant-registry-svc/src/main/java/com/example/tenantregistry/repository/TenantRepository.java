@@ -2,9 +2,14 @@ package com.example.tenantregistry.repository;
 
 import com.example.tenantregistry.domain.Tenant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,6 +25,13 @@ public interface TenantRepository extends JpaRepository<Tenant, Long>, QuerydslP
 	 */
 	Optional<Tenant> findByIdentifier(String identifier);
 
+	/**
+	 * Find the tenants with any of the given identifiers.
+	 * @param identifiers the tenant identifiers
+	 * @return the tenants that exist
+	 */
+	List<Tenant> findByIdentifierIn(Collection<String> identifiers);
+
 	/**
 	 * Check if a tenant exists with the given identifier.
 	 * @param identifier the tenant identifier
@@ -41,4 +53,29 @@ public interface TenantRepository extends JpaRepository<Tenant, Long>, QuerydslP
 	 */
 	Optional<Tenant> findByDbSchema(String dbSchema);
 
+	/**
+	 * Find the database schema names of all tenants.
+	 * @return the schema names
+	 */
+	@Query("select t.dbSchema from Tenant t order by t.id")
+	List<String> findAllDbSchemas();
+
+	/**
+	 * Find the next tenants in ID order, for walking all tenants in batches.
+	 * @param id the last ID of the previous batch, or 0 to start over
+	 * @param pageable how many tenants to return
+	 * @return the tenants
+	 */
+	List<Tenant> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	/**
+	 * Find the database schemas not recorded as migrated to a changelog version.
+	 * @param changelogVersion the current changelog version
+	 * @param pageable how many schemas to return
+	 * @return the schema names, least recently created tenants first
+	 */
+	@Query("select t.dbSchema from Tenant t where not exists (select v from SchemaVersion v "
+			+ "where v.schemaName = t.dbSchema and v.changelogVersion = :changelogVersion) order by t.id")
+	List<String> findDbSchemasBehind(@Param("changelogVersion") String changelogVersion, Pageable pageable);
+
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.example.tenantregistry.repository;
+
+import com.example.tenantregistry.domain.TenantUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for accessing {@link TenantUsage} rollups.
+ * <p>
+ * Writes are upserts that add to or overwrite one tenant-hour row in a single
+ * statement, so reports from several gateway instances and storage samples can land
+ * concurrently without lost updates.
+ */
+@Repository
+public interface TenantUsageRepository extends JpaRepository<TenantUsage, TenantUsage.Key> {
+
+	/**
+	 * Find the rollups of a tenant in a time range.
+	 * @param identifier the tenant identifier
+	 * @param from start of the range, inclusive
+	 * @param to end of the range, exclusive
+	 * @return the rollups, oldest first
+	 */
+	@Query("select u from TenantUsage u where u.identifier = :identifier and u.bucketStart >= :from "
+			+ "and u.bucketStart < :to order by u.bucketStart")
+	List<TenantUsage> findRange(@Param("identifier") String identifier, @Param("from") Instant from,
+			@Param("to") Instant to);
+
+	/**
+	 * Add request figures to a tenant's rollup.
+	 * @param identifier the tenant identifier
+	 * @param bucketStart the hour
+	 * @param requests number of requests
+	 * @param errors number of 5xx responses
+	 * @param latencyMsTotal sum of latencies
+	 * @param latencyMsMax highest latency
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "insert into tenant_usage (identifier, bucket_start, requests, errors, latency_ms_total, "
+			+ "latency_ms_max) values (:identifier, :bucketStart, :requests, :errors, :latencyMsTotal, :latencyMsMax) "
+			+ "on conflict (identifier, bucket_start) do update set "
+			+ "requests = tenant_usage.requests + excluded.requests, "
+			+ "errors = tenant_usage.errors + excluded.errors, "
+			+ "latency_ms_total = tenant_usage.latency_ms_total + excluded.latency_ms_total, "
+			+ "latency_ms_max = greatest(tenant_usage.latency_ms_max, excluded.latency_ms_max)", nativeQuery = true)
+	void addRequests(@Param("identifier") String identifier, @Param("bucketStart") Instant bucketStart,
+			@Param("requests") long requests, @Param("errors") long errors,
+			@Param("latencyMsTotal") long latencyMsTotal, @Param("latencyMsMax") long latencyMsMax);
+
+	/**
+	 * Record a storage sample in a tenant's rollup, replacing earlier samples of the hour.
+	 * @param identifier the tenant identifier
+	 * @param bucketStart the hour
+	 * @param storageBytes size of the schema
+	 * @param rowEstimate estimated rows in the schema
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "insert into tenant_usage (identifier, bucket_start, storage_bytes, row_estimate) "
+			+ "values (:identifier, :bucketStart, :storageBytes, :rowEstimate) "
+			+ "on conflict (identifier, bucket_start) do update set "
+			+ "storage_bytes = excluded.storage_bytes, row_estimate = excluded.row_estimate", nativeQuery = true)
+	void recordStorage(@Param("identifier") String identifier, @Param("bucketStart") Instant bucketStart,
+			@Param("storageBytes") long storageBytes, @Param("rowEstimate") long rowEstimate);
+
+	/**
+	 * Delete rollups older than the retention period.
+	 * @param cutoff the oldest hour to keep
+	 * @return the number of deleted rows
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from TenantUsage u where u.bucketStart < :cutoff")
+	int deleteOlderThan(@Param("cutoff") Instant cutoff);
+
+}
@@ -0,0 +1,89 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantclient.TenantRecord;
+import com.example.tenantregistry.dto.BrandingDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves tenant branding bundles from memory, addressed by a hash of their content.
+ * <p>
+ * A bundle is the serialized {@link BrandingDTO} of an active tenant, built once from
+ * {@link TenantDirectory} and kept until the tenant changes: the entry is dropped when a
+ * change commits, and rebuilt when the directory holds a newer version of the tenant, which
+ * also covers changes made through other instances. Since the hash only depends on the
+ * content, every instance and restart serves a bundle under the same URL, and a URL whose
+ * content changed is simply never requested again.
+ */
+@Service
+@RequiredArgsConstructor
+public class BrandingService {
+
+	/**
+	 * A serialized branding bundle.
+	 * @param hash the content hash, part of the bundle's URL
+	 * @param body the JSON body
+	 * @param version the directory version it was built from
+	 */
+	public record Bundle(String hash, byte[] body, long version) {
+	}
+
+	private final TenantDirectory tenantDirectory;
+
+	private final ObjectMapper objectMapper;
+
+	private final Map<String, Bundle> bundles = new ConcurrentHashMap<>();
+
+	/**
+	 * Gets the current branding bundle of a tenant.
+	 * @param identifier the tenant identifier
+	 * @return the bundle, if the tenant exists and is active
+	 */
+	public Optional<Bundle> bundleOf(String identifier) {
+		Optional<TenantDirectory.Entry> entry = tenantDirectory.resolve(identifier)
+			.filter(found -> found.tenant().active());
+		if (entry.isEmpty()) {
+			bundles.remove(identifier);
+			return Optional.empty();
+		}
+		Bundle bundle = bundles.get(identifier);
+		if (bundle == null || bundle.version() != entry.get().version()) {
+			bundle = build(entry.get());
+			bundles.put(identifier, bundle);
+		}
+		return Optional.of(bundle);
+	}
+
+	/**
+	 * Drops a tenant's bundle once a change to it has committed.
+	 * @param event the change
+	 */
+	@TransactionalEventListener
+	public void onTenantChanged(TenantChanged event) {
+		bundles.remove(event.identifier());
+	}
+
+	private Bundle build(TenantDirectory.Entry entry) {
+		TenantRecord tenant = entry.tenant();
+		try {
+			byte[] body = objectMapper.writeValueAsBytes(
+					new BrandingDTO(tenant.identifier(), tenant.name(), tenant.primaryColor(), tenant.logoUrl()));
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+			return new Bundle(HexFormat.of().formatHex(digest, 0, 8), body, entry.version());
+		}
+		catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Cannot build branding bundle for tenant " + tenant.identifier(), e);
+		}
+	}
+
+}
@@ -1,16 +1,31 @@
 package com.example.tenantregistry.service;
 
+import com.example.tenantregistry.dto.BulkImportUsersDTO;
+import com.example.tenantregistry.dto.ImportUserRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.representations.idm.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Service for managing Keycloak realms, clients, roles, and users.
@@ -18,10 +33,13 @@ import java.util.Optional;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Observed(name = "keycloak.admin")
 public class KeycloakService {
 
 	private final Keycloak keycloak;
 
+	private final RealmDirectory realmDirectory;
+
 	@Value("${keycloak.default-client-id:product-management}")
 	private String defaultClientId;
 
@@ -31,6 +49,9 @@ public class KeycloakService {
 	@Value("${keycloak.default-admin-role:tenant-admin}")
 	private String defaultAdminRole;
 
+	@Value("${keycloak.user-import.chunk-size:500}")
+	private int importChunkSize;
+
 	/**
 	 * Creates a new realm for a tenant.
 	 * @param realmId the ID of the realm to create
@@ -55,6 +76,7 @@ public class KeycloakService {
 		realm.setRegistrationEmailAsUsername(true);
 
 		keycloak.realms().create(realm);
+		realmDirectory.created(realmId);
 		log.info("Realm created: {}", realmId);
 
 		// Create default client
@@ -66,13 +88,26 @@ public class KeycloakService {
 		return true;
 	}
 
+	/**
+	 * Creates a realm with its default client and admin role, completing whatever an
+	 * earlier, interrupted attempt left out. Safe to call repeatedly.
+	 * @param realmId the ID of the realm
+	 * @param displayName the display name of the realm
+	 */
+	public void ensureRealm(String realmId, String displayName) {
+		if (!createRealm(realmId, displayName)) {
+			createClient(realmId, defaultClientId, defaultClientSecret);
+			createRole(realmId, defaultAdminRole);
+		}
+	}
+
 	/**
 	 * Checks if a realm exists.
 	 * @param realmId the ID of the realm to check
 	 * @return true if the realm exists
 	 */
 	public boolean realmExists(String realmId) {
-		return keycloak.realms().findAll().stream().anyMatch(r -> r.getRealm().equals(realmId));
+		return realmDirectory.exists(realmId);
 	}
 
 	/**
@@ -88,7 +123,7 @@ public class KeycloakService {
 		var realm = keycloak.realm(realmId);
 
 		// Check if client already exists
-		if (realm.clients().findByClientId(clientId).stream().findFirst().isPresent()) {
+		if (!realm.clients().findByClientId(clientId).isEmpty()) {
 			log.info("Client already exists: {} in realm: {}", clientId, realmId);
 			return Optional.empty();
 		}
@@ -124,7 +159,7 @@ public class KeycloakService {
 		var realm = keycloak.realm(realmId);
 
 		// Check if role already exists
-		if (realm.roles().list().stream().anyMatch(r -> r.getName().equals(roleName))) {
+		if (roleExists(realm, roleName)) {
 			log.info("Role already exists: {} in realm: {}", roleName, realmId);
 			return false;
 		}
@@ -158,7 +193,7 @@ public class KeycloakService {
 		var realm = keycloak.realm(realmId);
 
 		// Check if user already exists
-		if (realm.users().search(username).stream().findFirst().isPresent()) {
+		if (!realm.users().search(username, true).isEmpty()) {
 			log.info("User already exists: {} in realm: {}", username, realmId);
 			return Optional.empty();
 		}
@@ -191,6 +226,113 @@ public class KeycloakService {
 		return Optional.of(userId);
 	}
 
+	/**
+	 * Imports many users into a realm with the partial import API.
+	 * <p>
+	 * Users, their passwords and realm role mappings go out as one payload per chunk of
+	 * {@code keycloak.user-import.chunk-size} users, instead of five admin calls per user.
+	 * Existing users are skipped. Keycloak applies a chunk atomically, so a rejected chunk
+	 * fails all of its users; the others are unaffected.
+	 * @param realmId the ID of the realm
+	 * @param users the users to import
+	 * @return the outcome per user, in request order
+	 */
+	public BulkImportUsersDTO importUsers(String realmId, List<ImportUserRequest> users) {
+		log.info("Importing {} users into realm: {}", users.size(), realmId);
+
+		var realm = keycloak.realm(realmId);
+
+		// Keycloak stores usernames in lower case
+		Set<String> seen = new HashSet<>();
+		List<ImportUserRequest> unique = new ArrayList<>();
+		for (ImportUserRequest user : users) {
+			if (seen.add(user.username().toLowerCase(Locale.ROOT))) {
+				unique.add(user);
+			}
+		}
+
+		Map<String, BulkImportUsersDTO.Item> results = new HashMap<>();
+		for (int from = 0; from < unique.size(); from += importChunkSize) {
+			List<ImportUserRequest> chunk = unique.subList(from, Math.min(from + importChunkSize, unique.size()));
+			PartialImportRepresentation payload = new PartialImportRepresentation();
+			payload.setIfResourceExists(PartialImportRepresentation.Policy.SKIP.name());
+			payload.setUsers(chunk.stream().map(this::toRepresentation).toList());
+
+			String error;
+			try (Response response = realm.partialImport(payload)) {
+				if (response.getStatus() == Response.Status.OK.getStatusCode()) {
+					for (JsonNode result : response.readEntity(JsonNode.class).path("results")) {
+						if ("USER".equals(result.path("resourceType").asText())) {
+							String username = result.path("resourceName").asText().toLowerCase(Locale.ROOT);
+							String action = result.path("action").asText();
+							String userId = "ADDED".equals(action) ? result.path("id").asText(null) : null;
+							results.put(username, new BulkImportUsersDTO.Item(username, action, userId, null));
+						}
+					}
+					log.info("Imported chunk of {} users into realm: {}", chunk.size(), realmId);
+					continue;
+				}
+				error = "Keycloak returned " + response.getStatus() + ": " + response.readEntity(String.class);
+			}
+			catch (WebApplicationException | ProcessingException ex) {
+				error = ex.getMessage();
+			}
+			log.warn("Importing chunk of {} users into realm {} failed: {}", chunk.size(), realmId, error);
+			for (ImportUserRequest user : chunk) {
+				String username = user.username().toLowerCase(Locale.ROOT);
+				results.put(username, new BulkImportUsersDTO.Item(username, "FAILED", null, error));
+			}
+		}
+
+		Set<String> reported = new HashSet<>();
+		List<BulkImportUsersDTO.Item> items = new ArrayList<>();
+		for (ImportUserRequest user : users) {
+			String username = user.username().toLowerCase(Locale.ROOT);
+			if (!reported.add(username)) {
+				items.add(new BulkImportUsersDTO.Item(username, "DUPLICATE", null, null));
+			}
+			else {
+				items.add(results.getOrDefault(username,
+						new BulkImportUsersDTO.Item(username, "FAILED", null, "Not reported by Keycloak")));
+			}
+		}
+		Map<String, Long> counts = new TreeMap<>();
+		items.forEach(item -> counts.merge(item.outcome(), 1L, Long::sum));
+		log.info("Imported users into realm {}: {}", realmId, counts);
+
+		return new BulkImportUsersDTO(realmId, counts, items);
+	}
+
+	/**
+	 * Disables a realm: its users can no longer log in or refresh tokens, while its
+	 * data stays in place.
+	 * @param realmId the ID of the realm to disable
+	 * @return true if the realm was disabled, false if it didn't exist
+	 */
+	public boolean disableRealm(String realmId) {
+		log.info("Disabling realm: {}", realmId);
+
+		if (!realmExists(realmId)) {
+			log.info("Realm doesn't exist: {}", realmId);
+			return false;
+		}
+
+		// partial representation: Keycloak only updates the attributes that are set
+		RealmRepresentation update = new RealmRepresentation();
+		update.setEnabled(false);
+		try {
+			keycloak.realm(realmId).update(update);
+		}
+		catch (NotFoundException ex) {
+			realmDirectory.deleted(realmId);
+			log.info("Realm doesn't exist: {}", realmId);
+			return false;
+		}
+		log.info("Realm disabled: {}", realmId);
+
+		return true;
+	}
+
 	/**
 	 * Deletes a realm.
 	 * @param realmId the ID of the realm to delete
@@ -204,10 +346,56 @@ public class KeycloakService {
 			return false;
 		}
 
-		keycloak.realm(realmId).remove();
+		try {
+			keycloak.realm(realmId).remove();
+		}
+		catch (NotFoundException ex) {
+			// removed outside this service since the directory last saw it
+			realmDirectory.deleted(realmId);
+			log.info("Realm doesn't exist: {}", realmId);
+			return false;
+		}
+		realmDirectory.deleted(realmId);
 		log.info("Realm deleted: {}", realmId);
 
 		return true;
 	}
 
-}
\ No newline at end of file
+	private UserRepresentation toRepresentation(ImportUserRequest request) {
+		UserRepresentation user = new UserRepresentation();
+		user.setUsername(request.username());
+		user.setEmail(request.email());
+		user.setFirstName(request.firstName());
+		user.setLastName(request.lastName());
+		user.setEnabled(true);
+		user.setEmailVerified(request.email() != null);
+		if (request.password() != null) {
+			CredentialRepresentation credential = new CredentialRepresentation();
+			credential.setType(CredentialRepresentation.PASSWORD);
+			credential.setValue(request.password());
+			credential.setTemporary(request.temporaryPassword());
+			user.setCredentials(List.of(credential));
+		}
+		if (request.roles() != null && !request.roles().isEmpty()) {
+			user.setRealmRoles(request.roles());
+		}
+		return user;
+	}
+
+	/**
+	 * Looks up a single role instead of listing all roles of the realm.
+	 * @param realm the realm resource
+	 * @param roleName the name of the role
+	 * @return true if the role exists
+	 */
+	private boolean roleExists(RealmResource realm, String roleName) {
+		try {
+			realm.roles().get(roleName).toRepresentation();
+			return true;
+		}
+		catch (NotFoundException ex) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.repository.TenantRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Migrates tenant schemas when they are first used instead of all at once.
+ * <p>
+ * {@link #ensureCurrent(String)} returns immediately for schemas known to be at the
+ * changelog version. Otherwise the first caller migrates the schema and concurrent callers
+ * for the same schema wait for that one migration; other instances are held off by the
+ * schema's Liquibase lock. With {@code tenant.migration.lazy.enabled}, a sweeper also
+ * migrates schemas nobody has touched, a small batch at a time with pauses in between,
+ * so dormant tenants are caught up without competing with live traffic. The sweeper runs
+ * on its own thread, as its pauses would otherwise stall every other scheduled task.
+ */
+@Slf4j
+@Service
+public class LazySchemaMigrator {
+
+	/**
+	 * Outcome of {@link #ensureCurrent(String)}.
+	 */
+	public enum Result {
+
+		/** The schema is at the changelog version. */
+		CURRENT,
+
+		/** The migration is still running after the wait timeout. */
+		PENDING,
+
+		/** The migration failed. */
+		FAILED
+
+	}
+
+	private final LiquibaseService liquibaseService;
+
+	private final TenantRepository tenantRepository;
+
+	private final ThreadPoolTaskExecutor sweepExecutor;
+
+	/** Schemas known to be at the changelog version in this process. */
+	private final Set<String> current = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+	private volatile boolean stopping;
+
+	@Value("${tenant.migration.lazy.enabled:false}")
+	private boolean sweeperEnabled;
+
+	@Value("${tenant.migration.lazy.wait-timeout:PT1M}")
+	private Duration waitTimeout;
+
+	@Value("${tenant.migration.lazy.sweep-batch:20}")
+	private int sweepBatch;
+
+	@Value("${tenant.migration.lazy.sweep-pause:PT2S}")
+	private Duration sweepPause;
+
+	public LazySchemaMigrator(LiquibaseService liquibaseService, TenantRepository tenantRepository,
+			@Qualifier("lazyMigrationExecutor") ThreadPoolTaskExecutor sweepExecutor) {
+		this.liquibaseService = liquibaseService;
+		this.tenantRepository = tenantRepository;
+		this.sweepExecutor = sweepExecutor;
+	}
+
+	/**
+	 * Makes sure a schema is migrated to the changelog version, migrating it if needed.
+	 * @param schemaName the name of the schema
+	 * @return whether the schema is current, still migrating, or failed to migrate
+	 */
+	public Result ensureCurrent(String schemaName) {
+		if (current.contains(schemaName)) {
+			return Result.CURRENT;
+		}
+		CompletableFuture<Boolean> mine = new CompletableFuture<>();
+		CompletableFuture<Boolean> running = inFlight.putIfAbsent(schemaName, mine);
+		if (running == null) {
+			try {
+				boolean migrated = migrate(schemaName);
+				mine.complete(migrated);
+				return migrated ? Result.CURRENT : Result.FAILED;
+			}
+			catch (RuntimeException ex) {
+				mine.completeExceptionally(ex);
+				throw ex;
+			}
+			finally {
+				inFlight.remove(schemaName, mine);
+			}
+		}
+		try {
+			return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS) ? Result.CURRENT : Result.FAILED;
+		}
+		catch (TimeoutException ex) {
+			return Result.PENDING;
+		}
+		catch (ExecutionException ex) {
+			return Result.FAILED;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return Result.PENDING;
+		}
+	}
+
+	/**
+	 * Starts migrating a batch of schemas that are behind the changelog, unless the
+	 * previous batch is still being worked through.
+	 */
+	@Scheduled(initialDelayString = "${tenant.migration.lazy.sweep-interval:PT5M}",
+			fixedDelayString = "${tenant.migration.lazy.sweep-interval:PT5M}")
+	public void sweep() {
+		if (!sweeperEnabled) {
+			return;
+		}
+		try {
+			sweepExecutor.execute(this::sweepBatch);
+		}
+		catch (TaskRejectedException ex) {
+			log.debug("Previous sweep still running, skipping this one");
+		}
+	}
+
+	/**
+	 * Migrates a batch of schemas that are behind the changelog, one at a time.
+	 */
+	void sweepBatch() {
+		List<String> behind;
+		try {
+			behind = tenantRepository.findDbSchemasBehind(liquibaseService.changelogVersion(),
+					PageRequest.of(0, sweepBatch));
+		}
+		catch (RuntimeException ex) {
+			log.warn("Listing schemas behind the changelog failed", ex);
+			return;
+		}
+		if (!behind.isEmpty()) {
+			log.info("Sweeping {} tenant schemas behind the changelog", behind.size());
+		}
+		for (String schemaName : behind) {
+			if (stopping) {
+				return;
+			}
+			if (!inFlight.containsKey(schemaName) && ensureCurrent(schemaName) == Result.FAILED) {
+				log.warn("Sweeper could not migrate schema {}", schemaName);
+			}
+			if (!pause()) {
+				return;
+			}
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		stopping = true;
+	}
+
+	private boolean migrate(String schemaName) {
+		boolean ok = liquibaseService.isCurrent(schemaName) || liquibaseService.migrateSchema(schemaName);
+		if (ok) {
+			current.add(schemaName);
+		}
+		return ok;
+	}
+
+	private boolean pause() {
+		try {
+			Thread.sleep(sweepPause.toMillis());
+			return true;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+}
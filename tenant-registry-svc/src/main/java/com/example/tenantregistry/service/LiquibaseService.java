@@ -3,44 +3,122 @@ package com.example.tenantregistry.service;
 import liquibase.Contexts;
 import liquibase.LabelExpression;
 import liquibase.Liquibase;
+import liquibase.changelog.ChangeLogParameters;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
 import liquibase.database.Database;
 import liquibase.database.DatabaseFactory;
 import liquibase.database.jvm.JdbcConnection;
 import liquibase.exception.LiquibaseException;
+import liquibase.parser.ChangeLogParserFactory;
 import liquibase.resource.ClassLoaderResourceAccessor;
+import liquibase.resource.ResourceAccessor;
+import com.example.tenantregistry.domain.SchemaVersion;
+import com.example.tenantregistry.repository.SchemaVersionRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ResourceUtils;
 
 import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Instant;
+import java.util.HexFormat;
 
 /**
  * Service for managing database schemas using Liquibase.
+ * <p>
+ * Tenant schemas and the template are migrated with the tenant changelog
+ * ({@code tenant.schema.change-log}), never with the registry's own
+ * {@code spring.liquibase.change-log}, so control-plane tables stay in the registry schema.
+ * <p>
+ * With {@code tenant.schema.template.enabled}, a template schema is kept migrated to the
+ * changelog head and new tenant schemas are cloned from it by {@link SchemaCloner} in one
+ * transaction, so creating a schema no longer replays every changeset. Schemas that
+ * already exist, and templates that cannot be cloned, are migrated with Liquibase.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Observed(name = "tenant.schema")
 public class LiquibaseService {
 
 	private final DataSource dataSource;
 
-	@Value("${spring.liquibase.change-log:classpath:db/changelog/db.changelog-master.xml}")
+	private final SchemaCloner schemaCloner;
+
+	private final SchemaVersionRepository schemaVersionRepository;
+
+	@Value("${tenant.schema.change-log:classpath:db/changelog/tenant/db.changelog-tenant.xml}")
 	private String changeLogPath;
 
+	@Value("${tenant.schema.template.enabled:true}")
+	private boolean templateEnabled;
+
+	@Value("${tenant.schema.template.name:tenant_template}")
+	private String templateSchema;
+
+	private final Object templateLock = new Object();
+
+	/** Whether the template is migrated and cloneable; null until prepared. */
+	private volatile Boolean templateReady;
+
+	/** Version of the changelog on the classpath; computed on first use. */
+	private volatile String changelogVersion;
+
+	/**
+	 * Migrates the template schema at startup, so the first tenant doesn't wait for it.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void prepareTemplate() {
+		if (templateEnabled) {
+			templateReady();
+		}
+	}
+
 	/**
-	 * Creates a new schema for a tenant and applies Liquibase migrations.
+	 * Checks if a schema name is reserved for the template schema.
+	 * @param schemaName the schema name
+	 * @return true if tenants must not use this schema name
+	 */
+	public boolean isTemplateSchema(String schemaName) {
+		return templateSchema.equals(schemaName);
+	}
+
+	/**
+	 * Creates a new schema for a tenant, cloned from the template or by applying
+	 * Liquibase migrations.
 	 * @param schemaName the name of the schema to create
 	 * @return true if the schema was created and migrations were applied, false if an
 	 * error occurred
 	 */
 	public boolean createSchema(String schemaName) {
 		log.info("Creating schema: {}", schemaName);
+		if (isTemplateSchema(schemaName)) {
+			log.error("Schema name {} is reserved for the template", schemaName);
+			return false;
+		}
+		long start = System.nanoTime();
+		boolean cloneable = templateEnabled && templateReady();
 
 		try (Connection connection = dataSource.getConnection()) {
+			if (cloneable && !exists(connection, schemaName) && cloneTemplate(connection, schemaName)) {
+				recordVersion(schemaName);
+				log.info("Schema {} cloned from template in {} ms", schemaName, (System.nanoTime() - start) / 1_000_000);
+				return true;
+			}
+
 			// Create schema if it doesn't exist
 			try (Statement stmt = connection.createStatement()) {
 				stmt.execute("CREATE SCHEMA IF NOT EXISTS " + schemaName);
@@ -49,6 +127,8 @@ public class LiquibaseService {
 
 			// Apply Liquibase migrations to the new schema
 			applyMigrations(connection, schemaName);
+			recordVersion(schemaName);
+			log.info("Schema {} migrated in {} ms", schemaName, (System.nanoTime() - start) / 1_000_000);
 
 			return true;
 		}
@@ -58,6 +138,164 @@ public class LiquibaseService {
 		}
 	}
 
+	/**
+	 * Applies pending Liquibase migrations to an existing schema.
+	 * @param schemaName the name of the schema
+	 * @return true if the schema is at the changelog head, false if an error occurred
+	 */
+	public boolean migrateSchema(String schemaName) {
+		try (Connection connection = dataSource.getConnection()) {
+			applyMigrations(connection, schemaName);
+			recordVersion(schemaName);
+			return true;
+		}
+		catch (SQLException | LiquibaseException e) {
+			log.error("Error migrating schema: {}", schemaName, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if a schema was last migrated to the current changelog.
+	 * @param schemaName the name of the schema
+	 * @return true if the schema's recorded version is the changelog's
+	 */
+	public boolean isCurrent(String schemaName) {
+		return schemaVersionRepository.findById(schemaName)
+			.map(version -> version.getChangelogVersion().equals(changelogVersion()))
+			.orElse(false);
+	}
+
+	/**
+	 * Gets the version of the tenant changelog: a hash of its changesets' file, ID and
+	 * author, in order, so it changes whenever a tenant changeset is added. Changes to the
+	 * registry's own changelog leave it, and so every tenant schema's currency and the
+	 * {@link TenantDirectory} epoch, untouched.
+	 * @return the changelog version
+	 * @throws IllegalStateException if the changelog cannot be parsed
+	 */
+	public String changelogVersion() {
+		String version = changelogVersion;
+		if (version == null) {
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				for (ChangeSet changeSet : parseChangeLog().getChangeSets()) {
+					String key = changeSet.getFilePath() + "::" + changeSet.getId() + "::" + changeSet.getAuthor();
+					digest.update((key + "\n").getBytes(StandardCharsets.UTF_8));
+				}
+				version = HexFormat.of().formatHex(digest.digest());
+				changelogVersion = version;
+			}
+			catch (LiquibaseException | NoSuchAlgorithmException e) {
+				throw new IllegalStateException("Cannot determine the changelog version of " + changeLogPath, e);
+			}
+		}
+		return version;
+	}
+
+	private void recordVersion(String schemaName) {
+		schemaVersionRepository.save(SchemaVersion.builder()
+			.schemaName(schemaName)
+			.changelogVersion(changelogVersion())
+			.migratedAt(Instant.now())
+			.build());
+	}
+
+	/**
+	 * Releases the Liquibase lock of a schema, left held by a migration that was
+	 * interrupted. Must only be called when no migration of the schema is running.
+	 * @param schemaName the name of the schema
+	 * @return true if the lock is released, false if an error occurred
+	 */
+	public boolean releaseLock(String schemaName) {
+		log.info("Releasing Liquibase lock of schema: {}", schemaName);
+
+		try (Connection connection = dataSource.getConnection(); Statement stmt = connection.createStatement()) {
+
+			stmt.execute("UPDATE " + schemaName
+					+ ".databasechangeloglock SET locked = FALSE, lockgranted = NULL, lockedby = NULL");
+			return true;
+		}
+		catch (SQLException e) {
+			log.error("Error releasing Liquibase lock of schema: {}", schemaName, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Clones the template into a new schema in a single transaction.
+	 * @param connection the database connection
+	 * @param schemaName the name of the schema to create
+	 * @return true if the schema was cloned, false if it must be migrated instead
+	 */
+	private boolean cloneTemplate(Connection connection, String schemaName) throws SQLException {
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			if (schemaCloner.clone(connection, templateSchema, schemaName)) {
+				connection.commit();
+				return true;
+			}
+			connection.rollback();
+			templateReady = false;
+			return false;
+		}
+		catch (SQLException e) {
+			connection.rollback();
+			log.warn("Cloning template into schema {} failed, migrating it instead", schemaName, e);
+			return false;
+		}
+		finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/**
+	 * Migrates the template schema to the changelog head, once per process.
+	 * <p>
+	 * Cloning is turned off if the changelog has changesets restricted to contexts: those
+	 * are meant for individual tenants, which the template cannot stand in for.
+	 * @return true if the template can be cloned
+	 */
+	private boolean templateReady() {
+		Boolean ready = templateReady;
+		if (ready != null) {
+			return ready;
+		}
+		synchronized (templateLock) {
+			if (templateReady == null) {
+				try (Connection connection = dataSource.getConnection()) {
+					try (Statement stmt = connection.createStatement()) {
+						stmt.execute("CREATE SCHEMA IF NOT EXISTS " + templateSchema);
+					}
+					applyMigrations(connection, templateSchema);
+					log.info("Template schema {} is at the changelog head", templateSchema);
+				}
+				catch (Exception e) {
+					// Retried on the next schema creation
+					log.warn("Error preparing template schema: {}", templateSchema, e);
+					return false;
+				}
+				boolean contextFree = !hasContextChangeSets();
+				if (!contextFree) {
+					log.warn("Changelog has context-specific changesets; tenant schemas will be migrated");
+				}
+				templateReady = contextFree;
+			}
+			return templateReady;
+		}
+	}
+
+	private static boolean exists(Connection connection, String schemaName) throws SQLException {
+		try (PreparedStatement stmt = connection
+			.prepareStatement("SELECT EXISTS(SELECT 1 FROM pg_namespace WHERE nspname = ?)")) {
+			stmt.setString(1, schemaName);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() && rs.getBoolean(1);
+			}
+		}
+	}
+
 	/**
 	 * Applies Liquibase migrations to a schema.
 	 * @param connection the database connection
@@ -78,7 +316,7 @@ public class LiquibaseService {
 			.findCorrectDatabaseImplementation(new JdbcConnection(connection));
 		database.setDefaultSchemaName(schemaName);
 
-		try (Liquibase liquibase = new Liquibase(changeLogPath, new ClassLoaderResourceAccessor(), database)) {
+		try (Liquibase liquibase = new Liquibase(changeLogResource(), new ClassLoaderResourceAccessor(), database)) {
 
 			// Use the schema name as the context to allow for tenant-specific migrations
 			liquibase.update(new Contexts(schemaName), new LabelExpression());
@@ -86,6 +324,37 @@ public class LiquibaseService {
 		}
 	}
 
+	/**
+	 * Checks if the changelog has changesets restricted to contexts. A parse failure
+	 * counts as yes, so the template is only cloned when the changelog is known.
+	 * @return true if any changeset declares a context
+	 */
+	private boolean hasContextChangeSets() {
+		try {
+			return parseChangeLog().getChangeSets()
+				.stream()
+				.map(ChangeSet::getContextFilter)
+				.anyMatch(filter -> filter != null && !filter.isEmpty());
+		}
+		catch (LiquibaseException e) {
+			log.warn("Error parsing changelog: {}", changeLogPath, e);
+			return true;
+		}
+	}
+
+	/** The changelog path as the class loader knows it, without Spring's {@code classpath:}. */
+	private String changeLogResource() {
+		return changeLogPath.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)
+				? changeLogPath.substring(ResourceUtils.CLASSPATH_URL_PREFIX.length()) : changeLogPath;
+	}
+
+	private DatabaseChangeLog parseChangeLog() throws LiquibaseException {
+		ResourceAccessor resourceAccessor = new ClassLoaderResourceAccessor();
+		return ChangeLogParserFactory.getInstance()
+			.getParser(changeLogResource(), resourceAccessor)
+			.parse(changeLogResource(), new ChangeLogParameters(), resourceAccessor);
+	}
+
 	/**
 	 * Drops a schema.
 	 * @param schemaName the name of the schema to drop
@@ -97,6 +366,7 @@ public class LiquibaseService {
 		try (Connection connection = dataSource.getConnection(); Statement stmt = connection.createStatement()) {
 
 			stmt.execute("DROP SCHEMA IF EXISTS " + schemaName + " CASCADE");
+			schemaVersionRepository.deleteById(schemaName);
 			log.info("Schema dropped: {}", schemaName);
 
 			return true;
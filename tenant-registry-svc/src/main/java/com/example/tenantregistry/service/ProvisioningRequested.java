@@ -0,0 +1,9 @@
+package com.example.tenantregistry.service;
+
+/**
+ * Published when a provisioning job has been stored; handled after the surrounding
+ * transaction commits, so the job row is visible to the worker threads.
+ * @param jobId the ID of the stored job
+ */
+public record ProvisioningRequested(Long jobId) {
+}
@@ -0,0 +1,88 @@
+package com.example.tenantregistry.service;
+
+import jakarta.ws.rs.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Directory of Keycloak realm names, so existence checks don't download every realm.
+ * <p>
+ * Known realms are answered from memory. Unknown names are checked with a single-realm
+ * lookup and remembered when found. {@link KeycloakService} records creates and deletes,
+ * and a periodic reconciliation picks up realms created or removed outside this service.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RealmDirectory {
+
+	private final Keycloak keycloak;
+
+	private final Set<String> realms = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Checks if a realm exists.
+	 * @param realmId the ID of the realm
+	 * @return true if the realm exists
+	 */
+	public boolean exists(String realmId) {
+		if (realms.contains(realmId)) {
+			return true;
+		}
+		try {
+			RealmRepresentation realm = keycloak.realm(realmId).toRepresentation();
+			realms.add(realm.getRealm());
+			return true;
+		}
+		catch (NotFoundException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Records a realm created by this service.
+	 * @param realmId the ID of the realm
+	 */
+	public void created(String realmId) {
+		realms.add(realmId);
+	}
+
+	/**
+	 * Records a realm deleted by this service.
+	 * @param realmId the ID of the realm
+	 */
+	public void deleted(String realmId) {
+		realms.remove(realmId);
+	}
+
+	/**
+	 * Replaces the directory with the realms Keycloak currently has. This is the only
+	 * full listing and runs off the request path.
+	 */
+	@Scheduled(initialDelayString = "${keycloak.realm-directory.reconcile-interval:PT10M}",
+			fixedDelayString = "${keycloak.realm-directory.reconcile-interval:PT10M}")
+	public void reconcile() {
+		try {
+			Set<String> current = keycloak.realms()
+				.findAll()
+				.stream()
+				.map(RealmRepresentation::getRealm)
+				.collect(Collectors.toSet());
+			realms.retainAll(current);
+			realms.addAll(current);
+			log.debug("Realm directory reconciled: {} realms", current.size());
+		}
+		catch (RuntimeException ex) {
+			log.warn("Realm directory reconciliation failed", ex);
+		}
+	}
+
+}
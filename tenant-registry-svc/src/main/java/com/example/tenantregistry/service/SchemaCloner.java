@@ -0,0 +1,270 @@
+package com.example.tenantregistry.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies the DDL of a migrated template schema into a new schema, in the caller's
+ * transaction.
+ * <p>
+ * Tables are created with {@code LIKE ... INCLUDING} (columns, defaults, checks, identity,
+ * generated columns), then sequences, primary and unique keys, indexes and foreign keys
+ * are recreated under their original names, so later changesets that refer to them by
+ * name still apply. Sequences owned by a column in the template are owned by the copied
+ * column, so dropping the column or table drops them as well. Rows are copied too: the template only holds what the changelog
+ * seeded, plus the Liquibase {@code databasechangelog}, which stamps the new schema as
+ * migrated up to the template's head.
+ * <p>
+ * Catalog definitions are read with the template on the search path, so references
+ * between its objects come back unqualified and resolve to the new schema's copies.
+ * Templates containing objects this class cannot copy (views, routines, triggers, custom
+ * types, partitioned or foreign tables) are rejected and must be migrated instead.
+ */
+@Slf4j
+@Component
+public class SchemaCloner {
+
+	private static final String LOCK_TABLE = "databasechangeloglock";
+
+	private static final String UNSUPPORTED_OBJECTS = """
+			SELECT (SELECT count(*) FROM pg_class c
+			        WHERE c.relnamespace = n.oid AND c.relkind IN ('v', 'm', 'p', 'f'))
+			     + (SELECT count(*) FROM pg_proc p WHERE p.pronamespace = n.oid)
+			     + (SELECT count(*) FROM pg_trigger t JOIN pg_class c ON c.oid = t.tgrelid
+			        WHERE c.relnamespace = n.oid AND NOT t.tgisinternal)
+			     + (SELECT count(*) FROM pg_type t
+			        WHERE t.typnamespace = n.oid AND (t.typtype IN ('e', 'd', 'r', 'm')
+			          OR (t.typtype = 'c' AND EXISTS (SELECT 1 FROM pg_class c
+			                                          WHERE c.oid = t.typrelid AND c.relkind = 'c'))))
+			FROM pg_namespace n WHERE n.nspname = ?
+			""";
+
+	private static final String SEQUENCES = """
+			SELECT s.sequencename, s.data_type, s.start_value, s.min_value, s.max_value,
+			       s.increment_by, s.cycle, s.cache_size, s.last_value, d.deptype, c.relname, a.attname
+			FROM pg_sequences s
+			LEFT JOIN pg_depend d ON d.classid = 'pg_class'::regclass
+			     AND d.objid = format('%I.%I', s.schemaname, s.sequencename)::regclass
+			     AND d.refclassid = 'pg_class'::regclass AND d.deptype IN ('a', 'i')
+			LEFT JOIN pg_class c ON c.oid = d.refobjid
+			LEFT JOIN pg_attribute a ON a.attrelid = d.refobjid AND a.attnum = d.refobjsubid
+			WHERE s.schemaname = ?
+			""";
+
+	private static final String TABLES = """
+			SELECT c.relname, string_agg(quote_ident(a.attname), ', ' ORDER BY a.attnum)
+			FROM pg_class c
+			JOIN pg_namespace n ON n.oid = c.relnamespace
+			JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped
+			     AND a.attgenerated = ''
+			WHERE n.nspname = ? AND c.relkind = 'r'
+			GROUP BY c.relname
+			ORDER BY c.relname
+			""";
+
+	private static final String SEQUENCE_DEFAULTS = """
+			SELECT c.relname, a.attname, pg_get_expr(ad.adbin, ad.adrelid)
+			FROM pg_attrdef ad
+			JOIN pg_class c ON c.oid = ad.adrelid
+			JOIN pg_namespace n ON n.oid = c.relnamespace
+			JOIN pg_attribute a ON a.attrelid = ad.adrelid AND a.attnum = ad.adnum
+			WHERE n.nspname = ? AND c.relkind = 'r' AND a.attgenerated = ''
+			  AND pg_get_expr(ad.adbin, ad.adrelid) LIKE '%nextval(%'
+			""";
+
+	private static final String CONSTRAINTS = """
+			SELECT c.relname, con.conname, pg_get_constraintdef(con.oid)
+			FROM pg_constraint con
+			JOIN pg_class c ON c.oid = con.conrelid
+			JOIN pg_namespace n ON n.oid = c.relnamespace
+			WHERE n.nspname = ? AND con.contype IN ('p', 'u', 'x', 'f')
+			ORDER BY con.contype = 'f', c.relname, con.conname
+			""";
+
+	private static final String INDEXES = """
+			SELECT pg_get_indexdef(i.indexrelid)
+			FROM pg_index i
+			JOIN pg_class c ON c.oid = i.indrelid
+			JOIN pg_namespace n ON n.oid = c.relnamespace
+			WHERE n.nspname = ? AND c.relkind = 'r'
+			  AND NOT EXISTS (SELECT 1 FROM pg_constraint con
+			                  WHERE con.conindid = i.indexrelid AND con.contype IN ('p', 'u', 'x'))
+			""";
+
+	/**
+	 * Creates a schema as a copy of the template. Must run inside a transaction, so a
+	 * failure leaves nothing behind.
+	 * @param connection the connection, with auto-commit disabled
+	 * @param template the name of the migrated template schema
+	 * @param schemaName the name of the schema to create; must not exist yet
+	 * @return true if the schema was created, false if the template holds objects that
+	 * cannot be cloned (nothing is created then)
+	 * @throws SQLException if reading the template or creating the copy fails
+	 */
+	public boolean clone(Connection connection, String template, String schemaName) throws SQLException {
+		if (connection.getAutoCommit()) {
+			throw new IllegalStateException("Schema cloning requires a transaction");
+		}
+		execute(connection, "SET LOCAL search_path TO " + template);
+		if (queryLong(connection, UNSUPPORTED_OBJECTS, template) > 0) {
+			log.warn("Template schema {} contains objects that cannot be cloned", template);
+			return false;
+		}
+
+		List<String> ddl = new ArrayList<>();
+		List<String> copies = new ArrayList<>();
+		List<SequenceValue> sequenceValues = new ArrayList<>();
+		List<String> ownerships = new ArrayList<>();
+		Set<String> identityTables = new HashSet<>();
+
+		try (PreparedStatement stmt = connection.prepareStatement(SEQUENCES)) {
+			stmt.setString(1, template);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					String sequence = rs.getString(1);
+					boolean identity = "i".equals(rs.getString(10));
+					if (identity) {
+						// Recreated by LIKE ... INCLUDING IDENTITY, possibly under another name
+						identityTables.add(rs.getString(11));
+					}
+					else {
+						ddl.add("CREATE SEQUENCE " + qualify(schemaName, sequence) + " AS " + rs.getString(2)
+								+ " INCREMENT BY " + rs.getLong(6) + " MINVALUE " + rs.getLong(4) + " MAXVALUE "
+								+ rs.getLong(5) + " START WITH " + rs.getLong(3) + " CACHE " + rs.getLong(8)
+								+ (rs.getBoolean(7) ? " CYCLE" : " NO CYCLE"));
+						if ("a".equals(rs.getString(10))) {
+							// Serial sequences go with their column, as in the template
+							ownerships.add("ALTER SEQUENCE " + qualify(schemaName, sequence) + " OWNED BY "
+									+ qualify(schemaName, rs.getString(11)) + "." + quote(rs.getString(12)));
+						}
+					}
+					long lastValue = rs.getLong(9);
+					if (!rs.wasNull()) {
+						sequenceValues.add(identity
+								? new SequenceValue(qualify(schemaName, rs.getString(11)), rs.getString(12), lastValue)
+								: new SequenceValue(qualify(schemaName, sequence), null, lastValue));
+					}
+				}
+			}
+		}
+
+		for (String[] table : queryRows(connection, TABLES, template, 2)) {
+			ddl.add("CREATE TABLE " + qualify(schemaName, table[0]) + " (LIKE " + qualify(template, table[0])
+					+ " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING IDENTITY INCLUDING GENERATED"
+					+ " INCLUDING STORAGE INCLUDING COMMENTS)");
+			if (!LOCK_TABLE.equals(table[0])) {
+				copies.add("INSERT INTO " + qualify(schemaName, table[0]) + " (" + table[1] + ")"
+						+ (identityTables.contains(table[0]) ? " OVERRIDING SYSTEM VALUE" : "") + " SELECT "
+						+ table[1] + " FROM " + qualify(template, table[0]));
+			}
+		}
+
+		// Serial defaults still point at the template's sequences until rewritten
+		for (String[] column : queryRows(connection, SEQUENCE_DEFAULTS, template, 3)) {
+			ddl.add("ALTER TABLE " + qualify(schemaName, column[0]) + " ALTER COLUMN " + quote(column[1])
+					+ " SET DEFAULT " + column[2]);
+		}
+		ddl.addAll(ownerships);
+		List<String> constraints = queryRows(connection, CONSTRAINTS, template, 3).stream()
+			.map(constraint -> "ALTER TABLE " + qualify(schemaName, constraint[0]) + " ADD CONSTRAINT "
+					+ quote(constraint[1]) + " " + constraint[2])
+			.toList();
+		List<String> indexes = queryRows(connection, INDEXES, template, 1).stream()
+			.map(index -> index[0].replace(" ON " + template + ".", " ON "))
+			.toList();
+
+		// Everything below resolves unqualified names in the new schema
+		execute(connection, "CREATE SCHEMA " + schemaName);
+		execute(connection, "SET LOCAL search_path TO " + schemaName);
+		for (String statement : ddl) {
+			execute(connection, statement);
+		}
+		for (String statement : copies) {
+			execute(connection, statement);
+		}
+		for (SequenceValue value : sequenceValues) {
+			String sql = value.column() == null ? "SELECT setval(?::regclass, ?)"
+					: "SELECT setval(pg_get_serial_sequence(?, ?), ?)";
+			try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+				int index = 1;
+				stmt.setString(index++, value.relation());
+				if (value.column() != null) {
+					stmt.setString(index++, value.column());
+				}
+				stmt.setLong(index, value.lastValue());
+				stmt.execute();
+			}
+		}
+		// Keys before indexes and foreign keys, which may depend on them
+		for (String statement : constraints) {
+			execute(connection, statement);
+		}
+		for (String statement : indexes) {
+			execute(connection, statement);
+		}
+		log.debug("Cloned {} statements from template {} into schema {}",
+				ddl.size() + copies.size() + constraints.size() + indexes.size(), template, schemaName);
+		return true;
+	}
+
+	private static void execute(Connection connection, String sql) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute(sql);
+		}
+	}
+
+	private static long queryLong(Connection connection, String sql, String schema) throws SQLException {
+		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setString(1, schema);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getLong(1) : 0;
+			}
+		}
+	}
+
+	private static List<String[]> queryRows(Connection connection, String sql, String schema, int columns)
+			throws SQLException {
+		List<String[]> rows = new ArrayList<>();
+		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setString(1, schema);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					String[] row = new String[columns];
+					for (int i = 0; i < columns; i++) {
+						row[i] = rs.getString(i + 1);
+					}
+					rows.add(row);
+				}
+			}
+		}
+		return rows;
+	}
+
+	private static String qualify(String schema, String name) {
+		return schema + "." + quote(name);
+	}
+
+	private static String quote(String identifier) {
+		return "\"" + identifier.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * Current value of a template sequence, to carry over to its copy.
+	 * @param relation the copied sequence, or the table owning the identity column
+	 * @param column the identity column, or null for a standalone sequence
+	 * @param lastValue the template sequence's last value
+	 */
+	private record SequenceValue(String relation, String column, long lastValue) {
+	}
+
+}
@@ -0,0 +1,226 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.domain.SchemaMigration;
+import com.example.tenantregistry.domain.SchemaMigration.Status;
+import com.example.tenantregistry.dto.MigrationRunDTO;
+import com.example.tenantregistry.repository.SchemaMigrationRepository;
+import com.example.tenantregistry.repository.TenantRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Migrates every tenant schema to the changelog head, in parallel.
+ * <p>
+ * A run records one {@link SchemaMigration} per schema in {@code tenants.db_schema} and
+ * hands them to {@code tenant.migration.concurrency} workers. Each worker takes the next
+ * pending schema, so a slow or failing schema only holds up its own worker and the
+ * upgrade time is bounded by parallelism rather than tenant count. Failures are recorded
+ * and never stop the run.
+ * <p>
+ * Unfinished schemas are resumed on startup; a schema interrupted while running first has
+ * its Liquibase lock released. With {@code tenant.migration.on-startup}, every startup
+ * that finds no unfinished run starts a new one, which migrates all schemas after a
+ * deployment.
+ */
+@Slf4j
+@Service
+public class SchemaMigrationRunner {
+
+	private static final List<Status> UNFINISHED = List.of(Status.PENDING, Status.RUNNING);
+
+	private final SchemaMigrationRepository migrationRepository;
+
+	private final TenantRepository tenantRepository;
+
+	private final LiquibaseService liquibaseService;
+
+	private final ThreadPoolTaskExecutor migrationExecutor;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Queue<SchemaMigration> pending = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger workers = new AtomicInteger();
+
+	private volatile boolean stopping;
+
+	@Value("${tenant.migration.concurrency:4}")
+	private int concurrency;
+
+	@Value("${tenant.migration.on-startup:false}")
+	private boolean onStartup;
+
+	public SchemaMigrationRunner(SchemaMigrationRepository migrationRepository, TenantRepository tenantRepository,
+			LiquibaseService liquibaseService, @Qualifier("migrationExecutor") ThreadPoolTaskExecutor migrationExecutor,
+			MeterRegistry meterRegistry) {
+		this.migrationRepository = migrationRepository;
+		this.tenantRepository = tenantRepository;
+		this.liquibaseService = liquibaseService;
+		this.migrationExecutor = migrationExecutor;
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("tenant.migration.schemas", pending, Queue::size)
+			.description("Tenant schemas waiting to be migrated")
+			.tag("state", "pending")
+			.register(meterRegistry);
+		Gauge.builder("tenant.migration.schemas", running, AtomicInteger::get)
+			.description("Tenant schemas being migrated")
+			.tag("state", "running")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Resumes an interrupted run, or starts a new one if configured to.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumeUnfinished() {
+		List<SchemaMigration> unfinished = migrationRepository.findByStatusIn(UNFINISHED);
+		if (unfinished.isEmpty()) {
+			if (onStartup) {
+				startRun();
+			}
+			return;
+		}
+		log.info("Resuming migration of {} tenant schemas", unfinished.size());
+		for (SchemaMigration migration : unfinished) {
+			if (migration.getStatus() == Status.RUNNING) {
+				liquibaseService.releaseLock(migration.getSchemaName());
+			}
+		}
+		dispatch(unfinished);
+	}
+
+	/**
+	 * Starts migrating all tenant schemas.
+	 * @return the new run
+	 * @throws IllegalStateException if a run is still in progress
+	 */
+	public synchronized MigrationRunDTO startRun() {
+		if (workers.get() > 0 || migrationRepository.existsByStatusIn(UNFINISHED)) {
+			throw new IllegalStateException("A schema migration run is already in progress");
+		}
+		String runId = UUID.randomUUID().toString();
+		List<SchemaMigration> migrations = migrationRepository.saveAll(tenantRepository.findAllDbSchemas()
+			.stream()
+			.map(schemaName -> SchemaMigration.builder()
+				.runId(runId)
+				.schemaName(schemaName)
+				.status(Status.PENDING)
+				.build())
+			.toList());
+		log.info("Starting migration run {} for {} tenant schemas", runId, migrations.size());
+		dispatch(migrations);
+		return getRun(runId).orElseThrow();
+	}
+
+	/**
+	 * Gets the progress of a run.
+	 * @param runId the run ID
+	 * @return the run, if found
+	 */
+	public Optional<MigrationRunDTO> getRun(String runId) {
+		Map<Status, Long> counts = new EnumMap<>(Status.class);
+		migrationRepository.countByStatus(runId).forEach(count -> counts.put(count.getStatus(), count.getCount()));
+		if (counts.isEmpty()) {
+			return Optional.empty();
+		}
+		List<MigrationRunDTO.Failure> failures = migrationRepository
+			.findByRunIdAndStatusOrderByIdAsc(runId, Status.FAILED)
+			.stream()
+			.map(migration -> new MigrationRunDTO.Failure(migration.getSchemaName(), migration.getError()))
+			.toList();
+		boolean finished = UNFINISHED.stream().noneMatch(counts::containsKey);
+		return Optional.of(new MigrationRunDTO(runId, counts, finished, failures));
+	}
+
+	/**
+	 * Gets the progress of the most recent run.
+	 * @return the run, if any run exists
+	 */
+	public Optional<MigrationRunDTO> getLatestRun() {
+		return migrationRepository.findFirstByOrderByIdDesc().flatMap(migration -> getRun(migration.getRunId()));
+	}
+
+	@PreDestroy
+	void stop() {
+		// Remaining schemas stay pending and are resumed on the next startup
+		stopping = true;
+	}
+
+	private void dispatch(List<SchemaMigration> migrations) {
+		pending.addAll(migrations);
+		int missing = Math.min(concurrency, pending.size()) - workers.get();
+		for (int i = 0; i < missing; i++) {
+			workers.incrementAndGet();
+			migrationExecutor.execute(this::work);
+		}
+	}
+
+	private void work() {
+		try {
+			SchemaMigration migration;
+			while (!stopping && (migration = pending.poll()) != null) {
+				migrate(migration);
+			}
+		}
+		finally {
+			workers.decrementAndGet();
+		}
+	}
+
+	private void migrate(SchemaMigration migration) {
+		String schemaName = migration.getSchemaName();
+		migrationRepository.updateStatus(migration.getId(), Status.RUNNING, null, null, Instant.now());
+		running.incrementAndGet();
+		long start = System.nanoTime();
+		boolean migrated = false;
+		String error = null;
+		try {
+			migrated = liquibaseService.migrateSchema(schemaName);
+			if (!migrated) {
+				error = "Failed to migrate database schema " + schemaName;
+			}
+		}
+		catch (RuntimeException ex) {
+			log.error("Migration of schema {} failed", schemaName, ex);
+			error = truncate(String.valueOf(ex.getMessage()));
+		}
+		finally {
+			running.decrementAndGet();
+		}
+		long elapsed = System.nanoTime() - start;
+		Timer.builder("tenant.migration.schema")
+			.description("Time to migrate one tenant schema")
+			.tag("outcome", migrated ? "success" : "failure")
+			.register(meterRegistry)
+			.record(elapsed, TimeUnit.NANOSECONDS);
+		migrationRepository.updateStatus(migration.getId(), migrated ? Status.SUCCEEDED : Status.FAILED, error,
+				TimeUnit.NANOSECONDS.toMillis(elapsed), Instant.now());
+	}
+
+	private static String truncate(String error) {
+		return error.length() <= 1000 ? error : error.substring(0, 1000);
+	}
+
+}
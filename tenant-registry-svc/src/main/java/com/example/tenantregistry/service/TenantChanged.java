@@ -0,0 +1,10 @@
+package com.example.tenantregistry.service;
+
+/**
+ * Published in the transaction creating, updating or deleting a tenant, which
+ * {@link TenantDirectory} stamps with the next directory version; the directory reads
+ * the changed row after the transaction commits.
+ * @param identifier the identifier of the changed tenant
+ */
+public record TenantChanged(String identifier) {
+}
@@ -0,0 +1,197 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantclient.TenantDelta;
+import com.example.tenantclient.TenantRecord;
+import com.example.tenantregistry.domain.Tenant;
+import com.example.tenantregistry.domain.TenantChange;
+import com.example.tenantregistry.domain.TenantDirectoryState;
+import com.example.tenantregistry.repository.TenantChangeRepository;
+import com.example.tenantregistry.repository.TenantDirectoryStateRepository;
+import com.example.tenantregistry.repository.TenantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory directory of all tenants, serving tenant resolution without JPA or MapStruct.
+ * <p>
+ * Versions are assigned by the database: every transaction publishing {@link TenantChanged}
+ * takes the next version from the locked {@code tenant_directory} row and stamps the
+ * tenant's {@code tenant_changes} row with it. The lock is held until commit, so versions
+ * become visible in order and a poll for everything after the last version seen never
+ * skips one. Every instance therefore serves the same version for the same directory,
+ * and deleted tenants stay as tombstones, so clients can ask any instance for everything
+ * changed since the version they hold.
+ * <p>
+ * The epoch combines the database's directory ID with the tenant changelog version: it
+ * stays the same across restarts and instances, and changes when a release ships new
+ * tenant changesets, which tells clients to confirm schemas again.
+ * <p>
+ * Changes made through this instance are applied right after commit; changes made by
+ * other instances are picked up every {@code tenant.directory.poll-interval}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TenantDirectory {
+
+	/**
+	 * A tenant as of a directory version.
+	 * @param tenant the tenant, or null if it was deleted
+	 * @param version the directory version of the last change
+	 */
+	public record Entry(TenantRecord tenant, long version) {
+	}
+
+	/** Above this many changes, all tenants are read instead of listing identifiers. */
+	private static final int LOOKUP_BATCH = 500;
+
+	private final TenantRepository tenantRepository;
+
+	private final TenantChangeRepository tenantChangeRepository;
+
+	private final TenantDirectoryStateRepository stateRepository;
+
+	private final LiquibaseService liquibaseService;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final Object polling = new Object();
+
+	private volatile String epoch;
+
+	private volatile long version;
+
+	/**
+	 * Loads all tenants at startup.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		poll();
+	}
+
+	/**
+	 * Looks a tenant up.
+	 * @param identifier the tenant identifier
+	 * @return the tenant and the version of its last change, if it exists
+	 */
+	public Optional<Entry> resolve(String identifier) {
+		return Optional.ofNullable(entries.get(identifier)).filter(entry -> entry.tenant() != null);
+	}
+
+	/**
+	 * Lists the changes a client holding {@code since} of {@code clientEpoch} is missing.
+	 * @param since the directory version the client holds, or a negative value for none
+	 * @param clientEpoch the epoch of that version, or null
+	 * @return all tenants if the client's version is from another epoch, else the changes;
+	 * empty until the directory is loaded
+	 */
+	public synchronized Optional<TenantDelta> changesSince(long since, String clientEpoch) {
+		if (epoch == null) {
+			return Optional.empty();
+		}
+		boolean full = since < 0 || !epoch.equals(clientEpoch);
+		List<TenantRecord> tenants = new ArrayList<>();
+		List<String> removed = new ArrayList<>();
+		entries.forEach((identifier, entry) -> {
+			if (full ? entry.tenant() != null : entry.version() > since) {
+				if (entry.tenant() != null) {
+					tenants.add(entry.tenant());
+				}
+				else {
+					removed.add(identifier);
+				}
+			}
+		});
+		return Optional.of(new TenantDelta(epoch, version, full, tenants, removed));
+	}
+
+	/**
+	 * Records a change in the publisher's transaction under the next directory version.
+	 * Concurrent changes wait for this transaction to end.
+	 * @param event the change
+	 * @throws IllegalStateException if the directory table is not initialized
+	 */
+	@EventListener
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(TenantChanged event) {
+		TenantDirectoryState state = stateRepository.findForUpdate()
+			.orElseThrow(() -> new IllegalStateException("The tenant_directory table has no row"));
+		state.setVersion(state.getVersion() + 1);
+		tenantChangeRepository.save(TenantChange.builder()
+			.identifier(event.identifier())
+			.version(state.getVersion())
+			.build());
+	}
+
+	/**
+	 * Applies a change made through this instance once it is committed.
+	 * @param event the change
+	 */
+	@TransactionalEventListener
+	public void onTenantChanged(TenantChanged event) {
+		poll();
+	}
+
+	/**
+	 * Applies the changes committed after the latest version this instance has seen. The
+	 * directory is served once the first poll has succeeded.
+	 */
+	@Scheduled(initialDelayString = "${tenant.directory.poll-interval:PT2S}",
+			fixedDelayString = "${tenant.directory.poll-interval:PT2S}")
+	public void poll() {
+		synchronized (polling) {
+			try {
+				catchUp();
+				if (epoch == null) {
+					epoch = stateRepository.findById(TenantDirectoryState.ID)
+						.map(TenantDirectoryState::getEpoch)
+						.orElseThrow(() -> new IllegalStateException("The tenant_directory table has no row"))
+							+ ":" + liquibaseService.changelogVersion();
+				}
+			}
+			catch (RuntimeException ex) {
+				log.warn("Polling the tenant directory failed", ex);
+			}
+		}
+	}
+
+	private void catchUp() {
+		List<TenantChange> changes = tenantChangeRepository.findByVersionGreaterThanOrderByVersion(version);
+		if (changes.isEmpty()) {
+			return;
+		}
+		List<Tenant> changed = changes.size() > LOOKUP_BATCH ? tenantRepository.findAll()
+				: tenantRepository.findByIdentifierIn(changes.stream().map(TenantChange::getIdentifier).toList());
+		Map<String, TenantRecord> tenants = new HashMap<>();
+		changed.forEach(tenant -> tenants.put(tenant.getIdentifier(), toRecord(tenant)));
+		apply(changes, tenants);
+	}
+
+	private synchronized void apply(List<TenantChange> changes, Map<String, TenantRecord> tenants) {
+		// A tenant read after a newer change committed is applied again with that version on the next poll
+		for (TenantChange change : changes) {
+			entries.put(change.getIdentifier(), new Entry(tenants.get(change.getIdentifier()), change.getVersion()));
+		}
+		version = changes.get(changes.size() - 1).getVersion();
+	}
+
+	private static TenantRecord toRecord(Tenant tenant) {
+		return new TenantRecord(tenant.getIdentifier(), tenant.getKeycloakRealm(), tenant.getDbSchema(),
+				tenant.isActive(), tenant.getName(), tenant.getPrimaryColor(), tenant.getLogoUrl());
+	}
+
+}
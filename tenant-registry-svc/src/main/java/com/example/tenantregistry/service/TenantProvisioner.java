@@ -0,0 +1,288 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.domain.ProvisioningJob;
+import com.example.tenantregistry.domain.ProvisioningJob.Status;
+import com.example.tenantregistry.domain.ProvisioningJob.StepStatus;
+import com.example.tenantregistry.repository.ProvisioningJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tenant provisioning jobs in the background.
+ * <p>
+ * The realm and schema steps of a job run in parallel, on the Keycloak and Postgres
+ * provisioning executors respectively, so each backend's concurrency is capped. Each
+ * step is retried with exponential backoff; once a step has failed {@code max-attempts}
+ * times, the steps that did complete are compensated (realm deleted, schema dropped,
+ * unless they existed before the job) and the job fails. When both steps are done the
+ * tenant is registered through {@link TenantService#completeProvisioning(Long)}.
+ * <p>
+ * Every state change is persisted, and unfinished jobs are resumed on startup and every
+ * {@code resume-interval}; completed steps are not repeated. An instance claims a job
+ * before running it, so with several registry instances each job runs on one of them: a
+ * pending job goes to whoever claims it first, and a running job is only taken over once
+ * it has not been updated for {@code lease}, which must exceed the slowest step.
+ */
+@Slf4j
+@Service
+public class TenantProvisioner {
+
+	private enum Step {
+
+		REALM, SCHEMA
+
+	}
+
+	private final ProvisioningJobRepository jobRepository;
+
+	private final KeycloakService keycloakService;
+
+	private final LiquibaseService liquibaseService;
+
+	private final TenantService tenantService;
+
+	private final ThreadPoolTaskExecutor keycloakExecutor;
+
+	private final ThreadPoolTaskExecutor postgresExecutor;
+
+	@Value("${tenant.provisioning.max-attempts:3}")
+	private int maxAttempts;
+
+	@Value("${tenant.provisioning.retry-backoff:2s}")
+	private Duration retryBackoff;
+
+	@Value("${tenant.provisioning.lease:PT15M}")
+	private Duration lease;
+
+	public TenantProvisioner(ProvisioningJobRepository jobRepository, KeycloakService keycloakService,
+			LiquibaseService liquibaseService, TenantService tenantService,
+			@Qualifier("keycloakProvisioningExecutor") ThreadPoolTaskExecutor keycloakExecutor,
+			@Qualifier("postgresProvisioningExecutor") ThreadPoolTaskExecutor postgresExecutor) {
+		this.jobRepository = jobRepository;
+		this.keycloakService = keycloakService;
+		this.liquibaseService = liquibaseService;
+		this.tenantService = tenantService;
+		this.keycloakExecutor = keycloakExecutor;
+		this.postgresExecutor = postgresExecutor;
+	}
+
+	/**
+	 * Starts a job once the transaction that stored it has committed.
+	 * <p>
+	 * Runs in a transaction of its own: the committed one is still bound to the thread
+	 * here, and writes joining it would never be committed.
+	 * @param event the provisioning request
+	 */
+	@TransactionalEventListener
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void onProvisioningRequested(ProvisioningRequested event) {
+		start(event.jobId());
+	}
+
+	/**
+	 * Resumes jobs left pending, or running and abandoned, by a shutdown or crash of this
+	 * or another instance.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${tenant.provisioning.resume-interval:PT1M}",
+			fixedDelayString = "${tenant.provisioning.resume-interval:PT1M}")
+	public void resumeUnfinishedJobs() {
+		List<ProvisioningJob> jobs = jobRepository.findByStatusIn(List.of(Status.PENDING, Status.RUNNING));
+		if (!jobs.isEmpty()) {
+			log.info("Resuming {} unfinished provisioning jobs", jobs.size());
+		}
+		jobs.forEach(job -> start(job.getId()));
+	}
+
+	private void start(Long jobId) {
+		ProvisioningJob job = jobRepository.findById(jobId).orElse(null);
+		if (job == null || !claim(job)) {
+			return;
+		}
+
+		CompletableFuture<String> realm = submit(job, Step.REALM, job.getRealmStep(), job.getRealmAttempts())
+			.handle((error, ex) -> ex == null ? error : Step.REALM + ": " + rootMessage(ex));
+		CompletableFuture<String> schema = submit(job, Step.SCHEMA, job.getSchemaStep(), job.getSchemaAttempts())
+			.handle((error, ex) -> ex == null ? error : Step.SCHEMA + ": " + rootMessage(ex));
+		realm.thenAcceptBoth(schema, (realmError, schemaError) -> finish(jobId, realmError, schemaError))
+			.whenComplete((ignored, ex) -> {
+				if (ex != null) {
+					// left running; claimed again once its lease has expired
+					log.error("Finishing provisioning job {} failed", jobId, ex);
+				}
+			});
+	}
+
+	private boolean claim(ProvisioningJob job) {
+		Instant now = Instant.now();
+		boolean claimed = jobRepository.claim(job.getId(), job.getUpdatedAt(), Status.PENDING, Status.RUNNING,
+				now.minus(lease), now) == 1;
+		if (!claimed) {
+			log.debug("Provisioning job {} is running elsewhere", job.getId());
+		}
+		return claimed;
+	}
+
+	private static String rootMessage(Throwable ex) {
+		Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+		return String.valueOf(cause.getMessage());
+	}
+
+	/**
+	 * Schedules a step unless it already completed in an earlier run.
+	 * @return a future holding the step's final error, or null on success
+	 */
+	private CompletableFuture<String> submit(ProvisioningJob job, Step step, StepStatus status, int attempts) {
+		if (status == StepStatus.DONE) {
+			return CompletableFuture.completedFuture(null);
+		}
+		try {
+			return CompletableFuture.supplyAsync(() -> runStep(job, step, attempts),
+					step == Step.REALM ? keycloakExecutor : postgresExecutor);
+		}
+		catch (RejectedExecutionException ex) {
+			log.warn("Provisioning queue full, cannot run step {} of job {}", step, job.getId());
+			return CompletableFuture.completedFuture(step + ": provisioning queue full, retry later");
+		}
+	}
+
+	private String runStep(ProvisioningJob job, Step step, int previousAttempts) {
+		// a resumed job gets at least one more attempt
+		int attempt = Math.min(previousAttempts, maxAttempts - 1);
+		boolean preexistingKnown = (step == Step.REALM ? job.getRealmPreexisting()
+				: job.getSchemaPreexisting()) != null;
+		String error = null;
+		while (attempt < maxAttempts) {
+			attempt++;
+			record(job.getId(), step, StepStatus.RUNNING, attempt);
+			try {
+				// recorded before anything is created, on the first attempt that reaches
+				// the backend; until then compensation leaves the resource alone
+				if (!preexistingKnown) {
+					recordPreexisting(job, step);
+					preexistingKnown = true;
+				}
+				perform(job, step);
+				record(job.getId(), step, StepStatus.DONE, attempt);
+				return null;
+			}
+			catch (RuntimeException ex) {
+				error = step + ": " + ex.getMessage();
+				log.warn("Provisioning step {} of job {} failed (attempt {}/{})", step, job.getId(), attempt,
+						maxAttempts, ex);
+			}
+			if (attempt < maxAttempts && !backoff(attempt)) {
+				break;
+			}
+		}
+		record(job.getId(), step, StepStatus.FAILED, attempt);
+		return error;
+	}
+
+	private void recordPreexisting(ProvisioningJob job, Step step) {
+		switch (step) {
+			case REALM ->
+				jobRepository.markRealmPreexisting(job.getId(), keycloakService.realmExists(job.getIdentifier()));
+			case SCHEMA -> jobRepository.markSchemaPreexisting(job.getId(),
+					liquibaseService.schemaExists(TenantService.schemaNameOf(job.getIdentifier())));
+		}
+	}
+
+	private void perform(ProvisioningJob job, Step step) {
+		switch (step) {
+			case REALM -> keycloakService.ensureRealm(job.getIdentifier(), job.getName());
+			case SCHEMA -> {
+				String schemaName = TenantService.schemaNameOf(job.getIdentifier());
+				if (!liquibaseService.createSchema(schemaName)) {
+					throw new IllegalStateException("Failed to create database schema " + schemaName);
+				}
+			}
+		}
+	}
+
+	private void finish(Long jobId, String realmError, String schemaError) {
+		List<String> errors = new ArrayList<>();
+		if (realmError != null) {
+			errors.add(realmError);
+		}
+		if (schemaError != null) {
+			errors.add(schemaError);
+		}
+
+		if (errors.isEmpty()) {
+			try {
+				tenantService.completeProvisioning(jobId);
+				log.info("Provisioning job {} succeeded", jobId);
+				return;
+			}
+			catch (RuntimeException ex) {
+				log.error("Registering tenant for job {} failed", jobId, ex);
+				errors.add("REGISTER: " + ex.getMessage());
+			}
+		}
+
+		compensate(jobId);
+		jobRepository.updateStatus(jobId, Status.FAILED, truncate(String.join("; ", errors)), Instant.now());
+		log.warn("Provisioning job {} failed: {}", jobId, errors);
+	}
+
+	/**
+	 * Undoes completed steps that created resources, leaving pre-existing ones alone.
+	 */
+	private void compensate(Long jobId) {
+		ProvisioningJob job = jobRepository.findById(jobId).orElseThrow();
+		try {
+			if (job.getRealmStep() == StepStatus.DONE && Boolean.FALSE.equals(job.getRealmPreexisting())) {
+				keycloakService.deleteRealm(job.getIdentifier());
+				record(jobId, Step.REALM, StepStatus.COMPENSATED, job.getRealmAttempts());
+			}
+			if (job.getSchemaStep() == StepStatus.DONE && Boolean.FALSE.equals(job.getSchemaPreexisting())) {
+				liquibaseService.dropSchema(TenantService.schemaNameOf(job.getIdentifier()));
+				record(jobId, Step.SCHEMA, StepStatus.COMPENSATED, job.getSchemaAttempts());
+			}
+		}
+		catch (RuntimeException ex) {
+			log.error("Compensation of provisioning job {} failed", jobId, ex);
+		}
+	}
+
+	private void record(Long jobId, Step step, StepStatus status, int attempts) {
+		switch (step) {
+			case REALM -> jobRepository.updateRealmStep(jobId, status, attempts, Instant.now());
+			case SCHEMA -> jobRepository.updateSchemaStep(jobId, status, attempts, Instant.now());
+		}
+	}
+
+	private boolean backoff(int attempt) {
+		try {
+			Thread.sleep(retryBackoff.toMillis() << (attempt - 1));
+			return true;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static String truncate(String error) {
+		return error.length() <= 1000 ? error : error.substring(0, 1000);
+	}
+
+}
@@ -0,0 +1,218 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.domain.TenantDeletion;
+import com.example.tenantregistry.domain.TenantDeletion.Status;
+import com.example.tenantregistry.repository.TenantDeletionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reclaims the schema and realm of deleted tenants in the background.
+ * <p>
+ * Dropping a large schema in one statement holds exclusive locks on all of its tables
+ * until it commits, which stalls everything else touching them. Instead, each tick drops
+ * at most {@code tenant.deletion.tables-per-tick} tables of the oldest deletion, one short
+ * transaction per table under {@code tenant.deletion.lock-timeout}. Once no tables are
+ * left, the schema itself and then the Keycloak realm are removed. Ticks are skipped while the database
+ * runs more than {@code tenant.deletion.max-active-queries} queries, and a table whose
+ * lock cannot be taken is retried after {@code retry-backoff}. Other failures back off
+ * exponentially until the deletion fails after {@code max-attempts} of them in a row.
+ * <p>
+ * All state is persisted, so deletions continue after a restart; like the migration
+ * runner, this assumes a single registry instance.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TenantReclaimer {
+
+	private static final List<Status> UNFINISHED = List.of(Status.PENDING, Status.DROPPING_TABLES,
+			Status.REMOVING_REALM);
+
+	/** SQLSTATE of a statement cancelled by {@code lock_timeout}. */
+	private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+	private static final String TABLES = """
+			SELECT tablename FROM pg_tables WHERE schemaname = ? ORDER BY tablename LIMIT ?
+			""";
+
+	private static final String ACTIVE_QUERIES = """
+			SELECT count(*) FROM pg_stat_activity
+			WHERE datname = current_database() AND state = 'active' AND pid <> pg_backend_pid()
+			""";
+
+	private final TenantDeletionRepository deletionRepository;
+
+	private final KeycloakService keycloakService;
+
+	private final LiquibaseService liquibaseService;
+
+	private final DataSource dataSource;
+
+	@Value("${tenant.deletion.tables-per-tick:10}")
+	private int tablesPerTick;
+
+	@Value("${tenant.deletion.lock-timeout:PT2S}")
+	private Duration lockTimeout;
+
+	@Value("${tenant.deletion.max-active-queries:16}")
+	private int maxActiveQueries;
+
+	@Value("${tenant.deletion.max-attempts:10}")
+	private int maxAttempts;
+
+	@Value("${tenant.deletion.retry-backoff:PT10S}")
+	private Duration retryBackoff;
+
+	/**
+	 * Advances the oldest unfinished deletion by one step.
+	 */
+	@Scheduled(initialDelayString = "${tenant.deletion.interval:PT5S}",
+			fixedDelayString = "${tenant.deletion.interval:PT5S}")
+	public void reclaim() {
+		TenantDeletion deletion;
+		try {
+			List<TenantDeletion> due = deletionRepository.findDue(UNFINISHED, Instant.now(), PageRequest.of(0, 1));
+			if (due.isEmpty()) {
+				return;
+			}
+			deletion = due.get(0);
+			int active = activeQueries();
+			if (active > maxActiveQueries) {
+				log.debug("Postponing deletion {}: {} active queries", deletion.getId(), active);
+				return;
+			}
+		}
+		catch (SQLException | RuntimeException ex) {
+			log.warn("Looking up tenant deletions failed", ex);
+			return;
+		}
+
+		try {
+			switch (deletion.getStatus()) {
+				case PENDING, DROPPING_TABLES -> dropTables(deletion);
+				case REMOVING_REALM -> removeRealm(deletion);
+				default -> throw new IllegalStateException("Deletion " + deletion.getId() + " is finished");
+			}
+			deletion.setAttempts(0);
+			deletion.setNextAttemptAt(null);
+			deletion.setError(null);
+		}
+		catch (SQLException | RuntimeException ex) {
+			fail(deletion, ex);
+		}
+		deletionRepository.save(deletion);
+	}
+
+	private void dropTables(TenantDeletion deletion) throws SQLException {
+		String schemaName = deletion.getDbSchema();
+		deletion.setStatus(Status.DROPPING_TABLES);
+
+		List<String> tables;
+		try (Connection connection = dataSource.getConnection()) {
+			tables = listTables(connection, schemaName);
+			connection.setAutoCommit(false);
+			try {
+				for (String table : tables) {
+					dropTable(connection, schemaName, table);
+					deletion.setTablesDropped(deletion.getTablesDropped() + 1);
+				}
+			}
+			finally {
+				connection.setAutoCommit(true);
+			}
+		}
+		log.debug("Dropped {} tables of schema {}", tables.size(), schemaName);
+
+		if (tables.size() < tablesPerTick) {
+			// only sequences and the like are left, which drop quickly
+			if (!liquibaseService.dropSchema(schemaName)) {
+				throw new IllegalStateException("Failed to drop database schema " + schemaName);
+			}
+			deletion.setStatus(Status.REMOVING_REALM);
+			log.info("Schema {} of deleted tenant {} reclaimed", schemaName, deletion.getIdentifier());
+		}
+	}
+
+	private void removeRealm(TenantDeletion deletion) {
+		keycloakService.deleteRealm(deletion.getKeycloakRealm());
+		deletion.setStatus(Status.SUCCEEDED);
+		log.info("Tenant {} deleted", deletion.getIdentifier());
+	}
+
+	private void fail(TenantDeletion deletion, Exception ex) {
+		deletion.setError(truncate(deletion.getStatus() + ": " + ex.getMessage()));
+		if (ex instanceof SQLException sqlException && LOCK_NOT_AVAILABLE.equals(sqlException.getSQLState())) {
+			// contention, not a failure: try again later without using up an attempt
+			deletion.setNextAttemptAt(Instant.now().plus(retryBackoff));
+			log.info("Deletion {} waiting for a table lock in schema {}", deletion.getId(), deletion.getDbSchema());
+			return;
+		}
+
+		int attempts = deletion.getAttempts() + 1;
+		deletion.setAttempts(attempts);
+		if (attempts >= maxAttempts) {
+			deletion.setStatus(Status.FAILED);
+			log.error("Deletion {} of tenant {} failed", deletion.getId(), deletion.getIdentifier(), ex);
+		}
+		else {
+			deletion.setNextAttemptAt(Instant.now().plus(retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 6))));
+			log.warn("Deletion {} of tenant {} failed (attempt {}/{})", deletion.getId(), deletion.getIdentifier(),
+					attempts, maxAttempts, ex);
+		}
+	}
+
+	private List<String> listTables(Connection connection, String schemaName) throws SQLException {
+		List<String> tables = new ArrayList<>();
+		try (PreparedStatement stmt = connection.prepareStatement(TABLES)) {
+			stmt.setString(1, schemaName);
+			stmt.setInt(2, tablesPerTick);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					tables.add(rs.getString(1));
+				}
+			}
+		}
+		return tables;
+	}
+
+	private void dropTable(Connection connection, String schemaName, String table) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+			stmt.execute("DROP TABLE IF EXISTS " + schemaName + ".\"" + table.replace("\"", "\"\"") + "\" CASCADE");
+			connection.commit();
+		}
+		catch (SQLException ex) {
+			connection.rollback();
+			throw ex;
+		}
+	}
+
+	private int activeQueries() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				Statement stmt = connection.createStatement();
+				ResultSet rs = stmt.executeQuery(ACTIVE_QUERIES)) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	private static String truncate(String error) {
+		return error.length() <= 1000 ? error : error.substring(0, 1000);
+	}
+
+}
@@ -1,19 +1,44 @@
 package com.example.tenantregistry.service;
 
+import com.example.tenantregistry.domain.ProvisioningBatchItem;
+import com.example.tenantregistry.domain.ProvisioningJob;
 import com.example.tenantregistry.domain.Tenant;
+import com.example.tenantregistry.domain.TenantDeletion;
+import com.example.tenantregistry.dto.BulkCreateTenantRequest;
+import com.example.tenantregistry.dto.BulkImportUsersDTO;
+import com.example.tenantregistry.dto.BulkImportUsersRequest;
+import com.example.tenantregistry.dto.BulkProvisioningDTO;
 import com.example.tenantregistry.dto.CreateTenantRequest;
+import com.example.tenantregistry.dto.ProvisioningJobDTO;
 import com.example.tenantregistry.dto.TenantDTO;
+import com.example.tenantregistry.dto.TenantDeletionDTO;
+import com.example.tenantregistry.mapper.ProvisioningJobMapper;
+import com.example.tenantregistry.mapper.TenantDeletionMapper;
 import com.example.tenantregistry.mapper.TenantMapper;
+import com.example.tenantregistry.repository.ProvisioningBatchItemRepository;
+import com.example.tenantregistry.repository.ProvisioningJobRepository;
+import com.example.tenantregistry.repository.TenantDeletionRepository;
 import com.example.tenantregistry.repository.TenantRepository;
 import com.querydsl.core.types.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service for managing tenants.
@@ -23,6 +48,14 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TenantService {
 
+	private static final List<ProvisioningJob.Status> UNFINISHED = List.of(ProvisioningJob.Status.PENDING,
+			ProvisioningJob.Status.RUNNING);
+
+	/** A failed deletion may have left data behind, so it keeps blocking the identifier. */
+	private static final List<TenantDeletion.Status> DELETING = List.of(TenantDeletion.Status.PENDING,
+			TenantDeletion.Status.DROPPING_TABLES, TenantDeletion.Status.REMOVING_REALM,
+			TenantDeletion.Status.FAILED);
+
 	private final TenantRepository tenantRepository;
 
 	private final TenantMapper tenantMapper;
@@ -31,54 +64,235 @@ public class TenantService {
 
 	private final LiquibaseService liquibaseService;
 
+	private final ProvisioningJobRepository jobRepository;
+
+	private final ProvisioningJobMapper jobMapper;
+
+	private final ProvisioningBatchItemRepository batchItemRepository;
+
+	private final TenantDeletionRepository deletionRepository;
+
+	private final TenantDeletionMapper deletionMapper;
+
+	private final ApplicationEventPublisher eventPublisher;
+
 	/**
-	 * Creates a new tenant.
+	 * Requests a new tenant.
+	 * <p>
+	 * Only records a provisioning job; the Keycloak realm and database schema are created
+	 * in the background by {@link TenantProvisioner}, which registers the tenant through
+	 * {@link #completeProvisioning(Long)} once both are in place.
 	 * @param request the tenant creation request
-	 * @return the created tenant
+	 * @return the pending provisioning job
 	 * @throws IllegalArgumentException if a tenant with the same identifier already
-	 * exists
+	 * exists, is being provisioned or deleted, or the identifier is reserved
 	 */
 	@Transactional
-	public TenantDTO createTenant(CreateTenantRequest request) {
-		log.info("Creating tenant with identifier: {}", request.identifier());
+	public ProvisioningJobDTO createTenant(CreateTenantRequest request) {
+		log.info("Requesting tenant with identifier: {}", request.identifier());
 
 		// Check if tenant already exists
 		if (tenantRepository.existsByIdentifier(request.identifier())) {
 			throw new IllegalArgumentException("Tenant with identifier " + request.identifier() + " already exists");
 		}
+		if (liquibaseService.isTemplateSchema(schemaNameOf(request.identifier()))) {
+			throw new IllegalArgumentException("Identifier " + request.identifier() + " is reserved");
+		}
+		if (jobRepository.existsByIdentifierAndStatusIn(request.identifier(), UNFINISHED)) {
+			throw new IllegalArgumentException("Tenant " + request.identifier() + " is already being provisioned");
+		}
+		if (deletionRepository.existsByIdentifierAndStatusIn(request.identifier(), DELETING)) {
+			throw new IllegalArgumentException("Tenant " + request.identifier() + " is still being deleted");
+		}
+
+		ProvisioningJob job = queueJob(request, null);
+		log.info("Provisioning job {} queued for tenant: {}", job.getId(), request.identifier());
+
+		return jobMapper.toDto(job);
+	}
 
-		// Create Keycloak realm
-		String realmId = request.identifier();
-		boolean realmCreated = keycloakService.createRealm(realmId, request.name());
-		if (!realmCreated) {
-			log.warn("Keycloak realm already exists for tenant: {}", request.identifier());
+	/**
+	 * Requests many tenants at once, as one batch of provisioning jobs.
+	 * <p>
+	 * Unlike {@link #createTenant(CreateTenantRequest)}, tenants that already exist or are
+	 * being provisioned don't fail the request; they are reported per item, which makes
+	 * resubmitting a batch after a crash safe.
+	 * @param request the bulk creation request
+	 * @return the batch with one outcome per requested tenant
+	 * @throws IllegalArgumentException if a tenant of the batch was requested
+	 * concurrently; nothing of the batch is queued then, and it can be resubmitted
+	 */
+	@Transactional
+	public BulkProvisioningDTO createTenants(BulkCreateTenantRequest request) {
+		String batchId = UUID.randomUUID().toString();
+		log.info("Requesting {} tenants in batch {}", request.tenants().size(), batchId);
+
+		Set<String> seen = new HashSet<>();
+		List<BulkProvisioningDTO.Item> items = new ArrayList<>();
+		for (CreateTenantRequest tenant : request.tenants()) {
+			String identifier = tenant.identifier();
+			if (!seen.add(identifier)) {
+				items.add(new BulkProvisioningDTO.Item(identifier, "DUPLICATE", null));
+			}
+			else if (liquibaseService.isTemplateSchema(schemaNameOf(identifier))) {
+				items.add(new BulkProvisioningDTO.Item(identifier, "RESERVED", null));
+			}
+			else if (tenantRepository.existsByIdentifier(identifier)) {
+				items.add(new BulkProvisioningDTO.Item(identifier, "ALREADY_EXISTS", null));
+			}
+			else if (deletionRepository.existsByIdentifierAndStatusIn(identifier, DELETING)) {
+				items.add(new BulkProvisioningDTO.Item(identifier, "DELETING", null));
+			}
+			else {
+				Optional<ProvisioningJob> running = jobRepository.findFirstByIdentifierAndStatusIn(identifier,
+						UNFINISHED);
+				items.add(running
+					.map(job -> new BulkProvisioningDTO.Item(identifier, "IN_PROGRESS", jobMapper.toDto(job)))
+					.orElseGet(() -> new BulkProvisioningDTO.Item(identifier, "ACCEPTED",
+							jobMapper.toDto(queueJob(tenant, batchId)))));
+			}
 		}
 
-		// Create database schema
-		String schemaName = request.identifier().replace("-", "_");
-		boolean schemaCreated = liquibaseService.createSchema(schemaName);
-		if (!schemaCreated) {
-			throw new RuntimeException("Failed to create database schema for tenant: " + request.identifier());
+		List<ProvisioningBatchItem> recorded = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			BulkProvisioningDTO.Item item = items.get(i);
+			recorded.add(ProvisioningBatchItem.builder()
+				.batchId(batchId)
+				.itemIndex(i)
+				.identifier(item.identifier())
+				.outcome(item.outcome())
+				.jobId(item.job() != null ? item.job().id() : null)
+				.build());
 		}
+		batchItemRepository.saveAll(recorded);
 
-		// Create tenant entity
-		Tenant tenant = Tenant.builder()
+		return toBatch(batchId, items);
+	}
+
+	/**
+	 * Gets a bulk onboarding batch, with the outcomes recorded at submission and the
+	 * current state of each job.
+	 * @param batchId the batch ID
+	 * @return the batch, if found
+	 */
+	@Transactional(readOnly = true)
+	public Optional<BulkProvisioningDTO> getBatch(String batchId) {
+		List<ProvisioningBatchItem> recorded = batchItemRepository.findByBatchIdOrderByItemIndexAsc(batchId);
+		if (recorded.isEmpty()) {
+			// batches submitted before outcomes were recorded only have their jobs
+			List<ProvisioningJob> jobs = jobRepository.findByBatchIdOrderByIdAsc(batchId);
+			return jobs.isEmpty() ? Optional.empty() : Optional.of(toBatch(batchId, jobs.stream()
+				.map(job -> new BulkProvisioningDTO.Item(job.getIdentifier(), "ACCEPTED", jobMapper.toDto(job)))
+				.toList()));
+		}
+		Map<Long, ProvisioningJob> jobs = new HashMap<>();
+		jobRepository
+			.findAllById(recorded.stream().map(ProvisioningBatchItem::getJobId).filter(Objects::nonNull).toList())
+			.forEach(job -> jobs.put(job.getId(), job));
+		List<BulkProvisioningDTO.Item> items = recorded.stream()
+			.map(item -> new BulkProvisioningDTO.Item(item.getIdentifier(), item.getOutcome(),
+					item.getJobId() != null && jobs.containsKey(item.getJobId())
+							? jobMapper.toDto(jobs.get(item.getJobId())) : null))
+			.toList();
+		return Optional.of(toBatch(batchId, items));
+	}
+
+	/**
+	 * Counts the jobs accepted into the batch by status.
+	 */
+	private static BulkProvisioningDTO toBatch(String batchId, List<BulkProvisioningDTO.Item> items) {
+		return new BulkProvisioningDTO(batchId, countByStatus(items.stream()
+			.filter(item -> "ACCEPTED".equals(item.outcome()) && item.job() != null)
+			.map(item -> item.job().status())
+			.toList()), items);
+	}
+
+	private ProvisioningJob queueJob(CreateTenantRequest request, String batchId) {
+		ProvisioningJob job = ProvisioningJob.builder()
 			.identifier(request.identifier())
+			.batchId(batchId)
 			.name(request.name())
 			.contactEmail(request.contactEmail())
-			.active(true)
-			.keycloakRealm(realmId)
-			.dbSchema(schemaName)
 			.primaryColor(request.primaryColor())
 			.logoUrl(request.logoUrl())
+			.status(ProvisioningJob.Status.PENDING)
+			.realmStep(ProvisioningJob.StepStatus.PENDING)
+			.schemaStep(ProvisioningJob.StepStatus.PENDING)
+			.build();
+		try {
+			job = jobRepository.saveAndFlush(job);
+		}
+		catch (DataIntegrityViolationException ex) {
+			// lost the race against a concurrent request for the same identifier
+			throw new IllegalArgumentException("Tenant " + request.identifier() + " is already being provisioned");
+		}
+		eventPublisher.publishEvent(new ProvisioningRequested(job.getId()));
+		return job;
+	}
+
+	private static Map<ProvisioningJob.Status, Long> countByStatus(List<ProvisioningJob.Status> statuses) {
+		Map<ProvisioningJob.Status, Long> counts = new EnumMap<>(ProvisioningJob.Status.class);
+		statuses.forEach(status -> counts.merge(status, 1L, Long::sum));
+		return counts;
+	}
+
+	/**
+	 * Registers the tenant of a provisioning job whose realm and schema are ready, and
+	 * marks the job as succeeded.
+	 * @param jobId the provisioning job ID
+	 * @return the created tenant
+	 * @throws IllegalArgumentException if the job does not exist or the tenant was
+	 * registered in the meantime
+	 */
+	@Transactional
+	public TenantDTO completeProvisioning(Long jobId) {
+		ProvisioningJob job = jobRepository.findById(jobId)
+			.orElseThrow(() -> new IllegalArgumentException("Provisioning job not found with ID: " + jobId));
+		if (tenantRepository.existsByIdentifier(job.getIdentifier())) {
+			throw new IllegalArgumentException("Tenant with identifier " + job.getIdentifier() + " already exists");
+		}
+
+		Tenant tenant = Tenant.builder()
+			.identifier(job.getIdentifier())
+			.name(job.getName())
+			.contactEmail(job.getContactEmail())
+			.active(true)
+			.keycloakRealm(job.getIdentifier())
+			.dbSchema(schemaNameOf(job.getIdentifier()))
+			.primaryColor(job.getPrimaryColor())
+			.logoUrl(job.getLogoUrl())
 			.build();
 
 		tenant = tenantRepository.save(tenant);
+		eventPublisher.publishEvent(new TenantChanged(tenant.getIdentifier()));
+		job.setTenantId(tenant.getId());
+		job.setStatus(ProvisioningJob.Status.SUCCEEDED);
+		job.setError(null);
+		jobRepository.save(job);
 		log.info("Tenant created with ID: {}", tenant.getId());
 
 		return tenantMapper.toDto(tenant);
 	}
 
+	/**
+	 * Gets a provisioning job by ID.
+	 * @param jobId the job ID
+	 * @return the job, if found
+	 */
+	@Transactional(readOnly = true)
+	public Optional<ProvisioningJobDTO> getProvisioningJob(Long jobId) {
+		return jobRepository.findById(jobId).map(jobMapper::toDto);
+	}
+
+	/**
+	 * Derives the database schema name of a tenant from its identifier.
+	 * @param identifier the tenant identifier
+	 * @return the schema name
+	 */
+	public static String schemaNameOf(String identifier) {
+		return identifier.replace("-", "_");
+	}
+
 	/**
 	 * Gets a tenant by ID.
 	 * @param id the tenant ID
@@ -136,38 +350,73 @@ public class TenantService {
 
 		tenantMapper.updateEntityFromDto(tenantDTO, tenant);
 		tenant = tenantRepository.save(tenant);
+		eventPublisher.publishEvent(new TenantChanged(tenant.getIdentifier()));
 
 		log.info("Tenant updated with ID: {}", tenant.getId());
 
 		return tenantMapper.toDto(tenant);
 	}
 
+	/**
+	 * Imports many users into a tenant's Keycloak realm.
+	 * <p>
+	 * Not transactional: the tenant is read in the repository's own short transaction,
+	 * so no connection is held during the Keycloak calls.
+	 * @param id the tenant ID
+	 * @param request the users to import
+	 * @return the outcome per user
+	 * @throws IllegalArgumentException if the tenant does not exist
+	 */
+	public BulkImportUsersDTO importUsers(Long id, BulkImportUsersRequest request) {
+		Tenant tenant = tenantRepository.findById(id)
+			.orElseThrow(() -> new IllegalArgumentException("Tenant not found with ID: " + id));
+
+		return keycloakService.importUsers(tenant.getKeycloakRealm(), request.users());
+	}
+
 	/**
 	 * Deletes a tenant.
+	 * <p>
+	 * Removes the tenant row, records a deletion and disables the Keycloak realm, so
+	 * nobody can log in or refresh a token from the moment the request returns; the
+	 * database schema and the realm itself are reclaimed in the background by
+	 * {@link TenantReclaimer}. The identifier cannot be reused until that has succeeded.
 	 * @param id the tenant ID
+	 * @return the pending deletion
 	 * @throws IllegalArgumentException if the tenant does not exist
 	 */
 	@Transactional
-	public void deleteTenant(Long id) {
+	public TenantDeletionDTO deleteTenant(Long id) {
 		log.info("Deleting tenant with ID: {}", id);
 
 		Tenant tenant = tenantRepository.findById(id)
 			.orElseThrow(() -> new IllegalArgumentException("Tenant not found with ID: " + id));
 
-		// Delete Keycloak realm
-		boolean realmDeleted = keycloakService.deleteRealm(tenant.getKeycloakRealm());
-		if (!realmDeleted) {
-			log.warn("Failed to delete Keycloak realm for tenant: {}", tenant.getIdentifier());
-		}
+		TenantDeletion deletion = deletionRepository.save(TenantDeletion.builder()
+			.tenantId(tenant.getId())
+			.identifier(tenant.getIdentifier())
+			.keycloakRealm(tenant.getKeycloakRealm())
+			.dbSchema(tenant.getDbSchema())
+			.status(TenantDeletion.Status.PENDING)
+			.build());
+		tenantRepository.delete(tenant);
+		eventPublisher.publishEvent(new TenantChanged(tenant.getIdentifier()));
+		// last, so a failing database write leaves the realm alone; a failure here rolls
+		// the deletion back
+		keycloakService.disableRealm(tenant.getKeycloakRealm());
+		log.info("Tenant deleted with ID: {}, reclaiming its resources in deletion {}", id, deletion.getId());
 
-		// Delete database schema
-		boolean schemaDropped = liquibaseService.dropSchema(tenant.getDbSchema());
-		if (!schemaDropped) {
-			log.warn("Failed to drop database schema for tenant: {}", tenant.getIdentifier());
-		}
+		return deletionMapper.toDto(deletion);
+	}
 
-		tenantRepository.delete(tenant);
-		log.info("Tenant deleted with ID: {}", id);
+	/**
+	 * Gets a tenant deletion by ID.
+	 * @param deletionId the deletion ID
+	 * @return the deletion, if found
+	 */
+	@Transactional(readOnly = true)
+	public Optional<TenantDeletionDTO> getDeletion(Long deletionId) {
+		return deletionRepository.findById(deletionId).map(deletionMapper::toDto);
 	}
 
 	/**
@@ -185,6 +434,7 @@ public class TenantService {
 
 		tenant.setActive(true);
 		tenant = tenantRepository.save(tenant);
+		eventPublisher.publishEvent(new TenantChanged(tenant.getIdentifier()));
 
 		log.info("Tenant activated with ID: {}", tenant.getId());
 
@@ -206,6 +456,7 @@ public class TenantService {
 
 		tenant.setActive(false);
 		tenant = tenantRepository.save(tenant);
+		eventPublisher.publishEvent(new TenantChanged(tenant.getIdentifier()));
 
 		log.info("Tenant deactivated with ID: {}", tenant.getId());
 
@@ -0,0 +1,207 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.domain.Tenant;
+import com.example.tenantregistry.domain.TenantUsage;
+import com.example.tenantregistry.dto.TenantUsageDTO;
+import com.example.tenantregistry.dto.UsageReport;
+import com.example.tenantregistry.repository.TenantRepository;
+import com.example.tenantregistry.repository.TenantUsageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Meters tenant usage into hourly rollups in {@code tenant_usage}.
+ * <p>
+ * Request counts and latencies are reported by the api-gateway, which sees every
+ * request and its tenant; each report is added to the current hour of every tenant in
+ * it. Storage is sampled here: every {@code tenant.metering.storage.interval} the next
+ * {@code batch-size} tenants in ID order have their schema measured in one catalog query,
+ * so the cost of a run is bounded and a full pass over N tenants takes
+ * N / batch-size intervals. Row counts come from the planner statistics
+ * ({@code reltuples}), since counting rows would scan every table.
+ * <p>
+ * Rollups older than {@code tenant.metering.retention} are purged daily, which bounds
+ * the table to one row per tenant and hour of retention.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UsageMeteringService {
+
+	/**
+	 * Bucket size of {@link #getUsage(Long, Instant, Instant, Granularity)}.
+	 */
+	public enum Granularity {
+
+		HOUR, DAY
+
+	}
+
+	private static final String STORAGE = """
+			SELECT n.nspname, coalesce(sum(pg_total_relation_size(c.oid)), 0)::bigint,
+			       coalesce(sum(greatest(c.reltuples, 0)), 0)::bigint
+			FROM pg_namespace n
+			LEFT JOIN pg_class c ON c.relnamespace = n.oid AND c.relkind IN ('r', 'm')
+			WHERE n.nspname = ANY (?)
+			GROUP BY n.nspname
+			""";
+
+	private final TenantUsageRepository usageRepository;
+
+	private final TenantRepository tenantRepository;
+
+	private final TenantDirectory tenantDirectory;
+
+	private final DataSource dataSource;
+
+	/** Last tenant ID sampled; the next run continues after it. */
+	private volatile long storageCursor;
+
+	@Value("${tenant.metering.storage.batch-size:50}")
+	private int storageBatchSize;
+
+	@Value("${tenant.metering.retention:P400D}")
+	private Duration retention;
+
+	/**
+	 * Adds a gateway's request figures to the current hour. Unknown tenants, such as
+	 * tokens of other realms, are ignored.
+	 * @param report the report
+	 */
+	public void record(UsageReport report) {
+		Instant bucket = Instant.now().truncatedTo(ChronoUnit.HOURS);
+		int ignored = 0;
+		for (UsageReport.Entry entry : report.tenants()) {
+			if (tenantDirectory.resolve(entry.tenant()).isEmpty()) {
+				ignored++;
+				continue;
+			}
+			usageRepository.addRequests(entry.tenant(), bucket, entry.requests(), entry.errors(),
+					entry.latencyMsTotal(), entry.latencyMsMax());
+		}
+		log.debug("Recorded usage of {} tenants, ignored {} unknown", report.tenants().size() - ignored, ignored);
+	}
+
+	/**
+	 * Samples the storage of the next batch of tenant schemas.
+	 */
+	@Scheduled(initialDelayString = "${tenant.metering.storage.interval:PT1M}",
+			fixedDelayString = "${tenant.metering.storage.interval:PT1M}")
+	public void sampleStorage() {
+		List<Tenant> batch = tenantRepository.findByIdGreaterThanOrderByIdAsc(storageCursor,
+				PageRequest.of(0, storageBatchSize));
+		// start over after the last tenant
+		storageCursor = batch.size() < storageBatchSize ? 0 : batch.get(batch.size() - 1).getId();
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		Map<String, String> identifiers = new LinkedHashMap<>();
+		batch.forEach(tenant -> identifiers.put(tenant.getDbSchema(), tenant.getIdentifier()));
+		Instant bucket = Instant.now().truncatedTo(ChronoUnit.HOURS);
+		List<StorageSample> samples = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(STORAGE)) {
+			Array schemas = connection.createArrayOf("text", identifiers.keySet().toArray());
+			stmt.setArray(1, schemas);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					samples.add(new StorageSample(identifiers.get(rs.getString(1)), rs.getLong(2), rs.getLong(3)));
+				}
+			}
+		}
+		catch (SQLException e) {
+			log.warn("Sampling storage of {} tenant schemas failed", batch.size(), e);
+			return;
+		}
+		for (StorageSample sample : samples) {
+			usageRepository.recordStorage(sample.identifier(), bucket, sample.bytes(), sample.rows());
+		}
+		log.debug("Sampled storage of {} tenant schemas", samples.size());
+	}
+
+	/**
+	 * Deletes rollups older than the retention period.
+	 */
+	@Scheduled(cron = "${tenant.metering.purge-cron:0 15 3 * * *}")
+	public void purge() {
+		int deleted = usageRepository.deleteOlderThan(Instant.now().minus(retention));
+		if (deleted > 0) {
+			log.info("Purged {} usage rollups older than {}", deleted, retention);
+		}
+	}
+
+	/**
+	 * Gets the usage of a tenant.
+	 * @param id the tenant ID
+	 * @param from start of the range, inclusive; truncated to the bucket
+	 * @param to end of the range, exclusive
+	 * @param granularity the bucket size
+	 * @return the usage per bucket
+	 * @throws IllegalArgumentException if the tenant does not exist
+	 */
+	public TenantUsageDTO getUsage(Long id, Instant from, Instant to, Granularity granularity) {
+		Tenant tenant = tenantRepository.findById(id)
+			.orElseThrow(() -> new IllegalArgumentException("Tenant not found with ID: " + id));
+		ChronoUnit unit = granularity == Granularity.DAY ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+
+		Map<Instant, List<TenantUsage>> buckets = new LinkedHashMap<>();
+		for (TenantUsage usage : usageRepository.findRange(tenant.getIdentifier(), from.truncatedTo(unit), to)) {
+			buckets.computeIfAbsent(usage.getBucketStart().truncatedTo(unit), start -> new ArrayList<>()).add(usage);
+		}
+		return new TenantUsageDTO(tenant.getIdentifier(), granularity.name(),
+				buckets.entrySet().stream().map(bucket -> toBucket(bucket.getKey(), bucket.getValue())).toList());
+	}
+
+	/**
+	 * Sums the hourly rollups of a bucket; storage is the latest sample.
+	 */
+	private static TenantUsageDTO.Bucket toBucket(Instant start, List<TenantUsage> hours) {
+		long requests = 0;
+		long errors = 0;
+		long latencyTotal = 0;
+		long latencyMax = 0;
+		Long storageBytes = null;
+		Long rowEstimate = null;
+		for (TenantUsage hour : hours) {
+			requests += hour.getRequests();
+			errors += hour.getErrors();
+			latencyTotal += hour.getLatencyMsTotal();
+			latencyMax = Math.max(latencyMax, hour.getLatencyMsMax());
+			if (hour.getStorageBytes() != null) {
+				storageBytes = hour.getStorageBytes();
+				rowEstimate = hour.getRowEstimate();
+			}
+		}
+		return new TenantUsageDTO.Bucket(start, requests, errors,
+				requests > 0 ? (double) latencyTotal / requests : null, latencyMax, storageBytes, rowEstimate);
+	}
+
+	/**
+	 * Storage of one tenant schema.
+	 * @param identifier the tenant identifier
+	 * @param bytes size of the schema's tables including indexes and TOAST
+	 * @param rows estimated rows in the schema's tables
+	 */
+	private record StorageSample(String identifier, long bytes, long rows) {
+	}
+
+}
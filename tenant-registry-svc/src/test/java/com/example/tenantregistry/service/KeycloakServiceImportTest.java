@@ -0,0 +1,197 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.dto.BulkImportUsersDTO;
+import com.example.tenantregistry.dto.ImportUserRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link KeycloakService#importUsers} against a local stand-in for Keycloak's admin API.
+ */
+class KeycloakServiceImportTest {
+
+	private static final String REALM = "acme";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	/** Payloads received on the partial import endpoint. */
+	private final List<JsonNode> imports = new CopyOnWriteArrayList<>();
+
+	/** Users the realm already has. */
+	private Set<String> existing = Set.of();
+
+	/** A chunk containing this user is rejected. */
+	private String poisoned;
+
+	/** This user is left out of the import results. */
+	private String unreported;
+
+	private HttpServer server;
+
+	private Keycloak keycloak;
+
+	private KeycloakService service;
+
+	@BeforeEach
+	void startKeycloak() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/realms/master/protocol/openid-connect/token", exchange -> respond(exchange, 200,
+				"{\"access_token\":\"admin-token\",\"token_type\":\"Bearer\",\"expires_in\":300}"));
+		server.createContext("/admin/realms/" + REALM + "/partialImport", this::partialImport);
+		server.start();
+
+		keycloak = KeycloakBuilder.builder()
+			.serverUrl("http://127.0.0.1:" + server.getAddress().getPort())
+			.realm("master")
+			.clientId("admin-cli")
+			.username("admin")
+			.password("admin")
+			.build();
+		service = new KeycloakService(keycloak, mock(RealmDirectory.class));
+		ReflectionTestUtils.setField(service, "importChunkSize", 2);
+	}
+
+	@AfterEach
+	void stopKeycloak() {
+		keycloak.close();
+		server.stop(0);
+	}
+
+	@Test
+	void reportsAddedAndSkippedUsers() {
+		existing = Set.of("bob");
+
+		BulkImportUsersDTO result = service.importUsers(REALM, List.of(user("alice"), user("Bob")));
+
+		assertThat(result.realm()).isEqualTo(REALM);
+		assertThat(result.items()).containsExactly(
+				new BulkImportUsersDTO.Item("alice", "ADDED", "id-alice", null),
+				new BulkImportUsersDTO.Item("bob", "SKIPPED", null, null));
+		assertThat(result.counts()).isEqualTo(Map.of("ADDED", 1L, "SKIPPED", 1L));
+	}
+
+	@Test
+	void sendsOnePayloadPerChunk() {
+		List<ImportUserRequest> users = IntStream.range(0, 5).mapToObj(i -> user("user" + i)).toList();
+
+		BulkImportUsersDTO result = service.importUsers(REALM, users);
+
+		assertThat(imports).hasSize(3);
+		assertThat(imports).extracting(payload -> payload.path("users").size()).containsExactly(2, 2, 1);
+		assertThat(imports).allSatisfy(payload -> {
+			assertThat(payload.path("ifResourceExists").asText()).isEqualTo("SKIP");
+			JsonNode first = payload.path("users").get(0);
+			assertThat(first.path("credentials").get(0).path("type").asText()).isEqualTo("password");
+			assertThat(first.path("realmRoles").get(0).asText()).isEqualTo("user");
+		});
+		assertThat(result.counts()).isEqualTo(Map.of("ADDED", 5L));
+	}
+
+	@Test
+	void rejectedChunkFailsOnlyItsUsers() {
+		poisoned = "user2";
+		List<ImportUserRequest> users = IntStream.range(0, 5).mapToObj(i -> user("user" + i)).toList();
+
+		BulkImportUsersDTO result = service.importUsers(REALM, users);
+
+		assertThat(imports).hasSize(3);
+		assertThat(result.items()).extracting(BulkImportUsersDTO.Item::outcome)
+			.containsExactly("ADDED", "ADDED", "FAILED", "FAILED", "ADDED");
+		assertThat(result.items().get(2).error()).contains("500");
+		assertThat(result.items().get(3).userId()).isNull();
+	}
+
+	@Test
+	void duplicatesAreSentOnce() {
+		BulkImportUsersDTO result = service.importUsers(REALM,
+				List.of(user("alice"), user("ALICE"), user("bob"), user("alice")));
+
+		assertThat(imports).hasSize(1);
+		assertThat(imports.get(0).path("users")).extracting(user -> user.path("username").asText())
+			.containsExactly("alice", "bob");
+		assertThat(result.items()).extracting(BulkImportUsersDTO.Item::outcome)
+			.containsExactly("ADDED", "DUPLICATE", "ADDED", "DUPLICATE");
+		assertThat(result.counts()).isEqualTo(Map.of("ADDED", 2L, "DUPLICATE", 2L));
+	}
+
+	@Test
+	void usersMissingFromTheResponseFail() {
+		unreported = "bob";
+
+		BulkImportUsersDTO result = service.importUsers(REALM, List.of(user("alice"), user("bob")));
+
+		assertThat(result.items()).containsExactly(
+				new BulkImportUsersDTO.Item("alice", "ADDED", "id-alice", null),
+				new BulkImportUsersDTO.Item("bob", "FAILED", null, "Not reported by Keycloak"));
+	}
+
+	private void partialImport(HttpExchange exchange) throws IOException {
+		JsonNode payload = mapper.readTree(exchange.getRequestBody());
+		imports.add(payload);
+		if (!"Bearer admin-token".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+			respond(exchange, 401, "{}");
+			return;
+		}
+
+		ArrayNode results = mapper.createArrayNode();
+		for (JsonNode user : payload.path("users")) {
+			String username = user.path("username").asText().toLowerCase(Locale.ROOT);
+			if (username.equals(poisoned)) {
+				respond(exchange, 500, "{\"errorMessage\":\"unknown_error\"}");
+				return;
+			}
+			if (username.equals(unreported)) {
+				continue;
+			}
+			ObjectNode result = results.addObject()
+				.put("resourceType", "USER")
+				.put("resourceName", username);
+			if (existing.contains(username)) {
+				result.put("action", "SKIPPED");
+			}
+			else {
+				result.put("action", "ADDED").put("id", "id-" + username);
+			}
+		}
+		ObjectNode body = mapper.createObjectNode();
+		body.set("results", results);
+		respond(exchange, 200, body.toString());
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (var out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static ImportUserRequest user(String username) {
+		return new ImportUserRequest(username, null, null, null, "secret", false, List.of("user"));
+	}
+
+}
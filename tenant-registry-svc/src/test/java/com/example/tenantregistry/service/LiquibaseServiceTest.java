@@ -0,0 +1,47 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.repository.SchemaVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Versioning of the tenant changelog by {@link LiquibaseService}.
+ */
+class LiquibaseServiceTest {
+
+	private static final String TENANT_CHANGELOG = "classpath:db/changelog/tenant/db.changelog-tenant.xml";
+
+	@Test
+	void changelogVersionHashesTenantChangesetsOnly() throws NoSuchAlgorithmException {
+		LiquibaseService service = service(TENANT_CHANGELOG);
+
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		digest.update("db/changelog/tenant/changes/01-create-products-table.xml::tenant-01-create-products-table::system\n"
+			.getBytes(StandardCharsets.UTF_8));
+
+		assertThat(service.changelogVersion()).isEqualTo(HexFormat.of().formatHex(digest.digest()));
+	}
+
+	@Test
+	void registryChangelogIsNotTheTenantChangelog() {
+		assertThat(service(TENANT_CHANGELOG).changelogVersion())
+			.isNotEqualTo(service("classpath:db/changelog/db.changelog-master.xml").changelogVersion());
+	}
+
+	private static LiquibaseService service(String changeLogPath) {
+		LiquibaseService service = new LiquibaseService(mock(DataSource.class), mock(SchemaCloner.class),
+				mock(SchemaVersionRepository.class));
+		ReflectionTestUtils.setField(service, "changeLogPath", changeLogPath);
+		return service;
+	}
+
+}
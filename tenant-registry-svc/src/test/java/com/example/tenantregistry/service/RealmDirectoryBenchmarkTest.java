@@ -0,0 +1,186 @@
+package com.example.tenantregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Realm existence checks against a local Keycloak stand-in holding 5,000 realms: the
+ * full listing {@code realmExists} used to download versus {@link RealmDirectory}.
+ * <p>
+ * Bytes and requests served are counted by the stand-in, so the comparison does not
+ * depend on the machine; timings are logged for reference.
+ */
+class RealmDirectoryBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(RealmDirectoryBenchmarkTest.class);
+
+	private static final int REALMS = 5_000;
+
+	private static final int CHECKS = 10;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	/** Serialized representation per realm name, as Keycloak returns it. */
+	private final Map<String, String> realms = new HashMap<>();
+
+	private final AtomicLong bytesServed = new AtomicLong();
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	private String listing;
+
+	private HttpServer server;
+
+	private Keycloak keycloak;
+
+	@BeforeEach
+	void startKeycloak() throws IOException {
+		ArrayNode all = mapper.createArrayNode();
+		for (int i = 0; i < REALMS; i++) {
+			ObjectNode realm = realm("tenant-" + i);
+			all.add(realm);
+			realms.put("tenant-" + i, realm.toString());
+		}
+		listing = all.toString();
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/realms/master/protocol/openid-connect/token", exchange -> respond(exchange, 200,
+				"{\"access_token\":\"admin-token\",\"token_type\":\"Bearer\",\"expires_in\":300}", false));
+		server.createContext("/admin/realms", this::adminRealms);
+		server.start();
+
+		keycloak = KeycloakBuilder.builder()
+			.serverUrl("http://127.0.0.1:" + server.getAddress().getPort())
+			.realm("master")
+			.clientId("admin-cli")
+			.username("admin")
+			.password("admin")
+			.build();
+	}
+
+	@AfterEach
+	void stopKeycloak() {
+		keycloak.close();
+		server.stop(0);
+	}
+
+	@Test
+	void directoryChecksCostASingleRealmInsteadOfAllRealms() {
+		List<String> names = IntStream.range(0, CHECKS)
+			.mapToObj(i -> i % 2 == 0 ? "tenant-" + (i * 499) : "missing-" + i)
+			.toList();
+
+		// what realmExists did before: list every realm for each check
+		Measurement listingAll = measure(() -> names.forEach(name -> keycloak.realms()
+			.findAll()
+			.stream()
+			.anyMatch(realm -> realm.getRealm().equals(name))));
+
+		RealmDirectory directory = new RealmDirectory(keycloak);
+		Measurement cold = measure(() -> names.forEach(directory::exists));
+		Measurement warm = measure(() -> names.stream().filter(name -> name.startsWith("tenant-"))
+			.forEach(directory::exists));
+		Measurement reconcile = measure(directory::reconcile);
+
+		log.info("{} checks against {} realms: full listing {}, directory cold {}, warm {}; reconcile {}", CHECKS,
+				REALMS, listingAll, cold, warm, reconcile);
+
+		assertThat(listingAll.requests()).isEqualTo(CHECKS);
+		assertThat(listingAll.bytes()).isEqualTo((long) CHECKS * listing.getBytes(StandardCharsets.UTF_8).length);
+		// one single-realm GET per unknown name, about 1/5000th of a listing each
+		assertThat(cold.requests()).isEqualTo(CHECKS);
+		assertThat(cold.bytes() * 1_000).isLessThan(listingAll.bytes());
+		// found realms are remembered
+		assertThat(warm.requests()).isZero();
+		// the only full listing left is the periodic reconciliation
+		assertThat(reconcile.requests()).isEqualTo(1);
+	}
+
+	private Measurement measure(Runnable checks) {
+		long bytesBefore = bytesServed.get();
+		int requestsBefore = requests.get();
+		long start = System.nanoTime();
+		checks.run();
+		return new Measurement(requests.get() - requestsBefore, bytesServed.get() - bytesBefore,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void adminRealms(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath().replaceAll("/$", "");
+		if (path.equals("/admin/realms")) {
+			respond(exchange, 200, listing, true);
+			return;
+		}
+		String realm = realms.get(path.substring("/admin/realms/".length()));
+		if (realm == null) {
+			respond(exchange, 404, "{\"error\":\"Realm not found.\"}", true);
+		}
+		else {
+			respond(exchange, 200, realm, true);
+		}
+	}
+
+	/** A realm about the size Keycloak returns for a tenant realm with default settings. */
+	private ObjectNode realm(String name) {
+		RealmRepresentation realm = new RealmRepresentation();
+		realm.setId(name + "-id");
+		realm.setRealm(name);
+		realm.setDisplayName(name.toUpperCase());
+		realm.setEnabled(true);
+		realm.setAccessTokenLifespan(300);
+		realm.setSsoSessionIdleTimeout(1800);
+		realm.setDefaultSignatureAlgorithm("RS256");
+		Map<String, String> attributes = new HashMap<>();
+		for (int i = 0; i < 40; i++) {
+			attributes.put("attribute" + i, "value-of-attribute-" + i);
+		}
+		realm.setAttributes(attributes);
+		return mapper.valueToTree(realm);
+	}
+
+	private void respond(HttpExchange exchange, int status, String body, boolean counted) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		if (counted) {
+			requests.incrementAndGet();
+			bytesServed.addAndGet(bytes.length);
+		}
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (var out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private record Measurement(int requests, long bytes, long millis) {
+
+		@Override
+		public String toString() {
+			return requests + " requests, " + bytes / 1024 + " KiB, " + millis + " ms";
+		}
+
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.repository.SchemaVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cloning by {@link SchemaCloner} against a real Postgres, and how long creating a
+ * tenant schema takes by cloning versus migrating as the changelog grows.
+ * <p>
+ * Timings are logged for reference; only the structure of the created schemas is
+ * asserted, apart from cloning being faster at the largest changelog.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaClonerTest {
+
+	private static final Logger log = LoggerFactory.getLogger(SchemaClonerTest.class);
+
+	@Container
+	private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private final SchemaCloner schemaCloner = new SchemaCloner();
+
+	private DataSource dataSource;
+
+	private ClassLoader contextClassLoader;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+		contextClassLoader = Thread.currentThread().getContextClassLoader();
+	}
+
+	@AfterEach
+	void tearDown() {
+		Thread.currentThread().setContextClassLoader(contextClassLoader);
+	}
+
+	@Test
+	void serialSequencesAreOwnedByTheCopiedColumn() throws SQLException {
+		execute("CREATE SCHEMA serial_template",
+				"CREATE TABLE serial_template.orders (id serial PRIMARY KEY, reference text)",
+				"CREATE SEQUENCE serial_template.invoice_numbers",
+				"INSERT INTO serial_template.orders (reference) VALUES ('seeded')");
+
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			assertThat(schemaCloner.clone(connection, "serial_template", "serial_copy")).isTrue();
+			connection.commit();
+		}
+
+		assertThat(query("SELECT pg_get_serial_sequence('serial_copy.orders', 'id')"))
+			.containsExactly("serial_copy.orders_id_seq");
+		assertThat(query("SELECT nextval(pg_get_serial_sequence('serial_copy.orders', 'id'))")).containsExactly("2");
+		// a sequence without an owner in the template gets none in the copy
+		assertThat(query("SELECT count(*) FROM pg_depend WHERE objid = 'serial_copy.invoice_numbers'::regclass "
+				+ "AND deptype = 'a'")).containsExactly("0");
+
+		execute("DROP TABLE serial_copy.orders");
+		assertThat(query("SELECT sequencename FROM pg_sequences WHERE schemaname = 'serial_copy'"))
+			.containsExactly("invoice_numbers");
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 10, 50, 200 })
+	void cloningTakesLessTimeThanMigratingAsTheChangelogGrows(int changeSets, @TempDir Path changelogs)
+			throws IOException, SQLException {
+		String changeLog = writeChangeLog(changelogs, changeSets);
+		Thread.currentThread()
+			.setContextClassLoader(new URLClassLoader(new URL[] { changelogs.toUri().toURL() },
+					contextClassLoader));
+		LiquibaseService liquibaseService = new LiquibaseService(dataSource, schemaCloner,
+				mock(SchemaVersionRepository.class));
+		ReflectionTestUtils.setField(liquibaseService, "changeLogPath", changeLog);
+		ReflectionTestUtils.setField(liquibaseService, "templateSchema", "template_" + changeSets);
+
+		// Preparing the template also warms Liquibase up, so neither timing includes that
+		ReflectionTestUtils.setField(liquibaseService, "templateEnabled", true);
+		liquibaseService.prepareTemplate();
+		long start = System.nanoTime();
+		assertThat(liquibaseService.createSchema("cloned_" + changeSets)).isTrue();
+		long cloned = (System.nanoTime() - start) / 1_000_000;
+
+		ReflectionTestUtils.setField(liquibaseService, "templateEnabled", false);
+		start = System.nanoTime();
+		assertThat(liquibaseService.createSchema("migrated_" + changeSets)).isTrue();
+		long migrated = (System.nanoTime() - start) / 1_000_000;
+
+		log.info("{} changesets: migrated in {} ms, cloned in {} ms", changeSets, migrated, cloned);
+
+		assertThat(tables("cloned_" + changeSets)).isEqualTo(tables("migrated_" + changeSets));
+		assertThat(query("SELECT count(*) FROM cloned_" + changeSets + ".databasechangelog"))
+			.containsExactly(String.valueOf(changeSets));
+		if (changeSets == 200) {
+			assertThat(cloned).isLessThan(migrated);
+		}
+	}
+
+	/** A changelog adding a table with a serial key, a column and an index per changeset. */
+	private static String writeChangeLog(Path directory, int changeSets) throws IOException {
+		StringBuilder xml = new StringBuilder("""
+				<?xml version="1.0" encoding="UTF-8"?>
+				<databaseChangeLog xmlns="http://www.liquibase.org/xml/ns/dbchangelog"
+				        xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+				        xsi:schemaLocation="http://www.liquibase.org/xml/ns/dbchangelog
+				        http://www.liquibase.org/xml/ns/dbchangelog/dbchangelog-4.20.xsd">
+				""");
+		for (int i = 0; i < changeSets; i++) {
+			xml.append("""
+					    <changeSet id="%1$d" author="benchmark">
+					        <sql>CREATE TABLE table_%1$d (id serial PRIMARY KEY, name varchar(255) NOT NULL)</sql>
+					        <addColumn tableName="table_%1$d">
+					            <column name="created_at" type="timestamp" defaultValueComputed="CURRENT_TIMESTAMP"/>
+					        </addColumn>
+					        <createIndex tableName="table_%1$d" indexName="idx_table_%1$d_name">
+					            <column name="name"/>
+					        </createIndex>
+					    </changeSet>
+					""".formatted(i));
+		}
+		xml.append("</databaseChangeLog>\n");
+		String name = "changelog-" + changeSets + ".xml";
+		Files.writeString(directory.resolve(name), xml);
+		return name;
+	}
+
+	private List<String> tables(String schema) throws SQLException {
+		return query("SELECT table_name FROM information_schema.tables WHERE table_schema = '" + schema
+				+ "' ORDER BY table_name");
+	}
+
+	private void execute(String... statements) throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement stmt = connection.createStatement()) {
+			for (String sql : statements) {
+				stmt.execute(sql);
+			}
+		}
+	}
+
+	private List<String> query(String sql) throws SQLException {
+		List<String> values = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				Statement stmt = connection.createStatement();
+				ResultSet rs = stmt.executeQuery(sql)) {
+			while (rs.next()) {
+				values.add(rs.getString(1));
+			}
+		}
+		return values;
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.example.tenantregistry.service;
+
+import com.example.tenantregistry.domain.ProvisioningJob;
+import com.example.tenantregistry.domain.ProvisioningJob.Status;
+import com.example.tenantregistry.domain.ProvisioningJob.StepStatus;
+import com.example.tenantregistry.repository.ProvisioningJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Claiming and finishing of jobs by {@link TenantProvisioner}.
+ */
+class TenantProvisionerTest {
+
+	private final ProvisioningJobRepository jobRepository = mock(ProvisioningJobRepository.class);
+
+	private final KeycloakService keycloakService = mock(KeycloakService.class);
+
+	private final LiquibaseService liquibaseService = mock(LiquibaseService.class);
+
+	private final TenantService tenantService = mock(TenantService.class);
+
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+	private TenantProvisioner provisioner;
+
+	private final ProvisioningJob job = ProvisioningJob.builder()
+		.id(1L)
+		.identifier("acme")
+		.name("Acme")
+		.status(Status.RUNNING)
+		.realmStep(StepStatus.DONE)
+		.realmAttempts(1)
+		.realmPreexisting(false)
+		.schemaStep(StepStatus.PENDING)
+		.updatedAt(Instant.parse("2026-01-01T00:00:00Z"))
+		.build();
+
+	@BeforeEach
+	void setUp() {
+		executor.initialize();
+		provisioner = new TenantProvisioner(jobRepository, keycloakService, liquibaseService, tenantService, executor,
+				executor);
+		ReflectionTestUtils.setField(provisioner, "maxAttempts", 1);
+		ReflectionTestUtils.setField(provisioner, "retryBackoff", Duration.ofMillis(1));
+		ReflectionTestUtils.setField(provisioner, "lease", Duration.ofMinutes(15));
+		when(jobRepository.findByStatusIn(any())).thenReturn(List.of(job));
+		when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void stepThatThrowsStillFailsAndCompensatesTheJob() {
+		claimSucceeds(true);
+		doThrow(new IllegalStateException("database down")).when(jobRepository)
+			.updateSchemaStep(eq(1L), eq(StepStatus.RUNNING), anyInt(), any());
+
+		provisioner.resumeUnfinishedJobs();
+
+		verify(keycloakService, timeout(5000)).deleteRealm("acme");
+		verify(jobRepository, timeout(5000)).updateStatus(eq(1L), eq(Status.FAILED), anyString(), any());
+		verify(tenantService, never()).completeProvisioning(any());
+	}
+
+	@Test
+	void jobClaimedByAnotherInstanceIsLeftAlone() {
+		claimSucceeds(false);
+
+		provisioner.resumeUnfinishedJobs();
+
+		verifyNoInteractions(keycloakService, liquibaseService, tenantService);
+		verify(jobRepository, never()).updateSchemaStep(any(), any(), anyInt(), any());
+	}
+
+	private void claimSucceeds(boolean claimed) {
+		when(jobRepository.claim(eq(1L), eq(job.getUpdatedAt()), eq(Status.PENDING), eq(Status.RUNNING), any(), any()))
+			.thenReturn(claimed ? 1 : 0);
+	}
+
+}